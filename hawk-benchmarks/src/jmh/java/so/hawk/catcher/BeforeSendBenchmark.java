@@ -0,0 +1,68 @@
+package so.hawk.catcher;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Overhead of hooks modifying events: none, a typed event processor, and a legacy beforeSend
+ * callback, which needs a JSONObject round trip.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BeforeSendBenchmark {
+    /**
+     * Hook applied to events.
+     */
+    @Param({"none", "processor", "beforeSend"})
+    public String hook;
+
+    /**
+     * Client composing the events.
+     */
+    private HawkClient hawk;
+
+    /**
+     * Reported exception.
+     */
+    private Exception exception;
+
+    /**
+     * Creates the client with the hook and the exception.
+     */
+    @Setup
+    public void setUp() {
+        HawkSettings settings = BenchmarkSupport.settings();
+        if ("processor".equals(hook)) {
+            settings.addEventProcessor(event -> {
+                event.getContext().put("region", "eu-1");
+                return event;
+            });
+        } else if ("beforeSend".equals(hook)) {
+            settings.setBeforeSend(payload -> {
+                payload.getJSONObject("payload").getJSONObject("context").put("region", "eu-1");
+                return payload;
+            });
+        }
+        hawk = new HawkClient(settings);
+        exception = BenchmarkSupport.exception(30);
+    }
+
+    /**
+     * Composes, processes and encodes an event.
+     *
+     * @return the payload
+     */
+    @Benchmark
+    public byte[] process() {
+        return hawk.encode(HawkClient.composeEvent(hawk, exception, null));
+    }
+}
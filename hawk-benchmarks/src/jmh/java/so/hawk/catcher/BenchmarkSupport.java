@@ -0,0 +1,58 @@
+package so.hawk.catcher;
+
+import so.hawk.playground.StubCollector;
+
+/**
+ * Shared fixtures of the benchmarks. Benchmarks live in the catcher package so they can compose
+ * and encode events without sending them.
+ */
+final class BenchmarkSupport {
+    /**
+     * Source root holding this file, passed by the build; used for benchmarks with source code.
+     */
+    static final String SOURCES = System.getProperty("hawk.benchmark.sources", "src/jmh/java");
+
+    /**
+     * Number of lines of this file referenced by synthetic frames; all of them exist.
+     */
+    private static final int SOURCE_LINES = 60;
+
+    /**
+     * Static utility.
+     */
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * Creates settings for a synchronous client that never finds source code and registers
+     * neither a metrics MBean nor a shutdown hook.
+     *
+     * @return the settings
+     */
+    static HawkSettings settings() {
+        return new HawkSettings(StubCollector.stubToken())
+                .setEndpoint("http://127.0.0.1:9")
+                .setSourceRoots("does-not-exist")
+                .setSourceJarsEnabled(false)
+                .setJmxEnabled(false)
+                .setShutdownHookEnabled(false);
+    }
+
+    /**
+     * Creates an exception with exactly the given number of frames, all pointing to existing lines
+     * of this file.
+     *
+     * @param frames the number of frames
+     * @return the exception
+     */
+    static Exception exception(int frames) {
+        Exception exception = new IllegalStateException("Order 4711 could not be processed");
+        StackTraceElement[] stackTrace = new StackTraceElement[frames];
+        for (int i = 0; i < frames; i++) {
+            stackTrace[i] = new StackTraceElement(BenchmarkSupport.class.getName(), "method" + (i % 7),
+                    "BenchmarkSupport.java", 1 + (i * 13) % SOURCE_LINES);
+        }
+        exception.setStackTrace(stackTrace);
+        return exception;
+    }
+}
@@ -0,0 +1,66 @@
+package so.hawk.catcher;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Cost of turning an exception or a message into the payload sent to the collector,
+ * for shallow and deep stacks, without source code.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ComposeEventBenchmark {
+    /**
+     * Number of stack frames of the reported exception.
+     */
+    @Param({"10", "300"})
+    public int frames;
+
+    /**
+     * Client composing the events.
+     */
+    private HawkClient hawk;
+
+    /**
+     * Reported exception.
+     */
+    private Exception exception;
+
+    /**
+     * Creates the client and the exception.
+     */
+    @Setup
+    public void setUp() {
+        hawk = new HawkClient(BenchmarkSupport.settings());
+        exception = BenchmarkSupport.exception(frames);
+    }
+
+    /**
+     * Composes and encodes an exception event.
+     *
+     * @return the payload
+     */
+    @Benchmark
+    public byte[] composeException() {
+        return hawk.encode(HawkClient.composeEvent(hawk, exception, null));
+    }
+
+    /**
+     * Composes and encodes a message event.
+     *
+     * @return the payload
+     */
+    @Benchmark
+    public byte[] composeMessage() {
+        return hawk.encode(HawkClient.composeEvent(hawk, "Payment service is slow", null));
+    }
+}
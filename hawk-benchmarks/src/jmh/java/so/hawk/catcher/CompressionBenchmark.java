@@ -0,0 +1,113 @@
+package so.hawk.catcher;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Cost of gzip-compressing encoded events at each level, on the sender thread. The body sizes before
+ * and after compression are reported as the {@code rawBytes} and {@code wireBytes} counters.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CompressionBenchmark {
+    /**
+     * Reported event: a message, or an exception with the given number of frames and whether
+     * source code is available for them.
+     */
+    @Param({"message", "20-frames", "300-frames", "300-frames-with-source"})
+    public String payload;
+
+    /**
+     * Deflate level.
+     */
+    @Param({"1", "3", "6", "9"})
+    public int level;
+
+    /**
+     * Encoded event.
+     */
+    private byte[] body;
+
+    /**
+     * Compressor reused across operations, as on the sender thread.
+     */
+    private PayloadCompressor compressor;
+
+    /**
+     * Encodes the event and creates the compressor.
+     */
+    @Setup
+    public void setUp() {
+        HawkSettings settings = BenchmarkSupport.settings();
+        if (payload.endsWith("with-source")) {
+            settings.setSourceRoots(BenchmarkSupport.SOURCES).setSourceResolveTimeoutMillis(1000);
+        }
+        HawkClient hawk = new HawkClient(settings);
+        Object reported = "message".equals(payload)
+                ? "Order 4711 could not be processed"
+                : BenchmarkSupport.exception(Integer.parseInt(payload.substring(0, payload.indexOf('-'))));
+        body = hawk.encode(HawkClient.composeEvent(hawk, reported, null));
+        hawk.close();
+        compressor = new PayloadCompressor(level, 0);
+    }
+
+    /**
+     * Releases the compressor.
+     */
+    @TearDown
+    public void tearDown() {
+        compressor.close();
+    }
+
+    /**
+     * Sizes of the last compressed body.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Sizes {
+        /**
+         * Size of the encoded event.
+         */
+        public long rawBytes;
+
+        /**
+         * Size of the compressed body.
+         */
+        public long wireBytes;
+
+        /**
+         * Clears the sizes before each iteration.
+         */
+        @Setup(Level.Iteration)
+        public void reset() {
+            rawBytes = 0;
+            wireBytes = 0;
+        }
+    }
+
+    /**
+     * Compresses the encoded event.
+     *
+     * @param sizes the reported sizes
+     * @return whether the body was compressed
+     */
+    @Benchmark
+    public boolean compress(Sizes sizes) {
+        boolean compressed = compressor.compress(body, 0, body.length);
+        sizes.rawBytes = body.length;
+        sizes.wireBytes = compressor.length();
+        return compressed;
+    }
+}
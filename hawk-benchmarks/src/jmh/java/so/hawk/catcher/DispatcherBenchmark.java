@@ -0,0 +1,109 @@
+package so.hawk.catcher;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import so.hawk.playground.StubCollector;
+
+/**
+ * Time to deliver a burst of events to a collector with network latency, by dispatcher mode:
+ * a single sender thread, a pool of platform request threads, or a virtual thread per request.
+ * Batching is off, so every event is one request, as with a collector that does not accept batches.
+ * Virtual threads need Java 21; on older JVMs that mode falls back to platform threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class DispatcherBenchmark {
+    /**
+     * Number of events reported per operation.
+     */
+    private static final int EVENTS = 64;
+
+    /**
+     * Maximum number of concurrent requests of the platform and virtual modes.
+     */
+    private static final int IN_FLIGHT = 16;
+
+    /**
+     * Dispatcher mode.
+     */
+    @Param({"single", "platform", "virtual"})
+    public String dispatcher;
+
+    /**
+     * Time the collector takes to answer each request.
+     */
+    @Param({"5", "20"})
+    public long latencyMillis;
+
+    /**
+     * In-process collector.
+     */
+    private StubCollector collector;
+
+    /**
+     * Client sending the events.
+     */
+    private HawkClient hawk;
+
+    /**
+     * Reported exception.
+     */
+    private Exception exception;
+
+    /**
+     * Starts the collector and creates the client.
+     *
+     * @throws IOException if the collector cannot be started
+     */
+    @Setup
+    public void setUp() throws IOException {
+        collector = new StubCollector(true);
+        collector.setLatencyMillis(latencyMillis);
+        HawkSettings settings = BenchmarkSupport.settings()
+                .setEndpoint(collector.getEndpoint())
+                .setAsync(true)
+                .setQueueCapacity(EVENTS * 2)
+                .setOverflowPolicy(OverflowPolicy.BLOCK)
+                .setEnqueueTimeoutMillis(1000)
+                .setMaxConnections(IN_FLIGHT);
+        if (!"single".equals(dispatcher)) {
+            settings.setMaxInFlightRequests(IN_FLIGHT)
+                    .setVirtualThreadsEnabled("virtual".equals(dispatcher));
+        }
+        hawk = new HawkClient(settings);
+        exception = BenchmarkSupport.exception(30);
+    }
+
+    /**
+     * Stops the client and the collector.
+     */
+    @TearDown
+    public void tearDown() {
+        hawk.shutdown(System.nanoTime() + TimeUnit.SECONDS.toNanos(5));
+        collector.close();
+    }
+
+    /**
+     * Reports a burst of events and waits until all of them are delivered.
+     *
+     * @return whether the events were delivered in time
+     */
+    @Benchmark
+    public boolean deliverBurst() {
+        for (int i = 0; i < EVENTS; i++) {
+            hawk.report(exception);
+        }
+        return hawk.flushEvents(System.nanoTime() + TimeUnit.SECONDS.toNanos(30));
+    }
+}
@@ -0,0 +1,89 @@
+package so.hawk.catcher;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import so.hawk.playground.StubCollector;
+
+/**
+ * Cost of reporting an exception as seen by the calling thread, against an in-process collector.
+ * In sync mode this includes the HTTP round trip; in async mode the caller only enqueues, and the
+ * queue blocks when full so the rate stays bounded by actual delivery.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SendBenchmark {
+    /**
+     * Delivery mode.
+     */
+    @Param({"sync", "async"})
+    public String mode;
+
+    /**
+     * Whether request bodies are gzip-compressed.
+     */
+    @Param({"false", "true"})
+    public boolean compression;
+
+    /**
+     * In-process collector.
+     */
+    private StubCollector collector;
+
+    /**
+     * Client sending the events.
+     */
+    private HawkClient hawk;
+
+    /**
+     * Reported exception.
+     */
+    private Exception exception;
+
+    /**
+     * Starts the collector and creates the client.
+     *
+     * @throws IOException if the collector cannot be started
+     */
+    @Setup
+    public void setUp() throws IOException {
+        collector = new StubCollector(true);
+        HawkSettings settings = BenchmarkSupport.settings()
+                .setEndpoint(collector.getEndpoint())
+                .setCompressionEnabled(compression);
+        if ("async".equals(mode)) {
+            settings.setAsync(true)
+                    .setOverflowPolicy(OverflowPolicy.BLOCK)
+                    .setEnqueueTimeoutMillis(1000)
+                    .setBatchSize(50);
+        }
+        hawk = new HawkClient(settings);
+        exception = BenchmarkSupport.exception(30);
+    }
+
+    /**
+     * Stops the collector.
+     */
+    @TearDown
+    public void tearDown() {
+        collector.close();
+    }
+
+    /**
+     * Reports an exception.
+     */
+    @Benchmark
+    public void send() {
+        hawk.report(exception);
+    }
+}
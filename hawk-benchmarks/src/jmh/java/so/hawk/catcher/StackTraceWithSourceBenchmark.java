@@ -0,0 +1,66 @@
+package so.hawk.catcher;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Cost of the backtrace with and without source code. Snippets are memoized, so after warmup this
+ * measures the steady state of an application reporting the same frames repeatedly.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class StackTraceWithSourceBenchmark {
+    /**
+     * Whether the source root holding the frames' file is configured.
+     */
+    @Param({"true", "false"})
+    public boolean sourceAvailable;
+
+    /**
+     * Number of stack frames of the reported exception.
+     */
+    @Param({"50"})
+    public int frames;
+
+    /**
+     * Client composing the events.
+     */
+    private HawkClient hawk;
+
+    /**
+     * Reported exception.
+     */
+    private Exception exception;
+
+    /**
+     * Creates the client and the exception.
+     */
+    @Setup
+    public void setUp() {
+        HawkSettings settings = BenchmarkSupport.settings();
+        if (sourceAvailable) {
+            settings.setSourceRoots(BenchmarkSupport.SOURCES).setSourceResolveTimeoutMillis(1000);
+        }
+        hawk = new HawkClient(settings);
+        exception = BenchmarkSupport.exception(frames);
+    }
+
+    /**
+     * Composes and encodes an exception event including its backtrace.
+     *
+     * @return the payload
+     */
+    @Benchmark
+    public byte[] backtrace() {
+        return hawk.encode(HawkClient.composeEvent(hawk, exception, null));
+    }
+}
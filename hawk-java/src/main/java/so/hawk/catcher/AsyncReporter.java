@@ -0,0 +1,252 @@
+package so.hawk.catcher;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.json.JSONObject;
+
+/**
+ * Composes and delivers events reported with {@link HawkClient#sendAsync} on a dedicated background thread,
+ * so the reporting thread (typically a logging thread) only captures references and returns. Also serializes
+ * events composed by {@link HawkClient#send} whose source snippets are still being loaded.
+ */
+class AsyncReporter {
+    /**
+     * How long the reporter thread sleeps when the queue is empty and nobody wakes it up.
+     */
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    /**
+     * Pause between checks while waiting for the queue to drain.
+     */
+    private static final long FLUSH_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /**
+     * An error or message waiting to be composed, or a composed event waiting to be delivered.
+     */
+    private static final class PendingReport {
+        /**
+         * The composed event, or null if the report still has to be composed.
+         */
+        final HawkEvent event;
+
+        /**
+         * The reported exception or message.
+         */
+        final Object messageOrException;
+
+        /**
+         * Additional data converted to addons, or null.
+         */
+        final Map<String, ?> addons;
+
+        /**
+         * Breadcrumbs of the reporting thread, or null.
+         */
+        final List<Breadcrumb> threadBreadcrumbs;
+
+        /**
+         * Context scope of the reporting thread, or null.
+         */
+        final ContextScope scope;
+
+        /**
+         * Creates a pending report.
+         *
+         * @param messageOrException the reported exception or message
+         * @param addons             the additional data, or null
+         * @param threadBreadcrumbs  the breadcrumbs of the reporting thread, or null
+         * @param scope              the context scope of the reporting thread, or null
+         */
+        PendingReport(Object messageOrException, Map<String, ?> addons, List<Breadcrumb> threadBreadcrumbs,
+                      ContextScope scope) {
+            this.event = null;
+            this.messageOrException = messageOrException;
+            this.addons = addons;
+            this.threadBreadcrumbs = threadBreadcrumbs;
+            this.scope = scope;
+        }
+
+        /**
+         * Creates a report of a composed event.
+         *
+         * @param event the composed event
+         */
+        PendingReport(HawkEvent event) {
+            this.event = event;
+            this.messageOrException = null;
+            this.addons = null;
+            this.threadBreadcrumbs = null;
+            this.scope = null;
+        }
+    }
+
+    /**
+     * Instance composing and delivering the events.
+     */
+    private final HawkClient hawk;
+
+    /**
+     * Reports waiting to be composed.
+     */
+    private final EventQueue<PendingReport> queue;
+
+    /**
+     * Number of reports discarded because the queue was full or the reporter was closed.
+     */
+    private final LongAdder droppedReports;
+
+    /**
+     * Background thread draining the queue.
+     */
+    private final Thread reporterThread;
+
+    /**
+     * Set while the reporter thread is about to park, so producers know they have to wake it up.
+     */
+    private volatile boolean reporterWaiting;
+
+    /**
+     * Set while the reporter thread holds a report taken from the queue.
+     */
+    private volatile boolean busy;
+
+    /**
+     * Cleared when the reporter is closed.
+     */
+    private volatile boolean running = true;
+
+    /**
+     * Creates and starts a reporter.
+     *
+     * @param hawk           the client composing and delivering the events
+     * @param capacity       the maximum number of waiting reports
+     * @param droppedReports counts reports discarded because the queue was full
+     */
+    AsyncReporter(HawkClient hawk, int capacity, LongAdder droppedReports) {
+        this.hawk = hawk;
+        this.queue = new EventQueue<>(capacity);
+        this.droppedReports = droppedReports;
+        this.reporterThread = new Thread(this::drainLoop, "hawk-reporter");
+        this.reporterThread.setDaemon(true);
+        this.reporterThread.start();
+    }
+
+    /**
+     * Queues a report with the context scope of the calling thread. Never blocks: the report
+     * is dropped if the queue is full.
+     *
+     * @param messageOrException the exception or message
+     * @param addons             additional data converted to addons, or null
+     * @param threadBreadcrumbs  breadcrumbs of the reporting thread, or null
+     * @return true if the report was queued
+     */
+    boolean submit(Object messageOrException, Map<String, ?> addons, List<Breadcrumb> threadBreadcrumbs) {
+        if (!running || !queue.offer(new PendingReport(messageOrException, addons, threadBreadcrumbs,
+                ContextScope.current()))) {
+            droppedReports.increment();
+            return false;
+        }
+        if (reporterWaiting) {
+            LockSupport.unpark(reporterThread);
+        }
+        return true;
+    }
+
+    /**
+     * Queues a composed event to be serialized and delivered. Never blocks.
+     *
+     * @param event the composed event
+     * @return true if the event was queued, false if the queue is full and the caller has to deliver it
+     */
+    boolean submit(HawkEvent event) {
+        if (!running || !queue.offer(new PendingReport(event))) {
+            return false;
+        }
+        if (reporterWaiting) {
+            LockSupport.unpark(reporterThread);
+        }
+        return true;
+    }
+
+    /**
+     * Main loop of the reporter thread.
+     */
+    private void drainLoop() {
+        while (running) {
+            busy = true;
+            PendingReport report = queue.poll();
+            if (report == null) {
+                busy = false;
+                reporterWaiting = true;
+                if (queue.isEmpty() && running) {
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                }
+                reporterWaiting = false;
+                continue;
+            }
+            process(report);
+            busy = false;
+        }
+    }
+
+    /**
+     * Composes and delivers a report.
+     *
+     * @param report the report
+     */
+    private void process(PendingReport report) {
+        try {
+            if (report.event != null) {
+                hawk.deliver(report.event);
+                return;
+            }
+            JSONObject addons = report.addons != null ? new JSONObject(report.addons) : null;
+            hawk.deliver(HawkClient.composeEvent(hawk, report.messageOrException, addons, report.threadBreadcrumbs,
+                    report.scope));
+        } catch (Throwable t) {
+            Diagnostics.error("Failed to report event", t);
+        }
+    }
+
+    /**
+     * Waits until every queued report has been composed and handed over for delivery, or the deadline passes.
+     *
+     * @param deadlineNanos the deadline, from {@link System#nanoTime()}
+     * @return true if the queue was drained before the deadline
+     */
+    boolean flush(long deadlineNanos) {
+        while (!queue.isEmpty() || busy) {
+            if (System.nanoTime() - deadlineNanos >= 0 || !reporterThread.isAlive()) {
+                return false;
+            }
+            LockSupport.unpark(reporterThread);
+            LockSupport.parkNanos(this, FLUSH_PARK_NANOS);
+        }
+        return true;
+    }
+
+    /**
+     * Composes the queued reports until the deadline and stops the reporter thread.
+     * Reports still queued at the deadline are dropped.
+     *
+     * @param deadlineNanos the deadline, from {@link System#nanoTime()}
+     */
+    void close(long deadlineNanos) {
+        flush(deadlineNanos);
+        running = false;
+        LockSupport.unpark(reporterThread);
+
+        int dropped = 0;
+        while (queue.poll() != null) {
+            dropped++;
+        }
+        if (dropped > 0) {
+            droppedReports.add(dropped);
+            Diagnostics.warn("Shutdown deadline reached: {} reports were not composed.", dropped);
+        }
+    }
+}
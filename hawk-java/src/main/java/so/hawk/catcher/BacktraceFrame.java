@@ -0,0 +1,138 @@
+package so.hawk.catcher;
+
+import java.util.List;
+
+/**
+ * A single stack frame of an event backtrace.
+ */
+public class BacktraceFrame {
+    /**
+     * Source file name.
+     */
+    private String file;
+
+    /**
+     * Line number, 0 or negative if unknown.
+     */
+    private int line;
+
+    /**
+     * Column number, usually unavailable in Java.
+     */
+    private int column;
+
+    /**
+     * Method name.
+     */
+    private String function;
+
+    /**
+     * Source lines around the frame line, or null if unavailable.
+     */
+    private List<SourceLine> sourceCode;
+
+    /**
+     * Creates a frame.
+     *
+     * @param file       the source file name
+     * @param line       the line number
+     * @param function   the method name
+     * @param sourceCode the source lines around the frame line, or null
+     */
+    public BacktraceFrame(String file, int line, String function, List<SourceLine> sourceCode) {
+        this.file = file;
+        this.line = line;
+        this.function = function;
+        this.sourceCode = sourceCode;
+    }
+
+    /**
+     * Gets the source file name.
+     *
+     * @return the file name
+     */
+    public String getFile() {
+        return file;
+    }
+
+    /**
+     * Sets the source file name.
+     *
+     * @param file the file name
+     */
+    public void setFile(String file) {
+        this.file = file;
+    }
+
+    /**
+     * Gets the line number.
+     *
+     * @return the line number
+     */
+    public int getLine() {
+        return line;
+    }
+
+    /**
+     * Sets the line number.
+     *
+     * @param line the line number
+     */
+    public void setLine(int line) {
+        this.line = line;
+    }
+
+    /**
+     * Gets the column number.
+     *
+     * @return the column number, 0 if unknown
+     */
+    public int getColumn() {
+        return column;
+    }
+
+    /**
+     * Sets the column number.
+     *
+     * @param column the column number
+     */
+    public void setColumn(int column) {
+        this.column = column;
+    }
+
+    /**
+     * Gets the method name.
+     *
+     * @return the method name
+     */
+    public String getFunction() {
+        return function;
+    }
+
+    /**
+     * Sets the method name.
+     *
+     * @param function the method name
+     */
+    public void setFunction(String function) {
+        this.function = function;
+    }
+
+    /**
+     * Gets the source lines around the frame line.
+     *
+     * @return the source lines, or null if unavailable
+     */
+    public List<SourceLine> getSourceCode() {
+        return sourceCode;
+    }
+
+    /**
+     * Sets the source lines around the frame line.
+     *
+     * @param sourceCode the source lines, or null to omit them
+     */
+    public void setSourceCode(List<SourceLine> sourceCode) {
+        this.sourceCode = sourceCode;
+    }
+}
@@ -0,0 +1,40 @@
+package so.hawk.catcher;
+
+import org.json.JSONObject;
+
+/**
+ * Runs a {@link BeforeSendCallback} as an {@link EventProcessor}: the event is converted to the
+ * JSONObject the callback expects and the returned object is copied back into the event.
+ */
+class BeforeSendProcessor implements EventProcessor {
+    /**
+     * Wrapped callback.
+     */
+    private final BeforeSendCallback callback;
+
+    /**
+     * Envelope with the token and catcher type included in the JSON view.
+     */
+    private final JsonWriter.Prefix envelope;
+
+    /**
+     * Creates the adapter.
+     *
+     * @param callback the callback to run
+     * @param envelope the envelope included in the JSON view, see {@link HawkEvent#envelope}
+     */
+    BeforeSendProcessor(BeforeSendCallback callback, JsonWriter.Prefix envelope) {
+        this.callback = callback;
+        this.envelope = envelope;
+    }
+
+    @Override
+    public HawkEvent process(HawkEvent event) {
+        JSONObject modified = callback.onBeforeSend(event.toJSONObject(envelope));
+        if (modified == null) {
+            return null;
+        }
+        event.updateFrom(modified);
+        return event;
+    }
+}
@@ -0,0 +1,77 @@
+package so.hawk.catcher;
+
+/**
+ * An action recorded before an event, such as an HTTP request, a database query or a log line.
+ */
+public final class Breadcrumb {
+    /**
+     * Time of the action, in epoch milliseconds.
+     */
+    private final long timestamp;
+
+    /**
+     * Kind of action, e.g. {@code http}, {@code sql} or {@code log}.
+     */
+    private final String category;
+
+    /**
+     * Severity.
+     */
+    private final BreadcrumbLevel level;
+
+    /**
+     * Description of the action.
+     */
+    private final String message;
+
+    /**
+     * Creates a breadcrumb.
+     *
+     * @param timestamp the time of the action, in epoch milliseconds
+     * @param category  the kind of action
+     * @param level     the severity
+     * @param message   the description of the action
+     */
+    public Breadcrumb(long timestamp, String category, BreadcrumbLevel level, String message) {
+        this.timestamp = timestamp;
+        this.category = category;
+        this.level = level;
+        this.message = message;
+    }
+
+    /**
+     * Gets the time of the action.
+     *
+     * @return the time in epoch milliseconds
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Gets the kind of action.
+     *
+     * @return the category
+     */
+    public String getCategory() {
+        return category;
+    }
+
+    /**
+     * Gets the severity.
+     *
+     * @return the level
+     */
+    public BreadcrumbLevel getLevel() {
+        return level;
+    }
+
+    /**
+     * Gets the description of the action.
+     *
+     * @return the message
+     */
+    public String getMessage() {
+        return message;
+    }
+}
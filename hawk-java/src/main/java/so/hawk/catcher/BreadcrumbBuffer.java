@@ -0,0 +1,115 @@
+package so.hawk.catcher;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Fixed-size ring buffer keeping the latest breadcrumbs.
+ * <p>
+ * Fields are stored in preallocated parallel arrays, so recording allocates nothing. Writers claim
+ * a slot with a single atomic increment and mark it as being written by clearing its sequence number,
+ * which they set again once the fields are stored. Readers skip slots whose sequence number changes
+ * while they copy them, so a snapshot never contains a half-written breadcrumb; it may miss the ones
+ * being written at that moment.
+ */
+final class BreadcrumbBuffer {
+    /**
+     * Sequence number of a slot that is empty or being written.
+     */
+    private static final long WRITING = -1;
+
+    /**
+     * Number of slots.
+     */
+    private final int capacity;
+
+    /**
+     * Sequence number of the next breadcrumb.
+     */
+    private final AtomicLong next = new AtomicLong();
+
+    /**
+     * Sequence number of the breadcrumb stored in each slot, or {@link #WRITING}.
+     */
+    private final AtomicLongArray sequences;
+
+    /**
+     * Timestamps, in epoch milliseconds.
+     */
+    private final AtomicLongArray timestamps;
+
+    /**
+     * Categories.
+     */
+    private final AtomicReferenceArray<String> categories;
+
+    /**
+     * Levels.
+     */
+    private final AtomicReferenceArray<BreadcrumbLevel> levels;
+
+    /**
+     * Messages.
+     */
+    private final AtomicReferenceArray<String> messages;
+
+    /**
+     * Creates an empty buffer.
+     *
+     * @param capacity the number of breadcrumbs kept
+     */
+    BreadcrumbBuffer(int capacity) {
+        this.capacity = capacity;
+        this.sequences = new AtomicLongArray(capacity);
+        this.timestamps = new AtomicLongArray(capacity);
+        this.categories = new AtomicReferenceArray<>(capacity);
+        this.levels = new AtomicReferenceArray<>(capacity);
+        this.messages = new AtomicReferenceArray<>(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, WRITING);
+        }
+    }
+
+    /**
+     * Records a breadcrumb, overwriting the oldest one if the buffer is full.
+     *
+     * @param timestamp the time of the action, in epoch milliseconds
+     * @param category  the kind of action
+     * @param level     the severity
+     * @param message   the description of the action
+     */
+    void add(long timestamp, String category, BreadcrumbLevel level, String message) {
+        long sequence = next.getAndIncrement();
+        int index = (int) (sequence % capacity);
+        sequences.set(index, WRITING);
+        timestamps.set(index, timestamp);
+        categories.set(index, category);
+        levels.set(index, level);
+        messages.set(index, message);
+        sequences.set(index, sequence);
+    }
+
+    /**
+     * Copies the stored breadcrumbs, oldest first.
+     *
+     * @param target the list the breadcrumbs are added to
+     */
+    void snapshotInto(List<Breadcrumb> target) {
+        long end = next.get();
+        for (long sequence = Math.max(0, end - capacity); sequence < end; sequence++) {
+            int index = (int) (sequence % capacity);
+            if (sequences.get(index) != sequence) {
+                continue;
+            }
+            long timestamp = timestamps.get(index);
+            String category = categories.get(index);
+            BreadcrumbLevel level = levels.get(index);
+            String message = messages.get(index);
+            if (sequences.get(index) == sequence) {
+                target.add(new Breadcrumb(timestamp, category, level, message));
+            }
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package so.hawk.catcher;
+
+/**
+ * Severity of a breadcrumb.
+ */
+public enum BreadcrumbLevel {
+    /**
+     * Detailed tracing information.
+     */
+    DEBUG,
+
+    /**
+     * Regular actions such as requests and queries.
+     */
+    INFO,
+
+    /**
+     * Something unexpected that did not fail.
+     */
+    WARNING,
+
+    /**
+     * A failure.
+     */
+    ERROR
+}
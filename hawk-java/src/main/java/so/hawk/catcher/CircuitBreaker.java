@@ -0,0 +1,123 @@
+package so.hawk.catcher;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Stops sending requests to a collector that keeps failing.
+ * <p>
+ * After the configured number of consecutive failures the breaker opens and requests are skipped
+ * without touching the network. Once the open period ends, a single probe request is let through
+ * (half-open): if it succeeds the breaker closes, otherwise it opens again.
+ */
+class CircuitBreaker {
+    /**
+     * Breaker states.
+     */
+    enum State {
+        /**
+         * Requests go through.
+         */
+        CLOSED,
+
+        /**
+         * Requests are skipped.
+         */
+        OPEN,
+
+        /**
+         * A single probe request is in flight, others are skipped.
+         */
+        HALF_OPEN
+    }
+
+    /**
+     * Number of consecutive failures that opens the breaker.
+     */
+    private final int failureThreshold;
+
+    /**
+     * How long the breaker stays open before probing.
+     */
+    private final long openNanos;
+
+    /**
+     * Current state.
+     */
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+
+    /**
+     * Consecutive failures while closed.
+     */
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+
+    /**
+     * {@link System#nanoTime()} at which an open breaker allows a probe.
+     */
+    private volatile long openUntilNanos;
+
+    /**
+     * Creates a circuit breaker.
+     *
+     * @param failureThreshold the number of consecutive failures that opens the breaker
+     * @param openMillis       how long the breaker stays open before probing
+     */
+    CircuitBreaker(int failureThreshold, long openMillis) {
+        this.failureThreshold = failureThreshold;
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMillis);
+    }
+
+    /**
+     * Checks whether a request may be sent. Lets exactly one probe through once the open period is over.
+     *
+     * @return true if the request may be sent
+     */
+    boolean allowRequest() {
+        State current = state.get();
+        if (current == State.CLOSED) {
+            return true;
+        }
+        if (current == State.OPEN && System.nanoTime() - openUntilNanos >= 0) {
+            return state.compareAndSet(State.OPEN, State.HALF_OPEN);
+        }
+        return false;
+    }
+
+    /**
+     * Records a successful request and closes the breaker.
+     */
+    void onSuccess() {
+        consecutiveFailures.set(0);
+        state.set(State.CLOSED);
+    }
+
+    /**
+     * Records a failed request, opening the breaker if the probe failed or the threshold is reached.
+     */
+    void onFailure() {
+        if (state.get() == State.HALF_OPEN || consecutiveFailures.incrementAndGet() >= failureThreshold) {
+            openFor(openNanos);
+        }
+    }
+
+    /**
+     * Opens the breaker for at least the given time, e.g. when the collector asks to retry later.
+     *
+     * @param nanos the time to stay open
+     */
+    void openFor(long nanos) {
+        openUntilNanos = System.nanoTime() + Math.max(nanos, openNanos);
+        consecutiveFailures.set(0);
+        state.set(State.OPEN);
+    }
+
+    /**
+     * Gets the current state.
+     *
+     * @return the breaker state
+     */
+    State getState() {
+        return state.get();
+    }
+}
@@ -0,0 +1,108 @@
+package so.hawk.catcher;
+
+/**
+ * Context values added for the current thread, e.g. for the duration of a request.
+ * <p>
+ * Scopes form an immutable linked list, so opening one allocates a single object and events
+ * capture the current scope by reference. Values of inner scopes override outer ones and the
+ * global context. Close scopes in reverse order, preferably with try-with-resources:
+ *
+ * <pre>{@code
+ * try (ContextScope scope = Hawk.withContext("requestId", requestId)) {
+ *     handle(request);
+ * }
+ * }</pre>
+ */
+public final class ContextScope implements AutoCloseable {
+    /**
+     * Innermost open scope of each thread.
+     */
+    private static final ThreadLocal<ContextScope> CURRENT = new ThreadLocal<>();
+
+    /**
+     * Context key.
+     */
+    final String key;
+
+    /**
+     * Context value.
+     */
+    final Object value;
+
+    /**
+     * Enclosing scope, or null.
+     */
+    final ContextScope parent;
+
+    /**
+     * Creates a scope.
+     *
+     * @param key    the context key
+     * @param value  the context value
+     * @param parent the enclosing scope, or null
+     */
+    private ContextScope(String key, Object value, ContextScope parent) {
+        this.key = key;
+        this.value = value;
+        this.parent = parent;
+    }
+
+    /**
+     * Opens a scope on the current thread.
+     *
+     * @param key   the context key
+     * @param value the context value
+     * @return the scope
+     */
+    static ContextScope open(String key, Object value) {
+        if (key == null) {
+            throw new IllegalArgumentException("Context key must not be null.");
+        }
+        ContextScope scope = new ContextScope(key, value, CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    /**
+     * Gets the innermost open scope of the current thread.
+     *
+     * @return the scope, or null if none is open
+     */
+    static ContextScope current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Checks whether a scope closer to the innermost one than {@code until} defines the key.
+     *
+     * @param key   the context key
+     * @param until the scope where the search stops, or null to search all
+     * @return true if the key is defined before {@code until}
+     */
+    boolean definesBefore(String key, ContextScope until) {
+        for (ContextScope scope = this; scope != until && scope != null; scope = scope.parent) {
+            if (scope.key.equals(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Closes this scope and any inner scope left open. Does nothing if it is already closed
+     * or belongs to another thread.
+     */
+    @Override
+    public void close() {
+        for (ContextScope scope = CURRENT.get(); scope != null; scope = scope.parent) {
+            if (scope == this) {
+                if (parent != null) {
+                    CURRENT.set(parent);
+                } else {
+                    CURRENT.remove();
+                }
+                return;
+            }
+        }
+    }
+}
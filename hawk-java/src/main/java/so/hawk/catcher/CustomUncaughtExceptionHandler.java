@@ -14,14 +14,15 @@ public class CustomUncaughtExceptionHandler implements Thread.UncaughtExceptionH
     }
 
     /**
-     * Handles uncaught exceptions by logging them and invoking the default handler.
+     * Handles uncaught exceptions by reporting them and invoking the default handler.
+     * The report is delivered before the default handler runs, since it may terminate the JVM.
      *
      * @param t the thread that threw the exception
      * @param e the thrown exception
      */
     @Override
     public void uncaughtException(Thread t, Throwable e) {
-        Hawk.send(e);
+        Hawk.reportUncaught(e);
 
         if (defaultHandler != null) {
             defaultHandler.uncaughtException(t, e);
@@ -33,4 +34,13 @@ public class CustomUncaughtExceptionHandler implements Thread.UncaughtExceptionH
     public void enable() {
         Thread.setDefaultUncaughtExceptionHandler(this);
     }
+
+    /**
+     * Restores the previous default handler if this handler is still the default one.
+     */
+    public void disable() {
+        if (Thread.getDefaultUncaughtExceptionHandler() == this) {
+            Thread.setDefaultUncaughtExceptionHandler(defaultHandler);
+        }
+    }
 }
\ No newline at end of file
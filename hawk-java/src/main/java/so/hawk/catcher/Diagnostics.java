@@ -0,0 +1,321 @@
+package so.hawk.catcher;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Internal diagnostics messages of the catcher, off by default.
+ * <p>
+ * Reporting threads never write to the console: when a level is enabled, a message is rate limited,
+ * put into a bounded lock-free queue and formatted and written by the {@code hawk-diagnostics} thread.
+ * Messages over the rate limit or over the queue capacity are counted and reported as suppressed.
+ * When a level is disabled, logging costs a single volatile read; callers on the reporting path
+ * check {@link #isEnabled} first so the argument array is not even allocated. Arguments are substituted for
+ * {@code {}} placeholders; a trailing {@link Throwable} argument without a placeholder is logged
+ * as the cause. Messages go to SLF4J when it is on the class path, otherwise to standard error.
+ */
+final class Diagnostics {
+    /**
+     * Maximum number of messages waiting to be written.
+     */
+    private static final int QUEUE_CAPACITY = 1024;
+
+    /**
+     * How long the writer thread sleeps when the queue is empty.
+     */
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    /**
+     * Minimum interval between two notices about suppressed messages.
+     */
+    private static final long SUPPRESSED_NOTICE_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * Messages waiting to be written.
+     */
+    private static final EventQueue<Record> queue = new EventQueue<>(QUEUE_CAPACITY);
+
+    /**
+     * Number of messages dropped since the last suppression notice.
+     */
+    private static final LongAdder suppressed = new LongAdder();
+
+    /**
+     * Most verbose level written.
+     */
+    private static volatile DiagnosticsLevel level = DiagnosticsLevel.OFF;
+
+    /**
+     * Limits the rate of messages, or null if unlimited.
+     */
+    private static volatile TokenBucket rateLimiter;
+
+    /**
+     * Destination of messages.
+     */
+    private static volatile Sink sink = new ConsoleSink();
+
+    /**
+     * Thread writing messages, started when a level is first enabled.
+     */
+    private static Thread writer;
+
+    /**
+     * Static utility.
+     */
+    private Diagnostics() {
+    }
+
+    /**
+     * Destination of formatted messages.
+     */
+    interface Sink {
+        /**
+         * Writes a message.
+         *
+         * @param level      the message level
+         * @param timeMillis the time the message was logged, in epoch milliseconds
+         * @param threadName the name of the thread that logged the message
+         * @param message    the formatted message
+         * @param thrown     the cause, or null
+         */
+        void write(DiagnosticsLevel level, long timeMillis, String threadName, String message, Throwable thrown);
+    }
+
+    /**
+     * Applies the diagnostics settings. Called by {@link Hawk#init} only, so that creating other
+     * clients does not reset them.
+     *
+     * @param settings the configuration settings
+     */
+    static synchronized void configure(HawkSettings settings) {
+        sink = settings.isDiagnosticsSlf4jEnabled() && isSlf4jPresent() ? new Slf4jDiagnosticsSink() : new ConsoleSink();
+        int rate = settings.getDiagnosticsRateLimit();
+        rateLimiter = rate > 0 ? new TokenBucket(rate, rate) : null;
+        level = settings.getDiagnosticsLevel();
+
+        if (level != DiagnosticsLevel.OFF && writer == null) {
+            writer = new Thread(Diagnostics::writeLoop, "hawk-diagnostics");
+            writer.setDaemon(true);
+            writer.start();
+        }
+    }
+
+    /**
+     * Checks whether SLF4J can be loaded.
+     *
+     * @return true if the SLF4J API is on the class path
+     */
+    private static boolean isSlf4jPresent() {
+        try {
+            Class.forName("org.slf4j.LoggerFactory", false, Diagnostics.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * Checks whether messages of the given level are written.
+     *
+     * @param messageLevel the level
+     * @return true if enabled
+     */
+    static boolean isEnabled(DiagnosticsLevel messageLevel) {
+        return messageLevel.ordinal() <= level.ordinal();
+    }
+
+    /**
+     * Logs an error.
+     *
+     * @param format the message with {@code {}} placeholders
+     * @param args   the arguments
+     */
+    static void error(String format, Object... args) {
+        log(DiagnosticsLevel.ERROR, format, args);
+    }
+
+    /**
+     * Logs a warning.
+     *
+     * @param format the message with {@code {}} placeholders
+     * @param args   the arguments
+     */
+    static void warn(String format, Object... args) {
+        log(DiagnosticsLevel.WARN, format, args);
+    }
+
+    /**
+     * Logs an informational message.
+     *
+     * @param format the message with {@code {}} placeholders
+     * @param args   the arguments
+     */
+    static void info(String format, Object... args) {
+        log(DiagnosticsLevel.INFO, format, args);
+    }
+
+    /**
+     * Logs a debug message.
+     *
+     * @param format the message with {@code {}} placeholders
+     * @param args   the arguments
+     */
+    static void debug(String format, Object... args) {
+        log(DiagnosticsLevel.DEBUG, format, args);
+    }
+
+    /**
+     * Queues a message if its level is enabled and the rate limit allows it.
+     *
+     * @param messageLevel the level
+     * @param format       the message with {@code {}} placeholders
+     * @param args         the arguments
+     */
+    private static void log(DiagnosticsLevel messageLevel, String format, Object[] args) {
+        if (!isEnabled(messageLevel)) {
+            return;
+        }
+        TokenBucket limiter = rateLimiter;
+        if ((limiter != null && !limiter.tryAcquire())
+                || !queue.offer(new Record(messageLevel, Thread.currentThread().getName(), format, args))) {
+            suppressed.increment();
+        }
+    }
+
+    /**
+     * Main loop of the writer thread.
+     */
+    private static void writeLoop() {
+        long lastNotice = System.nanoTime();
+        while (true) {
+            Record record = queue.poll();
+            if (record == null) {
+                long now = System.nanoTime();
+                if (now - lastNotice >= SUPPRESSED_NOTICE_INTERVAL_NANOS) {
+                    lastNotice = now;
+                    reportSuppressed();
+                }
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+            record.write();
+        }
+    }
+
+    /**
+     * Writes how many messages were dropped since the last notice, if any.
+     */
+    private static void reportSuppressed() {
+        long dropped = suppressed.sumThenReset();
+        if (dropped > 0) {
+            writeSafely(DiagnosticsLevel.WARN, System.currentTimeMillis(), Thread.currentThread().getName(),
+                    dropped + " diagnostics messages suppressed by the rate limit or a full queue.", null);
+        }
+    }
+
+    /**
+     * Writes a message to the sink, ignoring sink failures.
+     *
+     * @param messageLevel the level
+     * @param timeMillis   the time the message was logged
+     * @param threadName   the name of the logging thread
+     * @param message      the formatted message
+     * @param thrown       the cause, or null
+     */
+    private static void writeSafely(DiagnosticsLevel messageLevel, long timeMillis, String threadName,
+                                    String message, Throwable thrown) {
+        try {
+            sink.write(messageLevel, timeMillis, threadName, message, thrown);
+        } catch (RuntimeException | LinkageError e) {
+            // diagnostics must never break the catcher
+        }
+    }
+
+    /**
+     * Queued message, formatted by the writer thread.
+     */
+    private static final class Record {
+        /**
+         * Message level.
+         */
+        private final DiagnosticsLevel level;
+
+        /**
+         * Time the message was logged, in epoch milliseconds.
+         */
+        private final long timeMillis;
+
+        /**
+         * Name of the logging thread.
+         */
+        private final String threadName;
+
+        /**
+         * Message with placeholders.
+         */
+        private final String format;
+
+        /**
+         * Placeholder arguments.
+         */
+        private final Object[] args;
+
+        /**
+         * Creates a record.
+         *
+         * @param level      the message level
+         * @param threadName the name of the logging thread
+         * @param format     the message with placeholders
+         * @param args       the arguments
+         */
+        Record(DiagnosticsLevel level, String threadName, String format, Object[] args) {
+            this.level = level;
+            this.timeMillis = System.currentTimeMillis();
+            this.threadName = threadName;
+            this.format = format;
+            this.args = args;
+        }
+
+        /**
+         * Formats the message and writes it to the sink.
+         */
+        void write() {
+            StringBuilder message = new StringBuilder(format.length() + 32);
+            int used = 0;
+            int start = 0;
+            int placeholder;
+            while (used < args.length && (placeholder = format.indexOf("{}", start)) >= 0) {
+                message.append(format, start, placeholder).append(args[used++]);
+                start = placeholder + 2;
+            }
+            message.append(format, start, format.length());
+
+            Throwable thrown = used < args.length && args[args.length - 1] instanceof Throwable
+                    ? (Throwable) args[args.length - 1]
+                    : null;
+            writeSafely(level, timeMillis, threadName, message.toString(), thrown);
+        }
+    }
+
+    /**
+     * Writes messages to standard error.
+     */
+    private static final class ConsoleSink implements Sink {
+        /**
+         * Timestamp format; only used by the writer thread.
+         */
+        private final SimpleDateFormat timeFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS");
+
+        @Override
+        public void write(DiagnosticsLevel level, long timeMillis, String threadName, String message, Throwable thrown) {
+            System.err.println(timeFormat.format(new Date(timeMillis)) + " [hawk] " + level + " [" + threadName + "] " + message);
+            if (thrown != null) {
+                thrown.printStackTrace();
+            }
+        }
+    }
+}
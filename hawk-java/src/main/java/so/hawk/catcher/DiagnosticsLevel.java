@@ -0,0 +1,31 @@
+package so.hawk.catcher;
+
+/**
+ * Verbosity of the catcher's own diagnostics messages. Each level includes the ones before it.
+ */
+public enum DiagnosticsLevel {
+    /**
+     * No diagnostics messages.
+     */
+    OFF,
+
+    /**
+     * Failures that lose events.
+     */
+    ERROR,
+
+    /**
+     * Failures the catcher recovers from, e.g. delivery retries or unreadable sources.
+     */
+    WARN,
+
+    /**
+     * Notable state changes, e.g. replayed spools or disabled batching.
+     */
+    INFO,
+
+    /**
+     * Details of every delivery.
+     */
+    DEBUG
+}
@@ -0,0 +1,39 @@
+package so.hawk.catcher;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Looks up sources in source root directories.
+ */
+class DirectorySourceResolver implements SourceResolver {
+    /**
+     * Source root directories, searched in order.
+     */
+    private final List<Path> roots = new ArrayList<>();
+
+    /**
+     * Creates a resolver searching the given directories.
+     *
+     * @param roots the source root directories
+     */
+    DirectorySourceResolver(List<String> roots) {
+        for (String root : roots) {
+            this.roots.add(Paths.get(root));
+        }
+    }
+
+    @Override
+    public SourceFile resolve(String sourcePath) {
+        for (Path root : roots) {
+            Path candidate = root.resolve(sourcePath);
+            if (Files.isRegularFile(candidate)) {
+                return new SourceFile.OnDisk(candidate);
+            }
+        }
+        return null;
+    }
+}
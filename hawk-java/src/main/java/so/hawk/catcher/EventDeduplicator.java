@@ -0,0 +1,191 @@
+package so.hawk.catcher;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collapses repeated occurrences of the same error within a time window.
+ * <p>
+ * The first occurrence of a fingerprint is reported right away. Further occurrences within the window
+ * are only counted, and when the window ends a single aggregated event with the repetition count and
+ * first/last-seen timestamps is reported for them. Recording an occurrence is lock-free. When the cache
+ * is full, errors with new fingerprints are reported without deduplication.
+ */
+class EventDeduplicator {
+    /**
+     * Receives aggregated events when a window ends.
+     */
+    @FunctionalInterface
+    interface RepeatHandler {
+        /**
+         * Reports occurrences collapsed during a window.
+         *
+         * @param sample      the latest collapsed exception or message
+         * @param repetitions the number of collapsed occurrences
+         * @param firstSeen   the time of the first occurrence in the window, in epoch milliseconds
+         * @param lastSeen    the time of the last occurrence, in epoch milliseconds
+         */
+        void onRepeated(Object sample, long repetitions, long firstSeen, long lastSeen);
+    }
+
+    /**
+     * Occurrences of one fingerprint within the current window.
+     */
+    private static final class Occurrences {
+        /**
+         * Time of the first occurrence, in epoch milliseconds.
+         */
+        final long firstSeen;
+
+        /**
+         * Number of collapsed occurrences, or -1 once the window has been flushed.
+         */
+        final AtomicLong repetitions = new AtomicLong();
+
+        /**
+         * Time of the last collapsed occurrence, in epoch milliseconds.
+         */
+        volatile long lastSeen;
+
+        /**
+         * Latest collapsed exception or message.
+         */
+        volatile Object sample;
+
+        Occurrences(long firstSeen) {
+            this.firstSeen = firstSeen;
+            this.lastSeen = firstSeen;
+        }
+    }
+
+    /**
+     * Occurrences by fingerprint.
+     */
+    private final ConcurrentHashMap<Long, Occurrences> occurrences = new ConcurrentHashMap<>();
+
+    /**
+     * Window length in milliseconds.
+     */
+    private final long windowMillis;
+
+    /**
+     * Maximum number of tracked fingerprints.
+     */
+    private final int maxEntries;
+
+    /**
+     * Receives aggregated events.
+     */
+    private final RepeatHandler handler;
+
+    /**
+     * Thread flushing ended windows.
+     */
+    private final ScheduledExecutorService flusher;
+
+    /**
+     * Creates a deduplicator and starts flushing windows.
+     *
+     * @param windowMillis the window length in milliseconds
+     * @param maxEntries   the maximum number of tracked fingerprints
+     * @param handler      receives aggregated events
+     */
+    EventDeduplicator(long windowMillis, int maxEntries, RepeatHandler handler) {
+        this.windowMillis = windowMillis;
+        this.maxEntries = maxEntries;
+        this.handler = handler;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "hawk-dedup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1, windowMillis / 2);
+        this.flusher.scheduleWithFixedDelay(this::flushExpired, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Records an occurrence.
+     *
+     * @param fingerprint        the error fingerprint
+     * @param messageOrException the exception or message being reported
+     * @return true if the occurrence should be reported now, false if it was collapsed
+     */
+    boolean record(long fingerprint, Object messageOrException) {
+        Long key = fingerprint;
+        while (true) {
+            Occurrences current = occurrences.get(key);
+            if (current == null) {
+                if (occurrences.size() >= maxEntries) {
+                    return true;
+                }
+                if (occurrences.putIfAbsent(key, new Occurrences(System.currentTimeMillis())) == null) {
+                    return true;
+                }
+                continue;
+            }
+
+            long repetitions = current.repetitions.get();
+            if (repetitions < 0) {
+                occurrences.remove(key, current);
+                continue;
+            }
+            current.sample = messageOrException;
+            current.lastSeen = System.currentTimeMillis();
+            if (current.repetitions.compareAndSet(repetitions, repetitions + 1)) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Closes ended windows and reports their collapsed occurrences.
+     */
+    void flushExpired() {
+        flush(System.currentTimeMillis() - windowMillis);
+    }
+
+    /**
+     * Closes every window, e.g. before shutdown.
+     */
+    void flushAll() {
+        flush(Long.MAX_VALUE);
+    }
+
+    /**
+     * Closes windows opened before the given time.
+     *
+     * @param openedBefore windows with an earlier first occurrence are closed
+     */
+    private void flush(long openedBefore) {
+        Iterator<Map.Entry<Long, Occurrences>> iterator = occurrences.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Long, Occurrences> entry = iterator.next();
+            Occurrences window = entry.getValue();
+            if (window.firstSeen > openedBefore) {
+                continue;
+            }
+
+            long repetitions = window.repetitions.getAndSet(-1);
+            occurrences.remove(entry.getKey(), window);
+            if (repetitions > 0) {
+                try {
+                    handler.onRepeated(window.sample, repetitions, window.firstSeen, window.lastSeen);
+                } catch (RuntimeException e) {
+                    Diagnostics.error("Failed to report repeated events", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Stops flushing windows.
+     */
+    void stop() {
+        flusher.shutdownNow();
+    }
+}
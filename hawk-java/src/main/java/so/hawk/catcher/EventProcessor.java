@@ -0,0 +1,18 @@
+package so.hawk.catcher;
+
+/**
+ * Hook that inspects or modifies an event before it is sent.
+ * <p>
+ * Processors run in the order they were added, on the thread reporting the error, and see the
+ * changes made by the previous ones. The event is serialized once, after the last processor.
+ */
+@FunctionalInterface
+public interface EventProcessor {
+    /**
+     * Processes an event.
+     *
+     * @param event the event, which may be modified in place
+     * @return the event to send (usually the same instance), or null to prevent sending
+     */
+    HawkEvent process(HawkEvent event);
+}
@@ -0,0 +1,124 @@
+package so.hawk.catcher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs event processors in order and times each of them.
+ * <p>
+ * A processor that throws is reported and skipped; the event continues with the remaining processors.
+ */
+final class EventProcessorChain {
+    /**
+     * Processors in execution order.
+     */
+    private final EventProcessor[] processors;
+
+    /**
+     * Processor names used in timings and error messages.
+     */
+    private final String[] names;
+
+    /**
+     * Number of events processed by each processor.
+     */
+    private final LongAdder[] invocations;
+
+    /**
+     * Total processing time of each processor, in nanoseconds.
+     */
+    private final LongAdder[] totalNanos;
+
+    /**
+     * Longest processing time of each processor, in nanoseconds.
+     */
+    private final AtomicLong[] maxNanos;
+
+    /**
+     * Creates a chain.
+     *
+     * @param processors the processors in execution order
+     */
+    EventProcessorChain(List<EventProcessor> processors) {
+        int size = processors.size();
+        this.processors = processors.toArray(new EventProcessor[0]);
+        this.names = new String[size];
+        this.invocations = new LongAdder[size];
+        this.totalNanos = new LongAdder[size];
+        this.maxNanos = new AtomicLong[size];
+
+        for (int i = 0; i < size; i++) {
+            EventProcessor processor = this.processors[i];
+            names[i] = (i + 1) + ":" + (processor instanceof BeforeSendProcessor ? "beforeSend" : processor.getClass().getName());
+            invocations[i] = new LongAdder();
+            totalNanos[i] = new LongAdder();
+            maxNanos[i] = new AtomicLong();
+        }
+    }
+
+    /**
+     * Checks whether the chain has no processors.
+     *
+     * @return true if events pass through unchanged
+     */
+    boolean isEmpty() {
+        return processors.length == 0;
+    }
+
+    /**
+     * Passes the event through every processor.
+     *
+     * @param event the event
+     * @return the processed event, or null if a processor prevented sending
+     */
+    HawkEvent process(HawkEvent event) {
+        for (int i = 0; i < processors.length; i++) {
+            long start = System.nanoTime();
+            try {
+                event = processors[i].process(event);
+            } catch (RuntimeException e) {
+                Diagnostics.error("Event processor {} failed", names[i], e);
+            } finally {
+                record(i, System.nanoTime() - start);
+            }
+            if (event == null) {
+                if (Diagnostics.isEnabled(DiagnosticsLevel.DEBUG)) {
+                    Diagnostics.debug("Event was prevented from being sent by {}.", names[i]);
+                }
+                return null;
+            }
+        }
+        return event;
+    }
+
+    /**
+     * Records the duration of a processor call.
+     *
+     * @param index   the processor index
+     * @param elapsed the duration in nanoseconds
+     */
+    private void record(int index, long elapsed) {
+        invocations[index].increment();
+        totalNanos[index].add(elapsed);
+        AtomicLong max = maxNanos[index];
+        long current;
+        while (elapsed > (current = max.get()) && !max.compareAndSet(current, elapsed)) {
+            // retry until the maximum is updated or a longer call is recorded
+        }
+    }
+
+    /**
+     * Takes a snapshot of the processor timings.
+     *
+     * @return the timings in execution order
+     */
+    List<EventProcessorTiming> getTimings() {
+        List<EventProcessorTiming> timings = new ArrayList<>(processors.length);
+        for (int i = 0; i < processors.length; i++) {
+            timings.add(new EventProcessorTiming(names[i], invocations[i].sum(), totalNanos[i].sum(), maxNanos[i].get()));
+        }
+        return timings;
+    }
+}
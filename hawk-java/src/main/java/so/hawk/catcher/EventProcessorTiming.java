@@ -0,0 +1,91 @@
+package so.hawk.catcher;
+
+/**
+ * Time spent in an event processor since the start of the application.
+ */
+public class EventProcessorTiming {
+    /**
+     * Processor name: its position in the chain and class name.
+     */
+    private final String name;
+
+    /**
+     * Number of processed events.
+     */
+    private final long invocations;
+
+    /**
+     * Total processing time in nanoseconds.
+     */
+    private final long totalNanos;
+
+    /**
+     * Longest processing time in nanoseconds.
+     */
+    private final long maxNanos;
+
+    /**
+     * Creates a timing snapshot.
+     *
+     * @param name        the processor name
+     * @param invocations the number of processed events
+     * @param totalNanos  the total processing time in nanoseconds
+     * @param maxNanos    the longest processing time in nanoseconds
+     */
+    EventProcessorTiming(String name, long invocations, long totalNanos, long maxNanos) {
+        this.name = name;
+        this.invocations = invocations;
+        this.totalNanos = totalNanos;
+        this.maxNanos = maxNanos;
+    }
+
+    /**
+     * Gets the processor name.
+     *
+     * @return the position in the chain and class name, e.g. {@code 1:com.example.ScrubProcessor}
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the number of processed events.
+     *
+     * @return the number of invocations
+     */
+    public long getInvocations() {
+        return invocations;
+    }
+
+    /**
+     * Gets the total processing time.
+     *
+     * @return the time in nanoseconds
+     */
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * Gets the longest processing time.
+     *
+     * @return the time in nanoseconds
+     */
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    /**
+     * Gets the average processing time.
+     *
+     * @return the time in nanoseconds, 0 if no event was processed
+     */
+    public long getAverageNanos() {
+        return invocations > 0 ? totalNanos / invocations : 0;
+    }
+
+    @Override
+    public String toString() {
+        return name + ": " + invocations + " events, avg " + getAverageNanos() + " ns, max " + maxNanos + " ns";
+    }
+}
@@ -0,0 +1,141 @@
+package so.hawk.catcher;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free queue used to hand events over to the dispatcher thread.
+ * <p>
+ * Based on the array queue with per-slot sequence numbers by Dmitry Vyukov: producers and
+ * consumers only contend on a single CAS each and never take a lock. The queue is safe for
+ * many consumers as well, which lets producers evict the oldest element under
+ * {@link OverflowPolicy#DROP_OLDEST}.
+ *
+ * @param <E> the type of queued elements
+ */
+final class EventQueue<E> {
+    /**
+     * Maximum number of elements the queue can hold.
+     */
+    private final int capacity;
+
+    /**
+     * Slots holding queued elements.
+     */
+    private final AtomicReferenceArray<E> buffer;
+
+    /**
+     * Per-slot sequence numbers telling whether a slot is free for the producer or ready for the consumer.
+     */
+    private final AtomicLongArray sequences;
+
+    /**
+     * Position of the next element to be written.
+     */
+    private final AtomicLong enqueuePosition = new AtomicLong();
+
+    /**
+     * Position of the next element to be read.
+     */
+    private final AtomicLong dequeuePosition = new AtomicLong();
+
+    /**
+     * Creates a queue with the given capacity.
+     *
+     * @param capacity the maximum number of elements
+     */
+    EventQueue(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Queue capacity must be positive.");
+        }
+        this.capacity = capacity;
+        this.buffer = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Inserts the element if there is free space.
+     *
+     * @param element the element to insert
+     * @return true if the element was added, false if the queue is full
+     */
+    boolean offer(E element) {
+        long position = enqueuePosition.get();
+        while (true) {
+            int index = (int) (position % capacity);
+            long difference = sequences.get(index) - position;
+
+            if (difference == 0) {
+                if (enqueuePosition.compareAndSet(position, position + 1)) {
+                    buffer.lazySet(index, element);
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = enqueuePosition.get();
+            } else if (difference < 0) {
+                return false;
+            } else {
+                position = enqueuePosition.get();
+            }
+        }
+    }
+
+    /**
+     * Removes and returns the oldest element.
+     *
+     * @return the oldest element or null if the queue is empty
+     */
+    E poll() {
+        long position = dequeuePosition.get();
+        while (true) {
+            int index = (int) (position % capacity);
+            long difference = sequences.get(index) - (position + 1);
+
+            if (difference == 0) {
+                if (dequeuePosition.compareAndSet(position, position + 1)) {
+                    E element = buffer.get(index);
+                    buffer.lazySet(index, null);
+                    sequences.set(index, position + capacity);
+                    return element;
+                }
+                position = dequeuePosition.get();
+            } else if (difference < 0) {
+                return null;
+            } else {
+                position = dequeuePosition.get();
+            }
+        }
+    }
+
+    /**
+     * Returns an estimate of the number of queued elements.
+     *
+     * @return the number of queued elements
+     */
+    int size() {
+        long size = enqueuePosition.get() - dequeuePosition.get();
+        return (int) Math.max(0, Math.min(size, capacity));
+    }
+
+    /**
+     * Checks whether the queue is empty.
+     *
+     * @return true if there is nothing to poll
+     */
+    boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Gets the maximum number of elements.
+     *
+     * @return the queue capacity
+     */
+    int capacity() {
+        return capacity;
+    }
+}
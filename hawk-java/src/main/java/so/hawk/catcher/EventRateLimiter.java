@@ -0,0 +1,233 @@
+package so.hawk.catcher;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Decides whether an error is reported at all, before any JSON is built.
+ * <p>
+ * Applies, in order: random sampling, a token bucket per error fingerprint, a token bucket per
+ * exception type and a global token bucket. When a later bucket rejects an event, the tokens it took
+ * from the earlier ones are returned, so an event dropped by the global limit does not also spend
+ * the budget of its fingerprint. Each check is lock-free and allocation-free except
+ * for creating a bucket for a key seen for the first time. Per-key maps are bounded: when one is
+ * full, buckets that have refilled completely are evicted, which is lossless since a new bucket
+ * starts full as well. Evicting scans the whole map, so it runs at most once per sweep interval;
+ * in between, and if nothing can be evicted, new keys are only subject to the global limit.
+ */
+class EventRateLimiter {
+    /**
+     * Minimum time between two scans of a full per-key map.
+     */
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    /**
+     * Fraction of events kept by sampling.
+     */
+    private final double sampleRate;
+
+    /**
+     * Global bucket, or null if there is no global limit.
+     */
+    private final TokenBucket global;
+
+    /**
+     * Buckets per exception type, or null if there is no per-type limit.
+     */
+    private final ConcurrentHashMap<Class<?>, TokenBucket> byType;
+
+    /**
+     * Buckets per error fingerprint, or null if there is no per-fingerprint limit.
+     */
+    private final ConcurrentHashMap<Long, TokenBucket> byFingerprint;
+
+    /**
+     * {@link System#nanoTime()} of the last scan of the per-type map.
+     */
+    private final AtomicLong typeSweep = new AtomicLong(System.nanoTime() - SWEEP_INTERVAL_NANOS);
+
+    /**
+     * {@link System#nanoTime()} of the last scan of the per-fingerprint map.
+     */
+    private final AtomicLong fingerprintSweep = new AtomicLong(System.nanoTime() - SWEEP_INTERVAL_NANOS);
+
+    /**
+     * Sustained rate for per-type buckets.
+     */
+    private final double typeRate;
+
+    /**
+     * Burst for per-type buckets.
+     */
+    private final int typeBurst;
+
+    /**
+     * Sustained rate for per-fingerprint buckets.
+     */
+    private final double fingerprintRate;
+
+    /**
+     * Burst for per-fingerprint buckets.
+     */
+    private final int fingerprintBurst;
+
+    /**
+     * Maximum number of buckets in each per-key map.
+     */
+    private final int maxKeys;
+
+    /**
+     * Number of events rejected by sampling or rate limits.
+     */
+    private final LongAdder rejectedEvents = new LongAdder();
+
+    /**
+     * Creates a rate limiter configured by the settings.
+     *
+     * @param settings the configuration settings
+     */
+    EventRateLimiter(HawkSettings settings) {
+        this.sampleRate = settings.getSampleRate();
+        this.global = settings.getRateLimit() > 0
+                ? new TokenBucket(settings.getRateLimit(), settings.getRateLimitBurst())
+                : null;
+        this.typeRate = settings.getRateLimitPerType();
+        this.typeBurst = settings.getRateLimitBurst();
+        this.fingerprintRate = settings.getRateLimitPerFingerprint();
+        this.fingerprintBurst = settings.getRateLimitBurst();
+        this.maxKeys = settings.getRateLimitMaxKeys();
+        this.byType = typeRate > 0 ? new ConcurrentHashMap<>() : null;
+        this.byFingerprint = fingerprintRate > 0 ? new ConcurrentHashMap<>() : null;
+    }
+
+    /**
+     * Checks whether any limit or sampling is configured.
+     *
+     * @param settings the configuration settings
+     * @return true if a rate limiter is needed
+     */
+    static boolean isEnabled(HawkSettings settings) {
+        return settings.getSampleRate() < 1.0
+                || settings.getRateLimit() > 0
+                || settings.getRateLimitPerType() > 0
+                || settings.getRateLimitPerFingerprint() > 0;
+    }
+
+    /**
+     * Checks whether per-fingerprint limits are configured, i.e. whether callers must compute fingerprints.
+     *
+     * @return true if fingerprints are used
+     */
+    boolean usesFingerprints() {
+        return byFingerprint != null;
+    }
+
+    /**
+     * Decides whether an event is reported.
+     *
+     * @param messageOrException the exception or message being reported
+     * @param fingerprint        the error fingerprint, ignored unless {@link #usesFingerprints()}
+     * @return true if the event may be reported
+     */
+    boolean tryAcquire(Object messageOrException, long fingerprint) {
+        if (sampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return reject(null, null);
+        }
+        TokenBucket fingerprintBucket = byFingerprint != null
+                ? bucket(byFingerprint, fingerprintSweep, fingerprint, fingerprintRate, fingerprintBurst)
+                : null;
+        if (fingerprintBucket != null && !fingerprintBucket.tryAcquire()) {
+            return reject(null, null);
+        }
+        TokenBucket typeBucket = byType != null
+                ? bucket(byType, typeSweep, messageOrException.getClass(), typeRate, typeBurst)
+                : null;
+        if (typeBucket != null && !typeBucket.tryAcquire()) {
+            return reject(fingerprintBucket, null);
+        }
+        if (global != null && !global.tryAcquire()) {
+            return reject(fingerprintBucket, typeBucket);
+        }
+        return true;
+    }
+
+    /**
+     * Counts a rejected event and returns the tokens it already took.
+     *
+     * @param fingerprintBucket the per-fingerprint bucket a token was taken from, or null
+     * @param typeBucket        the per-type bucket a token was taken from, or null
+     * @return always false
+     */
+    private boolean reject(TokenBucket fingerprintBucket, TokenBucket typeBucket) {
+        if (fingerprintBucket != null) {
+            fingerprintBucket.refund();
+        }
+        if (typeBucket != null) {
+            typeBucket.refund();
+        }
+        rejectedEvents.increment();
+        return false;
+    }
+
+    /**
+     * Gets the bucket of the given key, creating it if needed.
+     *
+     * @param buckets   the per-key buckets
+     * @param lastSweep the time of the last scan of the buckets
+     * @param key       the key
+     * @param rate      the sustained rate for new buckets
+     * @param burst     the burst for new buckets
+     * @param <K>       the key type
+     * @return the bucket, or null if the map is full and the key is only subject to the global limit
+     */
+    private <K> TokenBucket bucket(ConcurrentHashMap<K, TokenBucket> buckets, AtomicLong lastSweep, K key,
+                                   double rate, int burst) {
+        TokenBucket bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= maxKeys && !sweep(buckets, lastSweep)) {
+                return null;
+            }
+            bucket = buckets.computeIfAbsent(key, ignored -> new TokenBucket(rate, burst));
+        }
+        return bucket;
+    }
+
+    /**
+     * Removes buckets that have refilled completely, unless the buckets were scanned less than
+     * a sweep interval ago or another thread is scanning them.
+     *
+     * @param buckets   the per-key buckets
+     * @param lastSweep the time of the last scan of the buckets
+     * @param <K>       the key type
+     * @return true if at least one bucket was removed
+     */
+    private static <K> boolean sweep(ConcurrentHashMap<K, TokenBucket> buckets, AtomicLong lastSweep) {
+        long now = System.nanoTime();
+        long last = lastSweep.get();
+        if (now - last < SWEEP_INTERVAL_NANOS || !lastSweep.compareAndSet(last, now)) {
+            return false;
+        }
+        boolean evicted = false;
+        Iterator<TokenBucket> iterator = buckets.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().isFull(now)) {
+                iterator.remove();
+                evicted = true;
+            }
+        }
+        return evicted;
+    }
+
+    /**
+     * Gets the number of events rejected by sampling or rate limits.
+     *
+     * @return the number of rejected events
+     */
+    long getRejectedEvents() {
+        return rejectedEvents.sum();
+    }
+}
@@ -0,0 +1,614 @@
+package so.hawk.catcher;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.zip.CRC32;
+
+/**
+ * Durable buffer for events that could not be delivered.
+ * <p>
+ * Events are appended to memory-mapped segment files of a fixed size. Each record is stored as
+ * {@code [int length][int crc32][body]}; the length is written last, so a torn write is either
+ * invisible (length still 0) or rejected by the checksum. When a segment is full a new one is
+ * started, and the oldest segments are deleted once the total size limit is reached.
+ * Writes are not forced to disk unless {@link HawkSettings#setSpoolSyncWrites(boolean)} is enabled,
+ * so they survive a crash of the process but not necessarily of the machine.
+ * <p>
+ * Each client spools to a subdirectory of the configured directory named after a hash of its token
+ * and endpoint, so events are only replayed to the project they were reported to. A spool holds a
+ * file lock on its directory while it is open. A client that finds the directory locked by another
+ * client or process with the same token spools to the first free numbered subdirectory instead, so
+ * no two spools replay and delete each other's segments. The spool that locks the client directory
+ * itself adopts the segments of numbered subdirectories that are no longer locked.
+ */
+final class EventSpool {
+    /**
+     * Prefix of segment file names.
+     */
+    private static final String SEGMENT_PREFIX = "hawk-";
+
+    /**
+     * Suffix of segment file names.
+     */
+    private static final String SEGMENT_SUFFIX = ".spool";
+
+    /**
+     * Size of the record header: length and checksum.
+     */
+    private static final int RECORD_HEADER_SIZE = 8;
+
+    /**
+     * Name of the file locked by the spool using a directory.
+     */
+    private static final String LOCK_FILE = "hawk.lock";
+
+    /**
+     * Prefix of the subdirectories used when the client directory is locked.
+     */
+    private static final String INSTANCE_PREFIX = "instance-";
+
+    /**
+     * Maximum number of subdirectories tried when the client directory is locked.
+     */
+    private static final int MAX_INSTANCES = 8;
+
+    /**
+     * Directory holding segment files.
+     */
+    private final Path directory;
+
+    /**
+     * Size of each segment file.
+     */
+    private final int segmentBytes;
+
+    /**
+     * Maximum number of segment files kept on disk.
+     */
+    private final int maxSegments;
+
+    /**
+     * Whether every append is forced to disk.
+     */
+    private final boolean syncWrites;
+
+    /**
+     * Lock held on the directory while the spool is open, or null if none was taken.
+     */
+    private final FileLock directoryLock;
+
+    /**
+     * Guards the segment list, the active segment and the checksum.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * Full segments waiting to be replayed, oldest first.
+     */
+    private final Deque<Path> sealedSegments = new ArrayDeque<>();
+
+    /**
+     * Checksum reused for appends.
+     */
+    private final CRC32 crc = new CRC32();
+
+    /**
+     * Sequence number of the next segment file.
+     */
+    private long nextSequence;
+
+    /**
+     * Segment currently being written, or null if none has been opened yet.
+     */
+    private Path activePath;
+
+    /**
+     * Mapping of the active segment.
+     */
+    private MappedByteBuffer active;
+
+    /**
+     * Segment whose replay was interrupted by a delivery failure.
+     */
+    private Path replayPath;
+
+    /**
+     * Offset of the first record of {@link #replayPath} that has not been delivered yet.
+     */
+    private int replayOffset;
+
+    /**
+     * Number of events lost because they did not fit or because old segments were evicted.
+     */
+    private final LongAdder droppedRecords = new LongAdder();
+
+    /**
+     * Opens the spool and picks up segments left by previous runs.
+     *
+     * @param directory    the directory holding segment files
+     * @param segmentBytes the size of each segment file
+     * @param maxBytes     the maximum total size of segment files
+     * @param syncWrites   whether every append is forced to disk
+     * @param lock         the lock held on the directory, released by {@link #close()}, or null
+     * @throws IOException if the directory cannot be created or listed
+     */
+    EventSpool(Path directory, int segmentBytes, long maxBytes, boolean syncWrites, FileLock lock) throws IOException {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.maxSegments = (int) Math.max(2, maxBytes / segmentBytes);
+        this.syncWrites = syncWrites;
+        this.directoryLock = lock;
+
+        Files.createDirectories(directory);
+        for (Path file : listSegments(directory)) {
+            sealedSegments.addLast(file);
+            nextSequence = Math.max(nextSequence, parseSequence(file) + 1);
+        }
+    }
+
+    /**
+     * Creates the spool configured by the settings in the first directory that is not locked:
+     * the client directory, then its numbered subdirectories.
+     *
+     * @param settings the configuration settings
+     * @return the spool, or null if spooling is disabled or no directory is usable
+     */
+    static EventSpool create(HawkSettings settings) {
+        if (settings.getSpoolDirectory() == null) {
+            return null;
+        }
+        try {
+            Path root = Paths.get(settings.getSpoolDirectory()).resolve(clientKey(settings));
+            for (int instance = 0; instance <= MAX_INSTANCES; instance++) {
+                Path directory = instance == 0 ? root : root.resolve(INSTANCE_PREFIX + instance);
+                Files.createDirectories(directory);
+                FileLock lock = tryLock(directory);
+                if (lock == null) {
+                    continue;
+                }
+                try {
+                    if (instance == 0) {
+                        adoptInstances(root);
+                    } else {
+                        Diagnostics.warn("Spool directory {} is used by another client, spooling to {}", root, directory);
+                    }
+                    return new EventSpool(directory, settings.getSpoolSegmentBytes(), settings.getSpoolMaxBytes(),
+                            settings.isSpoolSyncWrites(), lock);
+                } catch (IOException | RuntimeException e) {
+                    lock.channel().close();
+                    throw e;
+                }
+            }
+            Diagnostics.error("Spool directory {} and its subdirectories are in use, spooling is disabled.", root);
+            return null;
+        } catch (IOException | RuntimeException e) {
+            Diagnostics.error("Failed to open spool directory: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Names the directory of a client after its destination, so that spooled events are never
+     * replayed to another project.
+     *
+     * @param settings the configuration settings
+     * @return the hex hash of the token and the endpoint
+     */
+    static String clientKey(HawkSettings settings) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(settings.getToken().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            if (settings.getEndpoint() != null) {
+                digest.update(settings.getEndpoint().getBytes(StandardCharsets.UTF_8));
+            }
+            byte[] hash = digest.digest();
+            StringBuilder key = new StringBuilder(16);
+            for (int i = 0; i < 8; i++) {
+                key.append(String.format("%02x", hash[i]));
+            }
+            return key.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available.", e);
+        }
+    }
+
+    /**
+     * Moves the segments of numbered subdirectories that are not locked into the client directory,
+     * after its own segments, so they are replayed by this spool. Called with the client directory locked.
+     *
+     * @param root the client directory
+     * @throws IOException if the client directory cannot be listed
+     */
+    private static void adoptInstances(Path root) throws IOException {
+        long sequence = 0;
+        for (Path segment : listSegments(root)) {
+            sequence = Math.max(sequence, parseSequence(segment) + 1);
+        }
+        for (int instance = 1; instance <= MAX_INSTANCES; instance++) {
+            Path directory = root.resolve(INSTANCE_PREFIX + instance);
+            if (!Files.isDirectory(directory)) {
+                continue;
+            }
+            FileLock lock = tryLock(directory);
+            if (lock == null) {
+                continue;
+            }
+            try {
+                for (Path segment : listSegments(directory)) {
+                    Files.move(segment, root.resolve(segmentName(sequence++)), StandardCopyOption.ATOMIC_MOVE);
+                }
+            } catch (IOException e) {
+                Diagnostics.warn("Failed to adopt spool segments of {}: {}", directory, e.getMessage());
+            } finally {
+                lock.channel().close();
+            }
+        }
+    }
+
+    /**
+     * Lists the segment files of a directory, oldest first.
+     *
+     * @param directory the spool directory
+     * @return the segment files
+     * @throws IOException if the directory cannot be listed
+     */
+    private static List<Path> listSegments(Path directory) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                segments.add(file);
+            }
+        }
+        Collections.sort(segments);
+        return segments;
+    }
+
+    /**
+     * Builds the file name of a segment.
+     *
+     * @param sequence the sequence number of the segment
+     * @return the file name
+     */
+    private static String segmentName(long sequence) {
+        return String.format("%s%020d%s", SEGMENT_PREFIX, sequence, SEGMENT_SUFFIX);
+    }
+
+    /**
+     * Locks a spool directory for this process and this spool.
+     *
+     * @param directory the spool directory
+     * @return the lock, or null if the directory is locked by another spool or process
+     * @throws IOException if the lock file cannot be opened
+     */
+    private static FileLock tryLock(Path directory) throws IOException {
+        FileChannel channel = FileChannel.open(directory.resolve(LOCK_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            FileLock lock = channel.tryLock();
+            if (lock != null) {
+                return lock;
+            }
+        } catch (OverlappingFileLockException e) {
+            // Locked by another spool of this JVM.
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        channel.close();
+        return null;
+    }
+
+    /**
+     * Appends an event body to the active segment.
+     *
+     * @param body   the array holding the body
+     * @param offset the offset of the body
+     * @param length the length of the body
+     * @return true if the event was stored
+     */
+    boolean append(byte[] body, int offset, int length) {
+        int recordSize = RECORD_HEADER_SIZE + length;
+        if (length <= 0 || recordSize > segmentBytes) {
+            droppedRecords.increment();
+            return false;
+        }
+
+        lock.lock();
+        try {
+            if (active == null || active.remaining() < recordSize) {
+                rollover();
+            }
+
+            int start = active.position();
+            active.position(start + RECORD_HEADER_SIZE);
+            active.put(body, offset, length);
+            crc.reset();
+            crc.update(body, offset, length);
+            active.putInt(start + 4, (int) crc.getValue());
+            active.putInt(start, length);
+
+            if (syncWrites) {
+                active.force();
+            }
+            return true;
+        } catch (IOException e) {
+            droppedRecords.increment();
+            Diagnostics.error("Failed to write to spool: {}", e.getMessage());
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Seals the active segment and maps a new one, evicting the oldest segments over the size limit.
+     * Must be called with the lock held.
+     *
+     * @throws IOException if the new segment cannot be created
+     */
+    private void rollover() throws IOException {
+        sealActive();
+
+        while (sealedSegments.size() >= maxSegments - 1) {
+            Path evicted = sealedSegments.pollFirst();
+            droppedRecords.add(countRecords(evicted));
+            if (evicted.equals(replayPath)) {
+                replayPath = null;
+            }
+            deleteSegment(evicted);
+        }
+
+        activePath = directory.resolve(segmentName(nextSequence++));
+        try (RandomAccessFile file = new RandomAccessFile(activePath.toFile(), "rw")) {
+            file.setLength(segmentBytes);
+            active = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        }
+    }
+
+    /**
+     * Moves the active segment to the sealed list if it holds any records.
+     * Must be called with the lock held.
+     */
+    private void sealActive() {
+        if (active == null) {
+            return;
+        }
+        if (syncWrites) {
+            active.force();
+        }
+        if (active.position() > 0) {
+            sealedSegments.addLast(activePath);
+        } else {
+            deleteSegment(activePath);
+        }
+        active = null;
+        activePath = null;
+    }
+
+    /**
+     * Forces the active segment to disk, e.g. before the JVM exits.
+     */
+    void force() {
+        lock.lock();
+        try {
+            if (active != null) {
+                active.force();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Forces the active segment to disk and releases the directory lock.
+     */
+    void close() {
+        force();
+        if (directoryLock != null) {
+            try {
+                directoryLock.channel().close();
+            } catch (IOException e) {
+                Diagnostics.warn("Failed to release spool directory lock: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Checks whether there are stored events waiting for delivery.
+     *
+     * @return true if the spool is not empty
+     */
+    boolean hasPending() {
+        lock.lock();
+        try {
+            return !sealedSegments.isEmpty() || (active != null && active.position() > 0);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Passes stored events, oldest first, to the handler until it reports a failure.
+     * Delivered segments are deleted; if a segment is interrupted, the next replay resumes after the
+     * last delivered record. Events are delivered at least once: a crash during replay may resend some.
+     *
+     * @param handler delivers an event body and returns false if delivery failed
+     * @return the number of delivered events
+     */
+    int replay(Predicate<byte[]> handler) {
+        List<Path> segments;
+        lock.lock();
+        try {
+            sealActive();
+            segments = new ArrayList<>(sealedSegments);
+        } finally {
+            lock.unlock();
+        }
+
+        int delivered = 0;
+        for (Path segment : segments) {
+            int offset = segment.equals(replayPath) ? replayOffset : 0;
+            try (FileChannel channel = FileChannel.open(segment)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                buffer.position(offset);
+
+                byte[] body;
+                while ((body = readRecord(buffer)) != null) {
+                    if (!handler.test(body)) {
+                        markReplayPosition(segment, offset);
+                        return delivered;
+                    }
+                    delivered++;
+                    offset = buffer.position();
+                }
+            } catch (IOException e) {
+                Diagnostics.error("Failed to read spool segment {}: {}", segment, e.getMessage());
+            }
+
+            lock.lock();
+            try {
+                sealedSegments.remove(segment);
+                if (segment.equals(replayPath)) {
+                    replayPath = null;
+                }
+                deleteSegment(segment);
+            } finally {
+                lock.unlock();
+            }
+        }
+        return delivered;
+    }
+
+    /**
+     * Remembers where an interrupted replay should resume.
+     *
+     * @param segment the segment being replayed
+     * @param offset  the offset of the first undelivered record
+     */
+    private void markReplayPosition(Path segment, int offset) {
+        lock.lock();
+        try {
+            if (sealedSegments.contains(segment)) {
+                replayPath = segment;
+                replayOffset = offset;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reads the next valid record.
+     *
+     * @param buffer the segment positioned at a record
+     * @return the record body, or null at the end of the segment or at a torn record
+     */
+    private static byte[] readRecord(MappedByteBuffer buffer) {
+        if (buffer.remaining() < RECORD_HEADER_SIZE) {
+            return null;
+        }
+        int length = buffer.getInt();
+        int checksum = buffer.getInt();
+        if (length <= 0 || length > buffer.remaining()) {
+            return null;
+        }
+
+        byte[] body = new byte[length];
+        buffer.get(body);
+        CRC32 crc = new CRC32();
+        crc.update(body, 0, length);
+        return (int) crc.getValue() == checksum ? body : null;
+    }
+
+    /**
+     * Counts the valid records in a segment.
+     *
+     * @param segment the segment file
+     * @return the number of records
+     */
+    private static int countRecords(Path segment) {
+        try (FileChannel channel = FileChannel.open(segment)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            int count = 0;
+            while (readRecord(buffer) != null) {
+                count++;
+            }
+            return count;
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Deletes a segment file, ignoring failures.
+     *
+     * @param segment the segment file
+     */
+    private static void deleteSegment(Path segment) {
+        try {
+            Files.deleteIfExists(segment);
+        } catch (IOException e) {
+            Diagnostics.warn("Failed to delete spool segment {}: {}", segment, e.getMessage());
+        }
+    }
+
+    /**
+     * Extracts the sequence number from a segment file name.
+     *
+     * @param segment the segment file
+     * @return the sequence number, or -1 if the name is not recognized
+     */
+    private static long parseSequence(Path segment) {
+        String name = segment.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Gets the disk space used by segment files.
+     *
+     * @return the size in bytes
+     */
+    long getSizeBytes() {
+        lock.lock();
+        try {
+            return (long) (sealedSegments.size() + (active != null ? 1 : 0)) * segmentBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the number of events lost because they did not fit or were evicted.
+     *
+     * @return the number of dropped events
+     */
+    long getDroppedRecords() {
+        return droppedRecords.sum();
+    }
+}
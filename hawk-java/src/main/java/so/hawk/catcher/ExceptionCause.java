@@ -0,0 +1,167 @@
+package so.hawk.catcher;
+
+import java.util.List;
+
+/**
+ * A cause or suppressed exception of a reported exception.
+ * <p>
+ * Frames it shares with the end of the enclosing exception's trace are not part of the backtrace;
+ * {@link #getFramesInCommon()} tells how many were left out.
+ */
+public class ExceptionCause {
+    /**
+     * Result of {@link Throwable#toString()}.
+     */
+    private String title;
+
+    /**
+     * Exception type.
+     */
+    private String type;
+
+    /**
+     * Exception message, or null.
+     */
+    private String description;
+
+    /**
+     * Whether the exception was suppressed rather than a cause.
+     */
+    private final boolean suppressed;
+
+    /**
+     * Nesting level, 1 for causes and suppressed exceptions of the reported exception.
+     */
+    private final int depth;
+
+    /**
+     * Frames not shared with the enclosing exception.
+     */
+    private List<BacktraceFrame> backtrace;
+
+    /**
+     * Number of frames shared with the enclosing exception and left out.
+     */
+    private final int framesInCommon;
+
+    /**
+     * Creates a cause.
+     *
+     * @param title          the result of {@link Throwable#toString()}
+     * @param type           the exception type
+     * @param description    the exception message, or null
+     * @param suppressed     whether the exception was suppressed rather than a cause
+     * @param depth          the nesting level
+     * @param backtrace      the frames not shared with the enclosing exception
+     * @param framesInCommon the number of frames left out
+     */
+    public ExceptionCause(String title, String type, String description, boolean suppressed, int depth,
+                          List<BacktraceFrame> backtrace, int framesInCommon) {
+        this.title = title;
+        this.type = type;
+        this.description = description;
+        this.suppressed = suppressed;
+        this.depth = depth;
+        this.backtrace = backtrace;
+        this.framesInCommon = framesInCommon;
+    }
+
+    /**
+     * Gets the result of {@link Throwable#toString()}.
+     *
+     * @return the title
+     */
+    public String getTitle() {
+        return title;
+    }
+
+    /**
+     * Sets the title.
+     *
+     * @param title the title
+     */
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    /**
+     * Gets the exception type.
+     *
+     * @return the type
+     */
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * Sets the exception type.
+     *
+     * @param type the type
+     */
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    /**
+     * Gets the exception message.
+     *
+     * @return the description, or null
+     */
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * Sets the exception message.
+     *
+     * @param description the description
+     */
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    /**
+     * Checks whether the exception was suppressed rather than a cause.
+     *
+     * @return true for suppressed exceptions
+     */
+    public boolean isSuppressed() {
+        return suppressed;
+    }
+
+    /**
+     * Gets the nesting level.
+     *
+     * @return 1 for causes and suppressed exceptions of the reported exception, 2 for theirs, and so on
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Gets the frames not shared with the enclosing exception.
+     *
+     * @return the frames, which may be modified
+     */
+    public List<BacktraceFrame> getBacktrace() {
+        return backtrace;
+    }
+
+    /**
+     * Replaces the frames.
+     *
+     * @param backtrace the frames
+     */
+    public void setBacktrace(List<BacktraceFrame> backtrace) {
+        this.backtrace = backtrace;
+    }
+
+    /**
+     * Gets the number of frames shared with the enclosing exception and left out.
+     *
+     * @return the number of elided frames
+     */
+    public int getFramesInCommon() {
+        return framesInCommon;
+    }
+}
@@ -0,0 +1,145 @@
+package so.hawk.catcher;
+
+/**
+ * Computes a stable 64-bit fingerprint identifying "the same error".
+ * <p>
+ * The fingerprint covers the exception class, the message with variable parts masked and the top
+ * stack frames. Any word of the message containing a digit (ids, sizes, addresses, UUIDs) is treated
+ * as a placeholder, so {@code "Index 10 out of bounds for length 5"} and
+ * {@code "Index 7 out of bounds for length 3"} share a fingerprint. Hashing is done in place with
+ * FNV-1a, without building intermediate strings.
+ */
+final class ExceptionFingerprint {
+    /**
+     * FNV-1a 64-bit offset basis.
+     */
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+
+    /**
+     * FNV-1a 64-bit prime.
+     */
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private ExceptionFingerprint() {
+    }
+
+    /**
+     * Computes the fingerprint of an exception or a message.
+     *
+     * @param messageOrException the exception or message being reported
+     * @param frames             the number of top stack frames to include
+     * @return the fingerprint
+     */
+    static long of(Object messageOrException, int frames) {
+        long hash = FNV_OFFSET;
+
+        if (messageOrException instanceof Throwable) {
+            Throwable throwable = (Throwable) messageOrException;
+            hash = hashString(hash, throwable.getClass().getName());
+            hash = hashMessageTemplate(hash, throwable.getMessage());
+
+            StackTraceElement[] stackTrace = throwable.getStackTrace();
+            int limit = Math.min(frames, stackTrace.length);
+            for (int i = 0; i < limit; i++) {
+                StackTraceElement element = stackTrace[i];
+                hash = hashString(hash, element.getClassName());
+                hash = hashString(hash, element.getMethodName());
+                hash = hashInt(hash, element.getLineNumber());
+            }
+        } else if (messageOrException != null) {
+            hash = hashMessageTemplate(hash, messageOrException.toString());
+        }
+
+        return hash;
+    }
+
+    /**
+     * Mixes a string into the hash, followed by a separator.
+     *
+     * @param hash  the current hash
+     * @param value the string, may be null
+     * @return the updated hash
+     */
+    private static long hashString(long hash, String value) {
+        if (value != null) {
+            for (int i = 0; i < value.length(); i++) {
+                hash = mix(hash, value.charAt(i));
+            }
+        }
+        return mix(hash, 0);
+    }
+
+    /**
+     * Mixes an int into the hash.
+     *
+     * @param hash  the current hash
+     * @param value the value
+     * @return the updated hash
+     */
+    private static long hashInt(long hash, int value) {
+        hash = mix(hash, value & 0xffff);
+        return mix(hash, value >>> 16);
+    }
+
+    /**
+     * Mixes a message into the hash, replacing every word that contains a digit with a placeholder.
+     *
+     * @param hash    the current hash
+     * @param message the message, may be null
+     * @return the updated hash
+     */
+    private static long hashMessageTemplate(long hash, String message) {
+        if (message == null) {
+            return mix(hash, 0);
+        }
+
+        int length = message.length();
+        int i = 0;
+        while (i < length) {
+            char c = message.charAt(i);
+            if (!isWordChar(c)) {
+                hash = mix(hash, c);
+                i++;
+                continue;
+            }
+
+            int end = i;
+            boolean hasDigit = false;
+            while (end < length && isWordChar(message.charAt(end))) {
+                hasDigit |= Character.isDigit(message.charAt(end));
+                end++;
+            }
+
+            if (hasDigit) {
+                hash = mix(hash, '#');
+            } else {
+                for (int j = i; j < end; j++) {
+                    hash = mix(hash, message.charAt(j));
+                }
+            }
+            i = end;
+        }
+        return mix(hash, 0);
+    }
+
+    /**
+     * Checks whether a character belongs to a word of the message.
+     *
+     * @param c the character
+     * @return true for letters, digits, '-' and '_'
+     */
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '-' || c == '_';
+    }
+
+    /**
+     * Applies one FNV-1a step.
+     *
+     * @param hash  the current hash
+     * @param value the value to mix in
+     * @return the updated hash
+     */
+    private static long mix(long hash, int value) {
+        return (hash ^ value) * FNV_PRIME;
+    }
+}
@@ -1,342 +1,306 @@
 package so.hawk.catcher;
 
-import java.util.Arrays;
-import java.util.Base64;
+import java.time.Duration;
 import java.util.List;
-
-import org.json.JSONArray;
-import org.json.JSONObject;
+import java.util.Map;
 
 /**
- * Manages uncaught exception handling in the application.
+ * Static entry point of the catcher. Manages the default {@link HawkClient}, which also reports
+ * uncaught exceptions of the application.
+ * <p>
+ * Applications reporting to several projects, such as one per tenant, create more clients with
+ * {@link HawkClient#create}; each has its own queue, transport and rate limits.
  */
 public class Hawk {
     /**
-     * Singleton instance of Hawk.
+     * Default client, or null if Hawk is not initialized.
      */
-    private static volatile Hawk instance;
+    private static volatile HawkClient instance;
 
     /**
-     * Custom uncaught exception handler.
+     * Handler reporting uncaught exceptions through the default client, or null if Hawk is not initialized.
      */
-    private final CustomUncaughtExceptionHandler exceptionHandler;
+    private static CustomUncaughtExceptionHandler exceptionHandler;
+
+    private Hawk() {
+    }
 
     /**
-     * Authentication token used for error reporting.
+     * Initializes the default client with a configuration lambda.
+     * Does nothing if Hawk is already initialized.
+     *
+     * @param configLambda the configuration lambda
      */
-    private final String token;
+    public static synchronized void init(HawkConfigurator configLambda) {
+        if (isInitialized()) {
+            return;
+        }
+        if (exceptionHandler != null) {
+            // The previous client was closed by its own shutdown hook.
+            exceptionHandler.disable();
+        }
+        instance = HawkClient.createDefault(configLambda);
+        exceptionHandler = new CustomUncaughtExceptionHandler();
+        exceptionHandler.enable();
+    }
 
     /**
-     * Integration ID extracted from the token.
+     * Overloaded method to initialize the default client with only the token.
+     *
+     * @param token the authentication token
      */
-    private final String integrationId;
+    public static synchronized void init(String token) {
+        init(config -> config.setToken(token));
+    }
 
     /**
-     * Base endpoint for sending error reports.
+     * Checks whether Hawk is initialized.
+     *
+     * @return true if {@link #init} was called and Hawk is not closed
      */
-    private final String endpointBase;
+    public static boolean isInitialized() {
+        HawkClient client = instance;
+        return client != null && !client.isClosed();
+    }
 
     /**
-     * String with catcher type.
+     * Retrieves the default client, for code written against {@link HawkClient}.
+     *
+     * @return the default client
+     * @throws IllegalStateException if Hawk is not initialized or is closed
      */
-    private static final String catcherType = "errors/java";
+    public static HawkClient getClient() {
+        HawkClient client = instance;
+        if (client == null || client.isClosed()) {
+            throw new IllegalStateException("Hawk is not initialized. Please call Hawk.init() before using.");
+        }
+        return client;
+    }
 
     /**
-     * Context data provided by the user.
+     * Retrieves the default client, closed or not.
+     *
+     * @return the default client
+     * @throws IllegalStateException if Hawk has never been initialized
      */
-    private final JSONObject context;
+    private static HawkClient client() {
+        HawkClient client = instance;
+        if (client == null) {
+            throw new IllegalStateException("Hawk is not initialized. Please call Hawk.init() before using.");
+        }
+        return client;
+    }
 
     /**
-     * Callback to execute before sending an event.
+     * Sends an error or a custom message to the server based on the type of input.
+     * Does nothing once Hawk is closed, e.g. by the shutdown hook.
+     *
+     * @param messageOrException Either a custom message or an exception (any {@link Throwable}) to send.
+     * @throws IllegalStateException if Hawk has never been initialized
      */
-    private final BeforeSendCallback beforeSend;
+    public static void send(Object messageOrException) {
+        client().send(messageOrException);
+    }
 
     /**
-     * User information.
+     * Sends an error or a custom message without composing the event on the calling thread.
+     * Deduplication and rate limits are applied right away; the event is composed and delivered
+     * by a background thread. Meant for callers that must not block, such as logging appenders.
+     *
+     * @param messageOrException Either a custom message or an exception (any {@link Throwable}) to send.
+     * @return true if the event was queued, false if it was deduplicated, rate limited, the queue was full
+     *         or Hawk is closed
+     * @throws IllegalStateException if Hawk has never been initialized
      */
-    private final JSONObject user;
+    public static boolean sendAsync(Object messageOrException) {
+        return client().sendAsync(messageOrException);
+    }
 
     /**
-     * Private constructor to initialize the Hawk instance with settings.
+     * Sends an error or a custom message with additional data, without composing the event on the
+     * calling thread. The map is converted to addons on the background thread, so it must not be
+     * modified afterwards.
      *
-     * @param settings the configuration settings
+     * @param messageOrException Either a custom message or an exception (any {@link Throwable}) to send.
+     * @param addons             additional data sent as addons, or null
+     * @return true if the event was queued, false if it was deduplicated, rate limited, the queue was full
+     *         or Hawk is closed
+     * @throws IllegalStateException if Hawk has never been initialized
      */
-    private Hawk(HawkSettings settings) {
-        this.token = settings.getToken();
-        this.integrationId = extractIntegrationIdFromToken(this.token);
-        this.endpointBase = String.format("https://%s.k1.hawk.so", integrationId);
-        this.exceptionHandler = new CustomUncaughtExceptionHandler();
-        this.context = settings.getContext() != null ? settings.getContext() : new JSONObject();
-        this.beforeSend = settings.getBeforeSend();
-        this.user = settings.getUser();
+    public static boolean sendAsync(Object messageOrException, Map<String, ?> addons) {
+        return client().sendAsync(messageOrException, addons);
     }
 
     /**
-     * Sends an error or a custom message to the server based on the type of input.
+     * Sets a context value sent with all following events. The context is replaced atomically,
+     * so events being composed keep the previous one.
      *
-     * @param messageOrException Either a custom message or an exception to send.
+     * @param key   the context key
+     * @param value the value, or null to remove the key
      */
-    public static void send(Object messageOrException) {
-        Hawk hawkInstance = getInstance();
-        String payload = composeEvent(hawkInstance, messageOrException);
-
-        if (hawkInstance.beforeSend != null) {
-            JSONObject jsonPayload = new JSONObject(payload);
-            JSONObject modifiedPayload = hawkInstance.beforeSend.onBeforeSend(jsonPayload);
-            if (modifiedPayload == null) {
-                System.out.println("Event was prevented from being sent.");
-                return;
-            }
-            payload = modifiedPayload.toString();
-        }
-
-        HawkHttpUtils.sendPostRequest(hawkInstance.getEndpointBase(), payload);
+    public static void setContext(String key, Object value) {
+        getClient().setContext(key, value);
     }
 
     /**
-     * Initializes the Hawk instance with a configuration lambda.
+     * Removes a context value.
      *
-     * @param configLambda the configuration lambda
+     * @param key the context key
      */
-    public static synchronized void init(HawkConfigurator configLambda) {
-        if (instance == null) {
-            HawkSettings settings = new HawkSettings("default_token");
-
-            configLambda.configure(settings);
-
-            instance = new Hawk(settings);
-            getInstance().exceptionHandler.enable();
-        }
+    public static void removeContext(String key) {
+        getClient().removeContext(key);
     }
 
     /**
-     * Overloaded method to initialize the Hawk instance with only the token.
+     * Sets a user field sent with all following events. The user is replaced atomically,
+     * so events being composed keep the previous one.
      *
-     * @param token the authentication token
+     * @param key   the user field
+     * @param value the value, or null to remove the field
      */
-    public static synchronized void init(String token) {
-        init(config -> config.setToken(token));
+    public static void setUser(String key, Object value) {
+        getClient().setUser(key, value);
     }
 
     /**
-     * Retrieves the singleton Hawk instance.
+     * Adds a context value for events reported from the current thread until the returned scope
+     * is closed. Scopes can be nested; inner values override outer ones and the global context.
+     * Works whether or not Hawk is initialized, and applies to events of every client.
      *
-     * @return the Hawk instance
-     * @throws IllegalStateException if Hawk is not initialized
+     * @param key   the context key
+     * @param value the value
+     * @return the scope to close
      */
-    private static Hawk getInstance() {
-        if (instance == null) {
-            throw new IllegalStateException("Hawk is not initialized. Please call Hawk.init() before using.");
-        }
-        return instance;
+    public static ContextScope withContext(String key, Object value) {
+        return ContextScope.open(key, value);
     }
 
     /**
-     * Decodes the integration ID from a Base64-encoded token.
+     * Records a breadcrumb sent with the next events reported from any thread.
+     * Does nothing if Hawk is not initialized.
      *
-     * @param token the encoded token
-     * @return the integration ID
+     * @param category the kind of action, e.g. {@code http} or {@code sql}
+     * @param message  the description of the action
      */
-    private static String extractIntegrationIdFromToken(String token) {
-        try {
-            String decodedJson = new String(Base64.getDecoder().decode(token));
-            JSONObject json = new JSONObject(decodedJson);
-            return json.getString("integrationId");
-        } catch (Exception e) {
-            throw new IllegalArgumentException("Invalid token: Unable to decode Base64 JSON.");
-        }
+    public static void addBreadcrumb(String category, String message) {
+        addBreadcrumb(category, BreadcrumbLevel.INFO, message);
     }
 
     /**
-     * Builds the payload for the server request based on the input type.
+     * Records a breadcrumb sent with the next events reported from any thread.
+     * Does nothing if Hawk is not initialized.
      *
-     * @param hawkInstance the current Hawk instance
-     * @param messageOrException the custom message or exception
-     * @return the JSON payload as a string
+     * @param category the kind of action, e.g. {@code http} or {@code sql}
+     * @param level    the severity
+     * @param message  the description of the action
      */
-    private static String composeEvent(Hawk hawkInstance, Object messageOrException) {
-        JSONObject event = new JSONObject();
-        event.put("token", hawkInstance.getToken());
-        event.put("catcherType", catcherType);
-        JSONObject payloadDetails = new JSONObject();
-
-        if (messageOrException instanceof Exception) {
-            Exception e = (Exception) messageOrException;
-            payloadDetails.put("title", e.toString());
-
-            payloadDetails.putOpt("type", e.getClass().getSimpleName());
-            payloadDetails.putOpt("description", e.getMessage());
-
-            payloadDetails.put("backtrace", getStackTraceWithSource(e));
-        } else if (messageOrException instanceof String) {
-            String message = (String) messageOrException;
-            payloadDetails.put("title", message);
-        } else {
-            throw new IllegalArgumentException("Invalid argument type. Expected String or Exception.");
+    public static void addBreadcrumb(String category, BreadcrumbLevel level, String message) {
+        HawkClient client = instance;
+        if (client != null) {
+            client.addBreadcrumb(category, level, message);
         }
-
-        payloadDetails.put("context", hawkInstance.context);
-        payloadDetails.put("user", hawkInstance.user);
-        payloadDetails.putOpt("release", hawkInstance.context.optString("version"));
-        payloadDetails.putOpt("addons", new JSONObject());
-
-        event.put("payload", payloadDetails);
-
-        System.out.println("Composed event: " + event.toString(2));
-
-        return event.toString();
     }
 
     /**
-     * Creates a JSON array representing the stack trace (backtrace) based on the provided throwable.
-     * Each element in the array represents a single frame of the stack trace and includes information
-     * about the file, line number, method name, and a snippet of the source code.
+     * Records a breadcrumb sent with the next events reported from the current thread.
+     * Does nothing if Hawk is not initialized.
      *
-     * @param throwable The exception or error for which the backtrace is being generated.
-     * @return A JSONArray containing the backtrace details for each stack frame.
+     * @param category the kind of action, e.g. {@code http} or {@code sql}
+     * @param message  the description of the action
      */
-    private static JSONArray getStackTraceWithSource(Throwable throwable) {
-        JSONArray backtrace = new JSONArray();
-
-        for (StackTraceElement element : throwable.getStackTrace()) {
-            JSONObject frame = new JSONObject();
-
-            frame.put("file", element.getFileName() != null ? element.getFileName() : "Unknown file");
-            frame.put("line", element.getLineNumber());
-            frame.put("column", 0); // Column номер обычно недоступен в Java
-            frame.putOpt("function", element.getMethodName());
-
-            String sourceCode = getSourceCode(element);
-            if (sourceCode.equals("Source code unavailable")) {
-                frame.put("sourceCode", (Object) null);
-            } else {
-                JSONArray sourceCodeArray = new JSONArray();
-                String[] lines = sourceCode.split("\n");
-                for (String line : lines) {
-                    String[] parts = line.split("\\|", 2);
-                    if (parts.length == 2) {
-                        try {
-                            int lineNum = Integer.parseInt(parts[0].trim());
-                            String content = parts[1];
-                            JSONObject lineObj = new JSONObject();
-                            lineObj.put("line", lineNum);
-                            lineObj.put("content", content);
-                            sourceCodeArray.put(lineObj);
-                        } catch (NumberFormatException ignored) {
-                        }
-                    }
-                }
-                frame.put("sourceCode", sourceCodeArray);
-            }
+    public static void addThreadBreadcrumb(String category, String message) {
+        addThreadBreadcrumb(category, BreadcrumbLevel.INFO, message);
+    }
 
-            backtrace.put(frame);
+    /**
+     * Records a breadcrumb sent with the next events reported from the current thread.
+     * Does nothing if Hawk is not initialized.
+     *
+     * @param category the kind of action, e.g. {@code http} or {@code sql}
+     * @param level    the severity
+     * @param message  the description of the action
+     */
+    public static void addThreadBreadcrumb(String category, BreadcrumbLevel level, String message) {
+        HawkClient client = instance;
+        if (client != null) {
+            client.addThreadBreadcrumb(category, level, message);
         }
-
-        return backtrace;
     }
 
     /**
-     * Attempts to retrieve a snippet of the source code for the given stack trace element.
-     * Searches for the file in predefined directories and reads the lines around the specified line number.
+     * Reports an uncaught exception through the default client and waits up to its shutdown timeout
+     * for it to be delivered. Does nothing if Hawk is not initialized.
      *
-     * @param element The stack trace element for which the source code is being retrieved.
-     * @return A string representation of the source code snippet or "Source code unavailable" if the file cannot be found.
+     * @param throwable the uncaught exception
      */
-    private static String getSourceCode(StackTraceElement element) {
-        try {
-            String fileName = element.getFileName();
-            if (fileName == null || fileName.isEmpty()) {
-                return "Source code unavailable";
-            }
-
-            List<String> searchPaths = Arrays.asList(
-                    "src/main/java",
-                    "src"
-            );
-
-            for (String basePath : searchPaths) {
-                String fullFilePath = constructFullPath(basePath, element.getClassName(), fileName);
-                java.nio.file.Path fullPath = java.nio.file.Paths.get(fullFilePath);
-
-                if (java.nio.file.Files.exists(fullPath)) {
-                    System.out.println("File found: " + fullPath);
-                    return readFileContent(fullPath, element.getLineNumber());
-                } else {
-                    System.out.println("File not found: " + fullPath);
-                }
-            }
-
-            return "Source code unavailable";
-        } catch (Exception e) {
-            System.err.println("Error while reading source code: " + e.getMessage());
-            return "Source code unavailable";
+    static void reportUncaught(Throwable throwable) {
+        HawkClient client = instance;
+        if (client != null) {
+            client.reportUncaught(throwable);
         }
     }
 
     /**
-     * Constructs the full path to the source file based on the base directory, class name, and file name.
+     * Waits until the events queued so far have been sent. In synchronous mode events are sent
+     * by {@link #send(Object)} itself, so this returns immediately.
      *
-     * @param basePath   The base directory where the source file is expected to be located.
-     * @param className  The fully qualified name of the class associated with the stack trace element.
-     * @param fileName   The name of the source file.
-     * @return The full path to the source file.
+     * @param timeout the maximum time to wait
+     * @return true if every queued event was sent before the timeout
      */
-    private static String constructFullPath(String basePath, String className, String fileName) {
-
-        String packagePath = className.replace('.', '/');
-        return basePath + "/" + packagePath + "." + getExtension(fileName);
+    public static boolean flush(Duration timeout) {
+        return getClient().flush(timeout);
     }
 
     /**
-     * Extracts the file extension from the given file name.
-     *
-     * @param fileName The name of the file.
-     * @return The file extension (e.g., "java") or an empty string if no extension is present.
+     * Closes the default client: reports errors collapsed by deduplication, sends queued events in
+     * parallel batches within the shutdown timeout, spools the rest and releases threads and connections.
+     * Called by the shutdown hook unless it is disabled. Errors sent afterwards are ignored, and Hawk
+     * can be initialized again. Clients created with {@link HawkClient#create} are closed separately.
      */
-    private static String getExtension(String fileName) {
-        if (fileName != null && fileName.contains(".")) {
-            return fileName.substring(fileName.lastIndexOf('.') + 1);
+    public static synchronized void close() {
+        HawkClient client = instance;
+        if (client == null || exceptionHandler == null) {
+            return;
         }
-        return "";
+        exceptionHandler.disable();
+        exceptionHandler = null;
+        client.close();
     }
 
     /**
-     * Reads the content of the source file and extracts a snippet around the specified line number.
+     * Returns the number of events discarded because the dispatch queue was full.
      *
-     * @param path       The full path to the source file.
-     * @param lineNumber The line number around which the snippet is extracted.
-     * @return A formatted string containing the source code snippet with line numbers.
-     * @throws Exception If an error occurs while reading the file.
+     * @return the number of dropped events, always 0 in synchronous mode
      */
-    private static String readFileContent(java.nio.file.Path path, int lineNumber) throws Exception {
-        List<String> lines = java.nio.file.Files.readAllLines(path);
-
-        int startLine = Math.max(0, lineNumber - 11);
-        int endLine = Math.min(lines.size(), lineNumber + 9);
-
-        StringBuilder sourceCode = new StringBuilder();
-        for (int i = startLine; i < endLine; i++) {
-            sourceCode.append(String.format("%4d | %s%n", i + 1, lines.get(i)));
-        }
+    public static long getDroppedEventsCount() {
+        return getClient().getDroppedEventsCount();
+    }
 
-        return sourceCode.toString();
+    /**
+     * Returns the number of events not reported because of sampling or rate limits.
+     *
+     * @return the number of rejected events
+     */
+    public static long getRateLimitedEventsCount() {
+        return getClient().getRateLimitedEventsCount();
     }
 
     /**
-     * Retrieves the token used by this Hawk instance.
+     * Returns a snapshot of the catcher's own metrics: event counters, queue and spool gauges, and
+     * latency histograms of composition, serialization and HTTP requests.
      *
-     * @return the authentication token
+     * @return the metrics snapshot
      */
-    private String getToken() {
-        return token;
+    public static HawkMetricsSnapshot getMetrics() {
+        return getClient().getMetrics();
     }
 
     /**
-     * Retrieves the base endpoint URL for this Hawk instance.
+     * Returns the time spent in each event processor, including the beforeSend callback.
      *
-     * @return the endpoint base URL
+     * @return the timings in execution order
      */
-    private String getEndpointBase() {
-        return endpointBase;
+    public static List<EventProcessorTiming> getEventProcessorTimings() {
+        return getClient().getEventProcessorTimings();
     }
-}
\ No newline at end of file
+}
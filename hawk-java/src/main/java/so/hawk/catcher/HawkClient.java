@@ -0,0 +1,802 @@
+package so.hawk.catcher;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.json.JSONObject;
+
+/**
+ * Reports errors to one Hawk project.
+ * <p>
+ * Each client owns its settings, queue, dispatcher thread, transport, deduplicator, rate limiter,
+ * breadcrumbs and context, so clients of different projects or tenants are isolated: a client that
+ * reports a burst of errors only fills its own queue and spends its own rate limit. The static
+ * {@link Hawk} facade delegates to a default client created by {@link Hawk#init}.
+ *
+ * <pre>{@code
+ * HawkClient tenant = HawkClient.create(config -> config.setToken(tenantToken).setName("tenant-a"));
+ * tenant.send(exception);
+ * tenant.close();
+ * }</pre>
+ */
+public class HawkClient implements AutoCloseable {
+    /**
+     * Authentication token used for error reporting.
+     */
+    private final String token;
+
+    /**
+     * Integration ID extracted from the token.
+     */
+    private final String integrationId;
+
+    /**
+     * Base endpoint for sending error reports.
+     */
+    private final String endpointBase;
+
+    /**
+     * String with catcher type.
+     */
+    private static final String catcherType = "errors/java";
+
+    /**
+     * Number of unnamed clients other than the default one, used to give each its own MBean name.
+     */
+    private static final AtomicInteger unnamedClients = new AtomicInteger();
+
+    /**
+     * Context data shared by all events, replaced atomically on update.
+     */
+    private final AtomicReference<JsonSnapshot> context;
+
+    /**
+     * Pre-serialized start of every event: token, catcher type and the opening of the payload.
+     */
+    private final JsonWriter.Prefix envelope;
+
+    /**
+     * Processors applied to events before sending, ending with the beforeSend callback.
+     */
+    private final EventProcessorChain processors;
+
+    /**
+     * User information shared by all events, replaced atomically on update.
+     */
+    private final AtomicReference<JsonSnapshot> user;
+
+    /**
+     * Configuration settings the instance was created with.
+     */
+    private final HawkSettings settings;
+
+    /**
+     * Name the metrics MBean is registered under, or null for the default unnamed client.
+     */
+    private final String metricsName;
+
+    /**
+     * Delivers events to the collector.
+     */
+    private final HawkSender sender;
+
+    /**
+     * Background dispatcher, or null when events are sent on the calling thread.
+     */
+    private final HawkDispatcher dispatcher;
+
+    /**
+     * Compressors released by finished synchronous sends, reused by the next ones.
+     */
+    private final ConcurrentLinkedQueue<PayloadCompressor> compressors = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Collapses repeated errors, or null when deduplication is disabled.
+     */
+    private final EventDeduplicator deduplicator;
+
+    /**
+     * Applies sampling and rate limits, or null when neither is configured.
+     */
+    private final EventRateLimiter rateLimiter;
+
+    /**
+     * Provides source code snippets for stack frames.
+     */
+    private final SourceCodeLoader sourceLoader;
+
+    /**
+     * Counters and latency histograms of this client.
+     */
+    private final HawkMetrics metrics = new HawkMetrics();
+
+    /**
+     * Breadcrumbs of all threads, or null if disabled.
+     */
+    private final BreadcrumbBuffer breadcrumbs;
+
+    /**
+     * Breadcrumbs of each thread, or null if disabled.
+     */
+    private final ThreadLocal<BreadcrumbBuffer> threadBreadcrumbs;
+
+    /**
+     * Composes events reported with {@link #sendAsync}, created on first use.
+     */
+    private volatile AsyncReporter asyncReporter;
+
+    /**
+     * Shutdown hook closing this client, or null if it is not registered.
+     */
+    private final Thread shutdownHook;
+
+    /**
+     * Set once the client is closed.
+     */
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    /**
+     * Creates a client and starts its threads. Registers its metrics MBean and a shutdown hook
+     * closing it, unless they are disabled in the settings. An unnamed client registers its MBean
+     * as {@code client-1}, {@code client-2}, etc.
+     *
+     * @param settings the configuration settings
+     * @throws IllegalArgumentException if the token is invalid
+     */
+    public HawkClient(HawkSettings settings) {
+        this(settings, false);
+    }
+
+    /**
+     * Creates a client and starts its threads.
+     *
+     * @param settings      the configuration settings
+     * @param defaultClient whether this is the default client of {@link Hawk}, whose MBean keeps
+     *                      the plain name when it is unnamed
+     * @throws IllegalArgumentException if the token is invalid
+     */
+    HawkClient(HawkSettings settings, boolean defaultClient) {
+        this.settings = settings;
+        this.metricsName = settings.getName() != null || defaultClient
+                ? settings.getName()
+                : "client-" + unnamedClients.incrementAndGet();
+        this.token = settings.getToken();
+        this.integrationId = extractIntegrationIdFromToken(this.token);
+        this.endpointBase = settings.getEndpoint() != null
+                ? settings.getEndpoint()
+                : String.format("https://%s.k1.hawk.so", integrationId);
+        this.context = new AtomicReference<>(JsonSnapshot.of(settings.getContext()));
+        this.envelope = HawkEvent.envelope(token, catcherType);
+        List<EventProcessor> processors = new ArrayList<>(settings.getEventProcessors());
+        if (settings.getBeforeSend() != null) {
+            processors.add(new BeforeSendProcessor(settings.getBeforeSend(), envelope));
+        }
+        this.processors = new EventProcessorChain(processors);
+        this.user = new AtomicReference<>(JsonSnapshot.of(settings.getUser()));
+        this.sender = new HawkSender(endpointBase, HawkTransports.create(settings, metrics), settings, metrics);
+        this.dispatcher = settings.isAsync() ? new HawkDispatcher(sender, settings) : null;
+        this.deduplicator = settings.getDedupWindowMillis() > 0
+                ? new EventDeduplicator(settings.getDedupWindowMillis(), settings.getDedupMaxEntries(), this::sendRepeated)
+                : null;
+        this.rateLimiter = EventRateLimiter.isEnabled(settings) ? new EventRateLimiter(settings) : null;
+        this.sourceLoader = new SourceCodeLoader(settings);
+        this.breadcrumbs = settings.getBreadcrumbsCapacity() > 0
+                ? new BreadcrumbBuffer(settings.getBreadcrumbsCapacity())
+                : null;
+        int threadCapacity = settings.getThreadBreadcrumbsCapacity();
+        this.threadBreadcrumbs = threadCapacity > 0
+                ? ThreadLocal.withInitial(() -> new BreadcrumbBuffer(threadCapacity))
+                : null;
+
+        if (settings.isJmxEnabled()) {
+            HawkMetricsJmx.register(metricsName, this::snapshotMetrics);
+        }
+        if (settings.isShutdownHookEnabled()) {
+            this.shutdownHook = new Thread(this::close, "hawk-shutdown");
+            Runtime.getRuntime().addShutdownHook(shutdownHook);
+        } else {
+            this.shutdownHook = null;
+        }
+    }
+
+    /**
+     * Creates a client with a configuration lambda.
+     *
+     * @param configLambda the configuration lambda
+     * @return the client
+     * @throws IllegalArgumentException if the token is invalid
+     */
+    public static HawkClient create(HawkConfigurator configLambda) {
+        return new HawkClient(configure(configLambda));
+    }
+
+    /**
+     * Creates the default client of {@link Hawk} with a configuration lambda. Its diagnostics
+     * settings apply to the whole process, since diagnostics are shared by all clients.
+     *
+     * @param configLambda the configuration lambda
+     * @return the client
+     * @throws IllegalArgumentException if the token is invalid
+     */
+    static HawkClient createDefault(HawkConfigurator configLambda) {
+        HawkSettings settings = configure(configLambda);
+        Diagnostics.configure(settings);
+        return new HawkClient(settings, true);
+    }
+
+    /**
+     * Applies a configuration lambda to new settings.
+     *
+     * @param configLambda the configuration lambda
+     * @return the settings
+     */
+    private static HawkSettings configure(HawkConfigurator configLambda) {
+        HawkSettings settings = new HawkSettings("default_token");
+        configLambda.configure(settings);
+        return settings;
+    }
+
+    /**
+     * Sends an error or a custom message to the server based on the type of input.
+     * Does nothing once the client is closed.
+     *
+     * @param messageOrException Either a custom message or an exception (any {@link Throwable}) to send.
+     */
+    public void send(Object messageOrException) {
+        report(messageOrException);
+    }
+
+    /**
+     * Sends an error or a custom message without composing the event on the calling thread.
+     * Deduplication and rate limits are applied right away; the event is composed and delivered
+     * by a background thread. Meant for callers that must not block, such as logging appenders.
+     *
+     * @param messageOrException Either a custom message or an exception (any {@link Throwable}) to send.
+     * @return true if the event was queued, false if it was deduplicated, rate limited, the queue was full
+     *         or the client is closed
+     */
+    public boolean sendAsync(Object messageOrException) {
+        return sendAsync(messageOrException, null);
+    }
+
+    /**
+     * Sends an error or a custom message with additional data, without composing the event on the
+     * calling thread. The map is converted to addons on the background thread, so it must not be
+     * modified afterwards.
+     *
+     * @param messageOrException Either a custom message or an exception (any {@link Throwable}) to send.
+     * @param addons             additional data sent as addons, or null
+     * @return true if the event was queued, false if it was deduplicated, rate limited, the queue was full
+     *         or the client is closed
+     */
+    public boolean sendAsync(Object messageOrException, Map<String, ?> addons) {
+        return reportAsync(messageOrException, addons);
+    }
+
+    /**
+     * Checks whether the client is closed.
+     *
+     * @return true once {@link #close()} was called
+     */
+    public boolean isClosed() {
+        return closed.get();
+    }
+
+    /**
+     * Reports an error or a custom message through this client. In asynchronous mode, an event whose
+     * source snippets are still being loaded is serialized by the background reporter, so the calling
+     * thread does not wait for them.
+     *
+     * @param messageOrException Either a custom message or an exception (any {@link Throwable}) to send.
+     */
+    void report(Object messageOrException) {
+        if (!admit(messageOrException)) {
+            return;
+        }
+        HawkEvent event = composeEvent(this, messageOrException, null);
+        if (dispatcher != null && event.hasPendingSnippets() && asyncReporter().submit(event)) {
+            return;
+        }
+        deliver(event);
+    }
+
+    /**
+     * Queues an error or a custom message for the background reporter.
+     *
+     * @param messageOrException Either a custom message or an exception (any {@link Throwable}) to send.
+     * @param addons             additional data sent as addons, or null
+     * @return true if the event was queued
+     */
+    boolean reportAsync(Object messageOrException, Map<String, ?> addons) {
+        if (!admit(messageOrException)) {
+            return false;
+        }
+        List<Breadcrumb> local = Collections.emptyList();
+        if (threadBreadcrumbs != null) {
+            List<Breadcrumb> snapshot = new ArrayList<>();
+            threadBreadcrumbs.get().snapshotInto(snapshot);
+            if (!snapshot.isEmpty()) {
+                local = snapshot;
+            }
+        }
+        return asyncReporter().submit(messageOrException, addons, local);
+    }
+
+    /**
+     * Gets the background reporter, starting it on first use.
+     *
+     * @return the reporter
+     */
+    private AsyncReporter asyncReporter() {
+        AsyncReporter reporter = asyncReporter;
+        if (reporter == null) {
+            synchronized (this) {
+                reporter = asyncReporter;
+                if (reporter == null) {
+                    reporter = new AsyncReporter(this, settings.getQueueCapacity(), metrics.reportsDropped);
+                    asyncReporter = reporter;
+                }
+            }
+        }
+        return reporter;
+    }
+
+    /**
+     * Validates the reported object and applies deduplication and rate limits.
+     *
+     * @param messageOrException the exception or message being reported
+     * @return true if an event should be sent, false if it is filtered out or the client is closed
+     */
+    private boolean admit(Object messageOrException) {
+        if (!(messageOrException instanceof Throwable) && !(messageOrException instanceof String)) {
+            throw new IllegalArgumentException("Invalid argument type. Expected String or Throwable.");
+        }
+        if (closed.get()) {
+            return false;
+        }
+
+        long fingerprint = 0;
+        if (deduplicator != null || (rateLimiter != null && rateLimiter.usesFingerprints())) {
+            fingerprint = ExceptionFingerprint.of(messageOrException, settings.getFingerprintFrames());
+        }
+
+        if (deduplicator != null && !deduplicator.record(fingerprint, messageOrException)) {
+            metrics.eventsDeduplicated.increment();
+            return false;
+        }
+        return rateLimiter == null || rateLimiter.tryAcquire(messageOrException, fingerprint);
+    }
+
+    /**
+     * Reports occurrences of an error collapsed by the deduplicator as a single event.
+     *
+     * @param sample      the latest collapsed exception or message
+     * @param repetitions the number of collapsed occurrences
+     * @param firstSeen   the time of the first occurrence in the window, in epoch milliseconds
+     * @param lastSeen    the time of the last occurrence, in epoch milliseconds
+     */
+    private void sendRepeated(Object sample, long repetitions, long firstSeen, long lastSeen) {
+        JSONObject addons = new JSONObject();
+        addons.put("repetitions", repetitions);
+        addons.put("firstSeen", firstSeen);
+        addons.put("lastSeen", lastSeen);
+
+        deliver(composeEvent(this, sample, addons));
+    }
+
+    /**
+     * Runs the event processors, serializes the event and hands it over to the dispatcher
+     * or sends it right away.
+     *
+     * @param event the composed event
+     */
+    void deliver(HawkEvent event) {
+        byte[] payload = encode(event);
+        if (payload == null) {
+            return;
+        }
+
+        if (dispatcher != null) {
+            dispatcher.enqueue(payload);
+        } else {
+            PayloadCompressor compressor = compressors.poll();
+            if (compressor == null) {
+                compressor = PayloadCompressor.create(settings);
+            }
+            try {
+                sender.send(payload, compressor);
+            } finally {
+                if (compressor != null) {
+                    compressors.offer(compressor);
+                    if (closed.get()) {
+                        closeCompressors();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs the event processors and serializes the event.
+     *
+     * @param event the composed event
+     * @return the UTF-8 encoded JSON payload, or null if a processor prevented sending
+     */
+    byte[] encode(HawkEvent event) {
+        long start = System.nanoTime();
+        if (!processors.isEmpty()) {
+            event = processors.process(event);
+            if (event == null) {
+                metrics.eventsFiltered.increment();
+                return null;
+            }
+        }
+
+        JsonWriter writer = JsonWriter.forCurrentThread();
+        event.writeTo(writer, envelope);
+        byte[] payload = writer.toByteArray();
+        metrics.serializeLatency.record(System.nanoTime() - start);
+        return payload;
+    }
+
+    /**
+     * Sets a context value sent with all following events. The context is replaced atomically,
+     * so events being composed keep the previous one.
+     *
+     * @param key   the context key
+     * @param value the value, or null to remove the key
+     */
+    public void setContext(String key, Object value) {
+        context.updateAndGet(context -> context.with(key, value));
+    }
+
+    /**
+     * Removes a context value.
+     *
+     * @param key the context key
+     */
+    public void removeContext(String key) {
+        context.updateAndGet(context -> context.without(key));
+    }
+
+    /**
+     * Sets a user field sent with all following events. The user is replaced atomically,
+     * so events being composed keep the previous one.
+     *
+     * @param key   the user field
+     * @param value the value, or null to remove the field
+     */
+    public void setUser(String key, Object value) {
+        user.updateAndGet(user -> user.with(key, value));
+    }
+
+    /**
+     * Records a breadcrumb sent with the next events reported from any thread.
+     *
+     * @param category the kind of action, e.g. {@code http} or {@code sql}
+     * @param message  the description of the action
+     */
+    public void addBreadcrumb(String category, String message) {
+        addBreadcrumb(category, BreadcrumbLevel.INFO, message);
+    }
+
+    /**
+     * Records a breadcrumb sent with the next events reported from any thread.
+     *
+     * @param category the kind of action, e.g. {@code http} or {@code sql}
+     * @param level    the severity
+     * @param message  the description of the action
+     */
+    public void addBreadcrumb(String category, BreadcrumbLevel level, String message) {
+        if (breadcrumbs != null) {
+            breadcrumbs.add(System.currentTimeMillis(), category, level, message);
+        }
+    }
+
+    /**
+     * Records a breadcrumb sent with the next events reported from the current thread.
+     *
+     * @param category the kind of action, e.g. {@code http} or {@code sql}
+     * @param message  the description of the action
+     */
+    public void addThreadBreadcrumb(String category, String message) {
+        addThreadBreadcrumb(category, BreadcrumbLevel.INFO, message);
+    }
+
+    /**
+     * Records a breadcrumb sent with the next events reported from the current thread.
+     *
+     * @param category the kind of action, e.g. {@code http} or {@code sql}
+     * @param level    the severity
+     * @param message  the description of the action
+     */
+    public void addThreadBreadcrumb(String category, BreadcrumbLevel level, String message) {
+        if (threadBreadcrumbs != null) {
+            threadBreadcrumbs.get().add(System.currentTimeMillis(), category, level, message);
+        }
+    }
+
+    /**
+     * Copies the global breadcrumbs and merges them with thread breadcrumbs, oldest first.
+     *
+     * @param threadBreadcrumbs the breadcrumbs of the reporting thread, or null to take the current thread's
+     * @return the breadcrumbs, or null if there are none
+     */
+    private List<Breadcrumb> snapshotBreadcrumbs(List<Breadcrumb> threadBreadcrumbs) {
+        List<Breadcrumb> global = new ArrayList<>();
+        if (breadcrumbs != null) {
+            breadcrumbs.snapshotInto(global);
+        }
+        List<Breadcrumb> local = threadBreadcrumbs;
+        if (local == null) {
+            if (this.threadBreadcrumbs == null) {
+                return global.isEmpty() ? null : global;
+            }
+            local = new ArrayList<>();
+            this.threadBreadcrumbs.get().snapshotInto(local);
+        }
+        if (local.isEmpty()) {
+            return global.isEmpty() ? null : global;
+        }
+
+        List<Breadcrumb> merged = new ArrayList<>(global.size() + local.size());
+        int i = 0;
+        int j = 0;
+        while (i < global.size() || j < local.size()) {
+            if (j >= local.size() || (i < global.size() && global.get(i).getTimestamp() <= local.get(j).getTimestamp())) {
+                merged.add(global.get(i++));
+            } else {
+                merged.add(local.get(j++));
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Reports an uncaught exception and waits up to the shutdown timeout for it to be delivered.
+     * Does nothing if the client is closed.
+     *
+     * @param throwable the uncaught exception
+     */
+    void reportUncaught(Throwable throwable) {
+        if (closed.get()) {
+            return;
+        }
+        try {
+            report(throwable);
+            flushEvents(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(settings.getShutdownTimeoutMillis()));
+        } catch (RuntimeException e) {
+            Diagnostics.error("Failed to report uncaught exception", e);
+        }
+    }
+
+    /**
+     * Waits until the events queued so far have been sent. In synchronous mode events are sent
+     * by {@link #send(Object)} itself, so this returns immediately.
+     *
+     * @param timeout the maximum time to wait
+     * @return true if every queued event was sent before the timeout
+     */
+    public boolean flush(Duration timeout) {
+        return flushEvents(System.nanoTime() + timeout.toNanos());
+    }
+
+    /**
+     * Waits until the events queued so far have been sent.
+     *
+     * @param deadlineNanos the deadline, from {@link System#nanoTime()}
+     * @return true if every queued event was sent before the deadline
+     */
+    boolean flushEvents(long deadlineNanos) {
+        AsyncReporter reporter = asyncReporter;
+        if (reporter != null && !reporter.flush(deadlineNanos)) {
+            return false;
+        }
+        return dispatcher == null || dispatcher.flush(deadlineNanos);
+    }
+
+    /**
+     * Closes the client: reports errors collapsed by deduplication, sends queued events in parallel
+     * batches within the shutdown timeout, spools the rest and releases threads and connections.
+     * Called by the shutdown hook unless it is disabled. Does nothing if the client is already closed.
+     */
+    @Override
+    public void close() {
+        shutdown(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(settings.getShutdownTimeoutMillis()));
+    }
+
+    /**
+     * Stops this client, delivering or spooling pending events. Does nothing if it is already closed.
+     *
+     * @param deadlineNanos the deadline for delivering queued events, from {@link System#nanoTime()}
+     */
+    void shutdown(long deadlineNanos) {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        if (shutdownHook != null && Thread.currentThread() != shutdownHook) {
+            try {
+                Runtime.getRuntime().removeShutdownHook(shutdownHook);
+            } catch (IllegalStateException e) {
+                // The JVM is already shutting down.
+            }
+        }
+        if (settings.isJmxEnabled()) {
+            HawkMetricsJmx.unregister(metricsName);
+        }
+        AsyncReporter reporter = asyncReporter;
+        if (reporter != null) {
+            reporter.close(deadlineNanos);
+        }
+        if (deduplicator != null) {
+            deduplicator.stop();
+            deduplicator.flushAll();
+        }
+        if (dispatcher != null) {
+            dispatcher.close(deadlineNanos, settings.getShutdownFlushThreads());
+        }
+        sourceLoader.close();
+        sender.close();
+        closeCompressors();
+    }
+
+    /**
+     * Releases the native memory of the pooled compressors.
+     */
+    private void closeCompressors() {
+        for (PayloadCompressor compressor = compressors.poll(); compressor != null; compressor = compressors.poll()) {
+            compressor.close();
+        }
+    }
+
+    /**
+     * Returns the number of events discarded because the dispatch queue was full.
+     *
+     * @return the number of dropped events, always 0 in synchronous mode
+     */
+    public long getDroppedEventsCount() {
+        return dispatcher != null ? dispatcher.getDroppedEvents() : 0;
+    }
+
+    /**
+     * Returns the number of events not reported because of sampling or rate limits.
+     *
+     * @return the number of rejected events
+     */
+    public long getRateLimitedEventsCount() {
+        return rateLimiter != null ? rateLimiter.getRejectedEvents() : 0;
+    }
+
+    /**
+     * Returns a snapshot of the catcher's own metrics: event counters, queue and spool gauges, and
+     * latency histograms of composition, serialization and HTTP requests.
+     *
+     * @return the metrics snapshot
+     */
+    public HawkMetricsSnapshot getMetrics() {
+        return snapshotMetrics();
+    }
+
+    /**
+     * Takes a snapshot of the metrics of this client.
+     *
+     * @return the metrics snapshot
+     */
+    HawkMetricsSnapshot snapshotMetrics() {
+        return new HawkMetricsSnapshot(
+                metrics.eventsComposed.sum(),
+                metrics.eventsSent.sum(),
+                metrics.eventsFailed.sum(),
+                (dispatcher != null ? dispatcher.getDroppedEvents() : 0) + sender.getSpoolDroppedEvents()
+                        + metrics.reportsDropped.sum(),
+                metrics.eventsDeduplicated.sum(),
+                rateLimiter != null ? rateLimiter.getRejectedEvents() : 0,
+                metrics.eventsFiltered.sum(),
+                dispatcher != null ? dispatcher.getQueueSize() : 0,
+                sender.getSpoolSizeBytes(),
+                metrics.composeLatency.snapshot(),
+                metrics.serializeLatency.snapshot(),
+                metrics.httpRoundTrip.snapshot());
+    }
+
+    /**
+     * Returns the time spent in each event processor, including the beforeSend callback.
+     *
+     * @return the timings in execution order
+     */
+    public List<EventProcessorTiming> getEventProcessorTimings() {
+        return processors.getTimings();
+    }
+
+    /**
+     * Decodes the integration ID from a Base64-encoded token.
+     *
+     * @param token the encoded token
+     * @return the integration ID
+     */
+    private static String extractIntegrationIdFromToken(String token) {
+        try {
+            String decodedJson = new String(Base64.getDecoder().decode(token));
+            JSONObject json = new JSONObject(decodedJson);
+            return json.getString("integrationId");
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Invalid token: Unable to decode Base64 JSON.");
+        }
+    }
+
+    /**
+     * Builds the event based on the input type. Source snippets of all frames are requested at once
+     * and awaited against a single deadline when the event is serialized.
+     *
+     * @param hawkInstance the client reporting the event
+     * @param messageOrException the custom message or exception
+     * @param addons additional data attached to the event, or null for none
+     * @return the event
+     */
+    static HawkEvent composeEvent(HawkClient hawkInstance, Object messageOrException, JSONObject addons) {
+        return composeEvent(hawkInstance, messageOrException, addons, null, ContextScope.current());
+    }
+
+    /**
+     * Builds the event with the breadcrumbs and context scope captured on the reporting thread.
+     *
+     * @param hawkInstance the client reporting the event
+     * @param messageOrException the custom message or exception
+     * @param addons additional data attached to the event, or null for none
+     * @param threadBreadcrumbs breadcrumbs of the reporting thread, or null to take the current thread's
+     * @param scope the context scope of the reporting thread, or null
+     * @return the event
+     */
+    static HawkEvent composeEvent(HawkClient hawkInstance, Object messageOrException, JSONObject addons,
+                                        List<Breadcrumb> threadBreadcrumbs, ContextScope scope) {
+        long start = System.nanoTime();
+        HawkEvent event;
+        if (messageOrException instanceof Throwable) {
+            Throwable e = (Throwable) messageOrException;
+            event = new HawkEvent(e, e.toString());
+            event.setType(e.getClass().getSimpleName());
+            event.setDescription(e.getMessage());
+
+            StackTraceElement[] elements = e.getStackTrace();
+            List<CompletableFuture<List<SourceLine>>> snippets = new ArrayList<>(elements.length);
+            for (StackTraceElement element : elements) {
+                snippets.add(hawkInstance.sourceLoader.request(element));
+            }
+            List<ThrowableChain.Link> chain = ThrowableChain.collect(e, elements, hawkInstance.settings.getMaxCauseDepth());
+            for (ThrowableChain.Link link : chain) {
+                link.snippets = new ArrayList<>(link.uniqueFrames);
+                for (int i = 0; i < link.uniqueFrames; i++) {
+                    link.snippets.add(hawkInstance.sourceLoader.request(link.stackTrace[i]));
+                }
+            }
+            long timeout = TimeUnit.MILLISECONDS.toNanos(hawkInstance.settings.getSourceResolveTimeoutMillis());
+            event.setStackTrace(elements, snippets, System.nanoTime() + timeout);
+            event.setCauseChain(chain);
+        } else if (messageOrException instanceof String) {
+            event = new HawkEvent(messageOrException, (String) messageOrException);
+        } else {
+            throw new IllegalArgumentException("Invalid argument type. Expected String or Throwable.");
+        }
+
+        JsonSnapshot context = hawkInstance.context.get();
+        event.setSharedContext(context, scope);
+        event.setSharedUser(hawkInstance.user.get());
+        event.setRelease(context.optString("version"));
+        event.setAddons(addons);
+        event.setBreadcrumbs(hawkInstance.snapshotBreadcrumbs(threadBreadcrumbs));
+
+        hawkInstance.metrics.eventsComposed.increment();
+        hawkInstance.metrics.composeLatency.record(System.nanoTime() - start);
+        return event;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,636 @@
+package so.hawk.catcher;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Delivers composed events from a bounded queue on a dedicated background thread,
+ * so reporting never waits for the network.
+ * <p>
+ * By default the background thread sends each batch itself. With several in-flight requests or virtual
+ * threads enabled, it hands batches over to request threads, limited by a semaphore, and goes on
+ * collecting the next batch. Nothing on the request path holds a monitor, so virtual threads
+ * blocked on I/O never pin their carrier thread.
+ */
+class HawkDispatcher {
+    /**
+     * How long the sender thread sleeps when the queue is empty and nobody wakes it up.
+     */
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    /**
+     * Pause between attempts while waiting for free space under {@link OverflowPolicy#BLOCK}.
+     */
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    /**
+     * Pause between checks while waiting for the queue to drain.
+     */
+    private static final long FLUSH_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /**
+     * Queue of events waiting to be sent.
+     */
+    private final EventQueue<byte[]> queue;
+
+    /**
+     * What to do when the queue is full.
+     */
+    private final OverflowPolicy overflowPolicy;
+
+    /**
+     * Maximum time to wait for free space under {@link OverflowPolicy#BLOCK}.
+     */
+    private final long enqueueTimeoutNanos;
+
+    /**
+     * Delivers events to the collector.
+     */
+    private final HawkSender sender;
+
+    /**
+     * Configuration settings, used to create compressors for the threads flushing on close.
+     */
+    private final HawkSettings settings;
+
+    /**
+     * Compressor reused for every request, or null if compression is disabled. Only touched by the sender thread.
+     */
+    private final PayloadCompressor compressor;
+
+    /**
+     * Maximum number of events sent in one request.
+     */
+    private final int batchSize;
+
+    /**
+     * Maximum total size of events in one batch.
+     */
+    private final int batchMaxBytes;
+
+    /**
+     * How long to wait for more events before sending an incomplete batch.
+     */
+    private final long batchLingerNanos;
+
+    /**
+     * Events collected for the next request. Only touched by the sender thread.
+     */
+    private final List<byte[]> batch = new ArrayList<>();
+
+    /**
+     * Cleared once the collector rejects a batch, after which events are sent one by one.
+     */
+    private volatile boolean batchingSupported = true;
+
+    /**
+     * Runs requests concurrently, or null if the sender thread sends them itself.
+     */
+    private final Executor requestExecutor;
+
+    /**
+     * Platform threads behind {@link #requestExecutor}, or null if it starts virtual threads.
+     */
+    private final ExecutorService requestPool;
+
+    /**
+     * Maximum number of concurrent requests.
+     */
+    private final int maxInFlightRequests;
+
+    /**
+     * Permits for concurrent requests, or null if the sender thread sends them itself.
+     */
+    private final Semaphore inFlight;
+
+    /**
+     * Compressors released by finished requests, reused by the next ones.
+     */
+    private final ConcurrentLinkedQueue<PayloadCompressor> requestCompressors = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Batches being sent, so the ones still held by threads at the shutdown deadline can be spooled.
+     * Guarded by itself; a batch is not modified while it is in the set.
+     */
+    private final Set<List<byte[]>> batchesInFlight = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /**
+     * Background thread draining the queue.
+     */
+    private final Thread senderThread;
+
+    /**
+     * Set while the sender thread is about to park, so producers know they have to wake it up.
+     */
+    private volatile boolean senderWaiting;
+
+    /**
+     * Cleared when the dispatcher is stopped.
+     */
+    private volatile boolean running = true;
+
+    /**
+     * Set while the sender thread holds events taken from the queue.
+     */
+    private volatile boolean busy;
+
+    /**
+     * Number of threads waiting in {@link #flush(long)}; while positive, batches are sent without lingering.
+     */
+    private final AtomicInteger flushWaiters = new AtomicInteger();
+
+    /**
+     * Number of events discarded because the queue was full.
+     */
+    private final LongAdder droppedEvents = new LongAdder();
+
+    /**
+     * Creates and starts a dispatcher.
+     *
+     * @param sender   the sender delivering events to the collector
+     * @param settings the configuration settings
+     */
+    HawkDispatcher(HawkSender sender, HawkSettings settings) {
+        this.sender = sender;
+        this.settings = settings;
+        this.queue = new EventQueue<>(settings.getQueueCapacity());
+        this.overflowPolicy = settings.getOverflowPolicy();
+        this.enqueueTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(settings.getEnqueueTimeoutMillis());
+        this.batchSize = settings.getBatchSize();
+        this.batchMaxBytes = settings.getBatchMaxBytes();
+        this.batchLingerNanos = TimeUnit.MILLISECONDS.toNanos(settings.getBatchLingerMillis());
+        this.compressor = PayloadCompressor.create(settings);
+        this.maxInFlightRequests = settings.getMaxInFlightRequests();
+
+        if (maxInFlightRequests > 1 || settings.isVirtualThreadsEnabled()) {
+            ThreadFactory virtualThreads = settings.isVirtualThreadsEnabled()
+                    ? VirtualThreads.factory("hawk-request-") : null;
+            if (virtualThreads != null) {
+                this.requestPool = null;
+                this.requestExecutor = task -> virtualThreads.newThread(task).start();
+            } else {
+                if (settings.isVirtualThreadsEnabled()) {
+                    Diagnostics.info("Virtual threads are not available, sending requests on platform threads.");
+                }
+                AtomicInteger threadNumber = new AtomicInteger();
+                this.requestPool = Executors.newFixedThreadPool(maxInFlightRequests, runnable -> {
+                    Thread thread = new Thread(runnable, "hawk-request-" + threadNumber.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+                this.requestExecutor = requestPool;
+            }
+            this.inFlight = new Semaphore(maxInFlightRequests);
+        } else {
+            this.requestPool = null;
+            this.requestExecutor = null;
+            this.inFlight = null;
+        }
+
+        this.senderThread = new Thread(this::drainLoop, "hawk-dispatcher");
+        this.senderThread.setDaemon(true);
+        this.senderThread.start();
+    }
+
+    /**
+     * Puts an event into the queue applying the overflow policy when it is full.
+     *
+     * @param payload the UTF-8 encoded JSON payload to send
+     * @return true if the event was queued, false if it was dropped
+     */
+    boolean enqueue(byte[] payload) {
+        boolean queued = queue.offer(payload);
+
+        if (!queued) {
+            switch (overflowPolicy) {
+                case DROP_OLDEST:
+                    queued = replaceOldest(payload);
+                    break;
+                case BLOCK:
+                    queued = offerWithTimeout(payload);
+                    break;
+                case DROP_NEWEST:
+                default:
+                    break;
+            }
+        }
+
+        if (queued) {
+            wakeUpSender();
+        } else {
+            droppedEvents.increment();
+        }
+        return queued;
+    }
+
+    /**
+     * Evicts queued events until the new one fits.
+     *
+     * @param payload the UTF-8 encoded JSON payload to queue
+     * @return true if the event was queued
+     */
+    private boolean replaceOldest(byte[] payload) {
+        while (true) {
+            if (queue.poll() != null) {
+                droppedEvents.increment();
+            }
+            if (queue.offer(payload)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Retries offering the event until there is free space or the enqueue timeout expires.
+     *
+     * @param payload the UTF-8 encoded JSON payload to queue
+     * @return true if the event was queued before the timeout
+     */
+    private boolean offerWithTimeout(byte[] payload) {
+        long deadline = System.nanoTime() + enqueueTimeoutNanos;
+        while (System.nanoTime() - deadline < 0) {
+            wakeUpSender();
+            LockSupport.parkNanos(BLOCK_PARK_NANOS);
+            if (queue.offer(payload)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Unparks the sender thread if it is waiting for new events.
+     */
+    private void wakeUpSender() {
+        if (senderWaiting) {
+            LockSupport.unpark(senderThread);
+        }
+    }
+
+    /**
+     * Main loop of the sender thread.
+     */
+    private void drainLoop() {
+        while (running) {
+            busy = true;
+            byte[] payload = queue.poll();
+            if (payload == null) {
+                busy = false;
+                awaitEvents(IDLE_PARK_NANOS);
+                continue;
+            }
+
+            try {
+                if (batchSize > 1 && batchingSupported) {
+                    collectBatch(payload);
+                } else {
+                    batch.add(payload);
+                }
+                if (requestExecutor == null) {
+                    track(batch);
+                    sendBatch(batch, compressor);
+                } else {
+                    submit(new ArrayList<>(batch));
+                }
+            } catch (Throwable t) {
+                Diagnostics.error("Failed to dispatch event", t);
+            } finally {
+                untrack(batch);
+                batch.clear();
+                busy = false;
+            }
+        }
+
+        if (compressor != null) {
+            compressor.close();
+        }
+    }
+
+    /**
+     * Parks the sender thread until an event is queued or the timeout expires.
+     *
+     * @param timeoutNanos the maximum time to wait
+     */
+    private void awaitEvents(long timeoutNanos) {
+        senderWaiting = true;
+        if (queue.isEmpty() && running) {
+            LockSupport.parkNanos(this, timeoutNanos);
+        }
+        senderWaiting = false;
+    }
+
+    /**
+     * Fills the batch until it reaches the count or size threshold or the linger time expires.
+     *
+     * @param first the event that opens the batch
+     */
+    private void collectBatch(byte[] first) {
+        batch.add(first);
+        int batchBytes = first.length;
+        long deadline = System.nanoTime() + batchLingerNanos;
+
+        while (batch.size() < batchSize && batchBytes < batchMaxBytes && running && flushWaiters.get() == 0) {
+            byte[] payload = queue.poll();
+            if (payload != null) {
+                batch.add(payload);
+                batchBytes += payload.length;
+                continue;
+            }
+
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                break;
+            }
+            awaitEvents(remaining);
+        }
+    }
+
+    /**
+     * Sends a batch on a request thread once fewer than the maximum number of requests are in flight.
+     * Blocks the sender thread meanwhile, so events wait in the queue and form larger batches.
+     *
+     * @param events the events to send, owned by the request from now on
+     */
+    private void submit(List<byte[]> events) {
+        inFlight.acquireUninterruptibly();
+        track(events);
+        try {
+            requestExecutor.execute(() -> sendConcurrently(events));
+        } catch (RejectedExecutionException e) {
+            inFlight.release();
+            try {
+                sendBatch(events, compressor);
+            } finally {
+                untrack(events);
+            }
+        }
+    }
+
+    /**
+     * Sends a batch on a request thread with a pooled compressor and releases its permit.
+     *
+     * @param events the events to send
+     */
+    private void sendConcurrently(List<byte[]> events) {
+        PayloadCompressor requestCompressor = requestCompressors.poll();
+        if (requestCompressor == null) {
+            requestCompressor = PayloadCompressor.create(settings);
+        }
+        try {
+            sendBatch(events, requestCompressor);
+        } catch (Throwable t) {
+            Diagnostics.error("Failed to dispatch events", t);
+        } finally {
+            untrack(events);
+            if (requestCompressor != null) {
+                requestCompressors.offer(requestCompressor);
+            }
+            inFlight.release();
+        }
+    }
+
+    /**
+     * Records that a batch is being sent.
+     *
+     * @param events the batch, not modified until it is untracked
+     */
+    private void track(List<byte[]> events) {
+        synchronized (batchesInFlight) {
+            batchesInFlight.add(events);
+        }
+    }
+
+    /**
+     * Records that a batch has been sent or spooled.
+     *
+     * @param events the batch
+     */
+    private void untrack(List<byte[]> events) {
+        synchronized (batchesInFlight) {
+            batchesInFlight.remove(events);
+        }
+    }
+
+    /**
+     * Checks whether requests handed over to request threads are still running.
+     *
+     * @return true if a request is in flight
+     */
+    private boolean requestsInFlight() {
+        return inFlight != null && inFlight.availablePermits() < maxInFlightRequests;
+    }
+
+    /**
+     * Sends a batch, falling back to single-event requests if the collector rejects it.
+     *
+     * @param events     the events to send
+     * @param compressor the compressor owned by the calling thread, or null
+     */
+    private void sendBatch(List<byte[]> events, PayloadCompressor compressor) {
+        if (events.size() == 1) {
+            sender.send(events.get(0), compressor);
+            return;
+        }
+
+        int responseCode = sender.sendBatch(events, compressor);
+        if (!HawkHttpUtils.isRejected(responseCode)) {
+            return;
+        }
+
+        if (responseCode != 413 && batchingSupported) {
+            Diagnostics.info("Collector does not accept batches, switching to single-event delivery.");
+            batchingSupported = false;
+        }
+        for (byte[] payload : events) {
+            sender.send(payload, compressor);
+        }
+    }
+
+    /**
+     * Waits until every queued event has been sent or the deadline passes.
+     * Events queued while waiting are included.
+     *
+     * @param deadlineNanos the deadline, from {@link System#nanoTime()}
+     * @return true if the queue was drained before the deadline
+     */
+    boolean flush(long deadlineNanos) {
+        flushWaiters.incrementAndGet();
+        try {
+            while (!queue.isEmpty() || busy || requestsInFlight()) {
+                if (System.nanoTime() - deadlineNanos >= 0 || !senderThread.isAlive()) {
+                    return false;
+                }
+                LockSupport.unpark(senderThread);
+                LockSupport.parkNanos(this, FLUSH_PARK_NANOS);
+            }
+            return true;
+        } finally {
+            flushWaiters.decrementAndGet();
+        }
+    }
+
+    /**
+     * Stops the sender thread and sends the remaining events in parallel batches until the deadline.
+     * Events still queued at the deadline, and those of requests still running then, are stored in the
+     * spool, or dropped if it is disabled. A request that completes after the deadline may therefore
+     * deliver its events twice, in line with the spool's at-least-once delivery.
+     *
+     * @param deadlineNanos the deadline, from {@link System#nanoTime()}
+     * @param threads       the maximum number of threads sending the remaining events
+     */
+    void close(long deadlineNanos, int threads) {
+        running = false;
+        LockSupport.unpark(senderThread);
+        join(senderThread, deadlineNanos);
+        awaitRequests(deadlineNanos);
+
+        int pending = queue.size();
+        int workers = Math.min(threads, (pending + batchSize - 1) / batchSize);
+        List<Thread> flushThreads = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++) {
+            Thread thread = new Thread(() -> drainUntil(deadlineNanos), "hawk-flush-" + i);
+            thread.setDaemon(true);
+            thread.start();
+            flushThreads.add(thread);
+        }
+        for (Thread thread : flushThreads) {
+            join(thread, deadlineNanos);
+        }
+
+        List<byte[]> unsent = new ArrayList<>();
+        synchronized (batchesInFlight) {
+            for (List<byte[]> events : batchesInFlight) {
+                unsent.addAll(events);
+            }
+            batchesInFlight.clear();
+        }
+        for (byte[] payload = queue.poll(); payload != null; payload = queue.poll()) {
+            unsent.add(payload);
+        }
+
+        int spooled = 0;
+        int dropped = 0;
+        for (byte[] payload : unsent) {
+            if (sender.persist(payload)) {
+                spooled++;
+            } else {
+                dropped++;
+            }
+        }
+        droppedEvents.add(dropped);
+        if (spooled > 0 || dropped > 0) {
+            Diagnostics.warn("Shutdown deadline reached: {} events spooled, {} dropped.", spooled, dropped);
+        }
+    }
+
+    /**
+     * Waits for the requests in flight to finish, at most until the deadline, then stops the request
+     * threads and releases their compressors.
+     *
+     * @param deadlineNanos the deadline, from {@link System#nanoTime()}
+     */
+    private void awaitRequests(long deadlineNanos) {
+        if (inFlight == null) {
+            return;
+        }
+        long remaining = deadlineNanos - System.nanoTime();
+        try {
+            if (remaining > 0 && inFlight.tryAcquire(maxInFlightRequests, remaining, TimeUnit.NANOSECONDS)) {
+                inFlight.release(maxInFlightRequests);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (requestPool != null) {
+            requestPool.shutdown();
+        }
+        if (!requestsInFlight()) {
+            for (PayloadCompressor pooled = requestCompressors.poll(); pooled != null; pooled = requestCompressors.poll()) {
+                pooled.close();
+            }
+        }
+    }
+
+    /**
+     * Takes batches from the queue and sends them until the queue is empty or the deadline passes.
+     * Runs on the threads started by {@link #close(long, int)}.
+     *
+     * @param deadlineNanos the deadline, from {@link System#nanoTime()}
+     */
+    private void drainUntil(long deadlineNanos) {
+        List<byte[]> events = new ArrayList<>(batchSize);
+        try (PayloadCompressor compressor = PayloadCompressor.create(settings)) {
+            while (System.nanoTime() - deadlineNanos < 0) {
+                int limit = batchingSupported ? batchSize : 1;
+                int bytes = 0;
+                byte[] payload;
+                while (events.size() < limit && bytes < batchMaxBytes && (payload = queue.poll()) != null) {
+                    events.add(payload);
+                    bytes += payload.length;
+                }
+                if (events.isEmpty()) {
+                    return;
+                }
+                track(events);
+                try {
+                    sendBatch(events, compressor);
+                } finally {
+                    untrack(events);
+                }
+                events.clear();
+            }
+        } catch (Throwable t) {
+            Diagnostics.error("Failed to dispatch events on shutdown", t);
+        }
+    }
+
+    /**
+     * Waits for a thread to finish, at most until the deadline.
+     *
+     * @param thread        the thread
+     * @param deadlineNanos the deadline, from {@link System#nanoTime()}
+     */
+    private static void join(Thread thread, long deadlineNanos) {
+        long remaining = deadlineNanos - System.nanoTime();
+        if (remaining <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.timedJoin(thread, remaining);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Gets the number of events discarded because the queue was full.
+     *
+     * @return the number of dropped events
+     */
+    long getDroppedEvents() {
+        return droppedEvents.sum();
+    }
+
+    /**
+     * Gets the number of events waiting to be sent.
+     *
+     * @return the queue depth
+     */
+    int getQueueSize() {
+        return queue.size();
+    }
+}
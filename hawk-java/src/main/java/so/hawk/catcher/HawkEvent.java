@@ -0,0 +1,918 @@
+package so.hawk.catcher;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * Event about to be sent, passed to {@link EventProcessor}s.
+ * <p>
+ * The event is mutable and is serialized only after all processors have run. Its context and user
+ * start out as the pre-serialized snapshots shared by all events (the context merged with the thread's
+ * {@link ContextScope}) and are copied the first time a processor asks for them, so modifying them
+ * affects this event only. The backtrace and causes are built from the stack
+ * traces on first access; events nobody looks at are written straight from the stack traces.
+ * Causes and suppressed exceptions are sent as the {@code causes} addon, breadcrumbs as the
+ * {@code breadcrumbs} addon.
+ */
+public class HawkEvent {
+    /**
+     * Name of the addon holding causes and suppressed exceptions.
+     */
+    static final String CAUSES_ADDON = "causes";
+
+    /**
+     * Name of the addon holding breadcrumbs.
+     */
+    static final String BREADCRUMBS_ADDON = "breadcrumbs";
+
+    /**
+     * Reported exception or message.
+     */
+    private final Object source;
+
+    /**
+     * Event title.
+     */
+    private String title;
+
+    /**
+     * Exception type, or null for messages.
+     */
+    private String type;
+
+    /**
+     * Exception message, or null.
+     */
+    private String description;
+
+    /**
+     * Application release.
+     */
+    private String release;
+
+    /**
+     * Context data, or null while the shared context is used.
+     */
+    private JSONObject context;
+
+    /**
+     * Context shared with other events, used until the context is accessed.
+     */
+    private JsonSnapshot sharedContext = JsonSnapshot.EMPTY;
+
+    /**
+     * Thread context scope merged into the shared context, or null.
+     */
+    private ContextScope contextScope;
+
+    /**
+     * Whether the shared context and scope are still used instead of {@link #context}.
+     */
+    private boolean contextShared = true;
+
+    /**
+     * User information, or null.
+     */
+    private JSONObject user;
+
+    /**
+     * User information shared with other events, used until the user is accessed.
+     */
+    private JsonSnapshot sharedUser;
+
+    /**
+     * Whether {@link #sharedUser} is still used instead of {@link #user}.
+     */
+    private boolean userShared;
+
+    /**
+     * Additional data, created on first access.
+     */
+    private JSONObject addons;
+
+    /**
+     * Backtrace frames, or null until built or for messages.
+     */
+    private List<BacktraceFrame> backtrace;
+
+    /**
+     * Stack trace the backtrace is built from, null once the backtrace is built or replaced.
+     */
+    private StackTraceElement[] stackTrace;
+
+    /**
+     * Pending source snippets, one per stack trace element.
+     */
+    private List<CompletableFuture<List<SourceLine>>> snippets;
+
+    /**
+     * {@link System#nanoTime()} value after which snippets are no longer waited for.
+     */
+    private long snippetDeadline;
+
+    /**
+     * Causes and suppressed exceptions, or null until built or if there are none.
+     */
+    private List<ExceptionCause> causes;
+
+    /**
+     * Chain the causes are built from, null once the causes are built or replaced.
+     */
+    private List<ThrowableChain.Link> causeChain;
+
+    /**
+     * Breadcrumbs recorded before the event, or null if there are none.
+     */
+    private List<Breadcrumb> breadcrumbs;
+
+    /**
+     * Payload fields not modelled by this class, set by a beforeSend callback.
+     */
+    private Map<String, Object> otherFields;
+
+    /**
+     * Top-level fields next to the payload added by a beforeSend callback, or null if there are none.
+     */
+    private Map<String, Object> envelopeFields;
+
+    /**
+     * Creates an event.
+     *
+     * @param source the reported exception or message
+     * @param title  the event title
+     */
+    HawkEvent(Object source, String title) {
+        this.source = source;
+        this.title = title;
+    }
+
+    /**
+     * Sets the stack trace the backtrace is built from.
+     *
+     * @param stackTrace      the stack trace
+     * @param snippets        the pending source snippets, one per element
+     * @param snippetDeadline the time after which snippets are no longer waited for
+     */
+    void setStackTrace(StackTraceElement[] stackTrace, List<CompletableFuture<List<SourceLine>>> snippets,
+                       long snippetDeadline) {
+        this.stackTrace = stackTrace;
+        this.snippets = snippets;
+        this.snippetDeadline = snippetDeadline;
+    }
+
+    /**
+     * Checks whether source snippets of the stack trace or the causes are still being loaded.
+     *
+     * @return true if serializing the event may wait for snippets
+     */
+    boolean hasPendingSnippets() {
+        if (snippets != null && hasPending(snippets)) {
+            return true;
+        }
+        if (causeChain != null) {
+            for (ThrowableChain.Link link : causeChain) {
+                if (link.snippets != null && hasPending(link.snippets)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether any of the snippets is still being loaded.
+     *
+     * @param pending the snippets
+     * @return true if a snippet is not loaded yet
+     */
+    private static boolean hasPending(List<CompletableFuture<List<SourceLine>>> pending) {
+        for (int i = 0; i < pending.size(); i++) {
+            if (!pending.get(i).isDone()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Sets the chain of causes and suppressed exceptions the causes are built from. Their source
+     * snippets are waited for until the deadline given to {@link #setStackTrace}.
+     *
+     * @param causeChain the links, empty if there are none
+     */
+    void setCauseChain(List<ThrowableChain.Link> causeChain) {
+        this.causeChain = causeChain.isEmpty() ? null : causeChain;
+    }
+
+    /**
+     * Sets the shared context and the thread scope merged into it, copied on first access.
+     *
+     * @param context the shared context
+     * @param scope   the innermost thread scope, or null
+     */
+    void setSharedContext(JsonSnapshot context, ContextScope scope) {
+        this.context = null;
+        this.sharedContext = context;
+        this.contextScope = scope;
+        this.contextShared = true;
+    }
+
+    /**
+     * Sets the shared user, copied on first access.
+     *
+     * @param user the shared user, or null
+     */
+    void setSharedUser(JsonSnapshot user) {
+        this.user = null;
+        this.sharedUser = user;
+        this.userShared = user != null;
+    }
+
+    /**
+     * Gets the reported exception.
+     *
+     * @return the exception, or null if a message was reported
+     */
+    public Throwable getThrowable() {
+        return source instanceof Throwable ? (Throwable) source : null;
+    }
+
+    /**
+     * Gets the event title.
+     *
+     * @return the title
+     */
+    public String getTitle() {
+        return title;
+    }
+
+    /**
+     * Sets the event title.
+     *
+     * @param title the title
+     */
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    /**
+     * Gets the exception type.
+     *
+     * @return the type, or null for messages
+     */
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * Sets the exception type.
+     *
+     * @param type the type
+     */
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    /**
+     * Gets the exception message.
+     *
+     * @return the description, or null
+     */
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * Sets the exception message.
+     *
+     * @param description the description
+     */
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    /**
+     * Gets the application release.
+     *
+     * @return the release
+     */
+    public String getRelease() {
+        return release;
+    }
+
+    /**
+     * Sets the application release.
+     *
+     * @param release the release
+     */
+    public void setRelease(String release) {
+        this.release = release;
+    }
+
+    /**
+     * Gets the context data of this event.
+     *
+     * @return the context, which may be modified
+     */
+    public JSONObject getContext() {
+        if (contextShared) {
+            context = sharedContext.toJSONObject(contextScope);
+            contextShared = false;
+        }
+        return context;
+    }
+
+    /**
+     * Replaces the context data of this event.
+     *
+     * @param context the context
+     */
+    public void setContext(JSONObject context) {
+        this.context = context != null ? context : new JSONObject();
+        this.contextShared = false;
+    }
+
+    /**
+     * Gets the user information of this event.
+     *
+     * @return the user, which may be modified, or null
+     */
+    public JSONObject getUser() {
+        if (userShared) {
+            user = sharedUser.toJSONObject(null);
+            userShared = false;
+        }
+        return user;
+    }
+
+    /**
+     * Replaces the user information of this event.
+     *
+     * @param user the user, or null to omit it
+     */
+    public void setUser(JSONObject user) {
+        this.user = user;
+        this.userShared = false;
+    }
+
+    /**
+     * Gets the additional data of this event.
+     *
+     * @return the addons, which may be modified
+     */
+    public JSONObject getAddons() {
+        if (addons == null) {
+            addons = new JSONObject();
+        }
+        return addons;
+    }
+
+    /**
+     * Replaces the additional data of this event.
+     *
+     * @param addons the addons
+     */
+    public void setAddons(JSONObject addons) {
+        this.addons = addons;
+    }
+
+    /**
+     * Gets the backtrace, building it from the stack trace on first access.
+     * Frames whose source is not loaded by then are left without source code.
+     *
+     * @return the frames, which may be modified, or null for messages
+     */
+    public List<BacktraceFrame> getBacktrace() {
+        if (stackTrace != null) {
+            List<BacktraceFrame> frames = new ArrayList<>(stackTrace.length);
+            for (int i = 0; i < stackTrace.length; i++) {
+                StackTraceElement element = stackTrace[i];
+                frames.add(new BacktraceFrame(fileName(element), element.getLineNumber(), element.getMethodName(),
+                        SourceCodeLoader.await(snippets.get(i), snippetDeadline)));
+            }
+            backtrace = frames;
+            stackTrace = null;
+            snippets = null;
+        }
+        return backtrace;
+    }
+
+    /**
+     * Replaces the backtrace.
+     *
+     * @param backtrace the frames, or null to omit the backtrace
+     */
+    public void setBacktrace(List<BacktraceFrame> backtrace) {
+        this.backtrace = backtrace;
+        this.stackTrace = null;
+        this.snippets = null;
+    }
+
+    /**
+     * Gets the causes and suppressed exceptions in the order a printed stack trace lists them,
+     * building them on first access.
+     *
+     * @return the causes, which may be modified, or null if there are none
+     */
+    public List<ExceptionCause> getCauses() {
+        if (causeChain != null) {
+            List<ExceptionCause> built = new ArrayList<>(causeChain.size());
+            for (ThrowableChain.Link link : causeChain) {
+                List<BacktraceFrame> frames = new ArrayList<>(link.uniqueFrames);
+                for (int i = 0; i < link.uniqueFrames; i++) {
+                    StackTraceElement element = link.stackTrace[i];
+                    frames.add(new BacktraceFrame(fileName(element), element.getLineNumber(), element.getMethodName(),
+                            link.snippets != null ? SourceCodeLoader.await(link.snippets.get(i), snippetDeadline) : null));
+                }
+                Throwable throwable = link.throwable;
+                built.add(new ExceptionCause(throwable.toString(), throwable.getClass().getSimpleName(),
+                        throwable.getMessage(), link.suppressed, link.depth, frames, link.framesInCommon()));
+            }
+            causes = built;
+            causeChain = null;
+        }
+        return causes;
+    }
+
+    /**
+     * Replaces the causes and suppressed exceptions.
+     *
+     * @param causes the causes, or null to omit them
+     */
+    public void setCauses(List<ExceptionCause> causes) {
+        this.causes = causes;
+        this.causeChain = null;
+    }
+
+    /**
+     * Gets the breadcrumbs recorded before the event, oldest first.
+     *
+     * @return the breadcrumbs, which may be modified, or null if there are none
+     */
+    public List<Breadcrumb> getBreadcrumbs() {
+        return breadcrumbs;
+    }
+
+    /**
+     * Replaces the breadcrumbs.
+     *
+     * @param breadcrumbs the breadcrumbs, or null to omit them
+     */
+    public void setBreadcrumbs(List<Breadcrumb> breadcrumbs) {
+        this.breadcrumbs = breadcrumbs;
+    }
+
+    /**
+     * Serializes the constant start of every event: the token, the catcher type and the opening
+     * of the payload object.
+     *
+     * @param token       the integration token
+     * @param catcherType the catcher type
+     * @return the envelope prefix
+     */
+    static JsonWriter.Prefix envelope(String token, String catcherType) {
+        JsonWriter writer = new JsonWriter();
+        writer.beginObject();
+        writer.name("token").value(token);
+        writer.name("catcherType").value(catcherType);
+        writer.name("payload").beginObject();
+        return writer.toPrefix();
+    }
+
+    /**
+     * Writes the event as the collector expects it.
+     *
+     * @param writer   the writer
+     * @param envelope the envelope prefix, see {@link #envelope}
+     */
+    void writeTo(JsonWriter writer, JsonWriter.Prefix envelope) {
+        writer.prefix(envelope);
+
+        writer.name("title").value(title);
+        if (type != null) {
+            writer.name("type").value(type);
+        }
+        if (description != null) {
+            writer.name("description").value(description);
+        }
+        if (stackTrace != null) {
+            writer.name("backtrace");
+            writeStackTrace(writer);
+        } else if (backtrace != null) {
+            writer.name("backtrace");
+            writeBacktrace(writer);
+        }
+
+        writer.name("context");
+        if (contextShared) {
+            sharedContext.writeTo(writer, contextScope);
+        } else {
+            writer.value(context);
+        }
+        if (userShared) {
+            writer.name("user");
+            sharedUser.writeTo(writer, null);
+        } else if (user != null) {
+            writer.name("user").value(user);
+        }
+        writer.name("release").value(release);
+        writer.name("addons");
+        if (causeChain != null || causes != null || breadcrumbs != null) {
+            writer.beginObject();
+            if (addons != null) {
+                for (String key : addons.keySet()) {
+                    if (!CAUSES_ADDON.equals(key) && !BREADCRUMBS_ADDON.equals(key)) {
+                        writer.name(key).value(addons.opt(key));
+                    }
+                }
+            }
+            if (breadcrumbs != null) {
+                writer.name(BREADCRUMBS_ADDON);
+                writeBreadcrumbs(writer);
+            }
+            if (causeChain != null || causes != null) {
+                writer.name(CAUSES_ADDON);
+                writeCauses(writer);
+            }
+            writer.endObject();
+        } else if (addons != null) {
+            writer.value(addons);
+        } else {
+            writer.beginObject().endObject();
+        }
+        if (otherFields != null) {
+            for (Map.Entry<String, Object> field : otherFields.entrySet()) {
+                writer.name(field.getKey()).value(field.getValue());
+            }
+        }
+        writer.endObject();
+
+        if (envelopeFields != null) {
+            for (Map.Entry<String, Object> field : envelopeFields.entrySet()) {
+                writer.name(field.getKey()).value(field.getValue());
+            }
+        }
+        writer.endObject();
+    }
+
+    /**
+     * Writes frames straight from the stack trace, without building frame objects.
+     *
+     * @param writer the writer
+     */
+    private void writeStackTrace(JsonWriter writer) {
+        writer.beginArray();
+        for (int i = 0; i < stackTrace.length; i++) {
+            StackTraceElement element = stackTrace[i];
+            writeFrame(writer, fileName(element), element.getLineNumber(), 0, element.getMethodName(),
+                    SourceCodeLoader.await(snippets.get(i), snippetDeadline));
+        }
+        writer.endArray();
+    }
+
+    /**
+     * Writes the frames of a built or replaced backtrace.
+     *
+     * @param writer the writer
+     */
+    private void writeBacktrace(JsonWriter writer) {
+        writer.beginArray();
+        for (int i = 0; i < backtrace.size(); i++) {
+            BacktraceFrame frame = backtrace.get(i);
+            writeFrame(writer, frame.getFile(), frame.getLine(), frame.getColumn(), frame.getFunction(),
+                    frame.getSourceCode());
+        }
+        writer.endArray();
+    }
+
+    /**
+     * Writes the breadcrumbs.
+     *
+     * @param writer the writer
+     */
+    private void writeBreadcrumbs(JsonWriter writer) {
+        writer.beginArray();
+        for (int i = 0; i < breadcrumbs.size(); i++) {
+            Breadcrumb breadcrumb = breadcrumbs.get(i);
+            writer.beginObject();
+            writer.name("timestamp").value(breadcrumb.getTimestamp());
+            writer.name("category").value(breadcrumb.getCategory());
+            writer.name("level").value(breadcrumb.getLevel() != null
+                    ? breadcrumb.getLevel().name().toLowerCase(Locale.ROOT) : null);
+            writer.name("message").value(breadcrumb.getMessage());
+            writer.endObject();
+        }
+        writer.endArray();
+    }
+
+    /**
+     * Writes the causes, straight from the chain if they are not built.
+     *
+     * @param writer the writer
+     */
+    private void writeCauses(JsonWriter writer) {
+        writer.beginArray();
+        if (causeChain != null) {
+            for (ThrowableChain.Link link : causeChain) {
+                Throwable throwable = link.throwable;
+                writeCauseHeader(writer, throwable.toString(), throwable.getClass().getSimpleName(),
+                        throwable.getMessage(), link.suppressed, link.depth);
+                writer.name("backtrace").beginArray();
+                for (int i = 0; i < link.uniqueFrames; i++) {
+                    StackTraceElement element = link.stackTrace[i];
+                    writeFrame(writer, fileName(element), element.getLineNumber(), 0, element.getMethodName(),
+                            link.snippets != null ? SourceCodeLoader.await(link.snippets.get(i), snippetDeadline) : null);
+                }
+                writer.endArray();
+                writer.name("framesInCommon").value(link.framesInCommon());
+                writer.endObject();
+            }
+        } else {
+            for (int i = 0; i < causes.size(); i++) {
+                ExceptionCause cause = causes.get(i);
+                writeCauseHeader(writer, cause.getTitle(), cause.getType(), cause.getDescription(),
+                        cause.isSuppressed(), cause.getDepth());
+                writer.name("backtrace").beginArray();
+                List<BacktraceFrame> frames = cause.getBacktrace();
+                if (frames != null) {
+                    for (int j = 0; j < frames.size(); j++) {
+                        BacktraceFrame frame = frames.get(j);
+                        writeFrame(writer, frame.getFile(), frame.getLine(), frame.getColumn(), frame.getFunction(),
+                                frame.getSourceCode());
+                    }
+                }
+                writer.endArray();
+                writer.name("framesInCommon").value(cause.getFramesInCommon());
+                writer.endObject();
+            }
+        }
+        writer.endArray();
+    }
+
+    /**
+     * Opens a cause object and writes its fields other than the backtrace.
+     *
+     * @param writer      the writer
+     * @param title       the cause title
+     * @param type        the exception type
+     * @param description the exception message, or null
+     * @param suppressed  whether the exception was suppressed rather than a cause
+     * @param depth       the nesting level
+     */
+    private static void writeCauseHeader(JsonWriter writer, String title, String type, String description,
+                                         boolean suppressed, int depth) {
+        writer.beginObject();
+        writer.name("title").value(title);
+        writer.name("type").value(type);
+        if (description != null) {
+            writer.name("description").value(description);
+        }
+        writer.name("relation").value(suppressed ? "suppressed" : "cause");
+        writer.name("depth").value(depth);
+    }
+
+    /**
+     * Writes a single frame.
+     *
+     * @param writer     the writer
+     * @param file       the source file name
+     * @param line       the line number
+     * @param column     the column number
+     * @param function   the method name
+     * @param sourceCode the source lines, or null
+     */
+    private static void writeFrame(JsonWriter writer, String file, int line, int column, String function,
+                                   List<SourceLine> sourceCode) {
+        writer.beginObject();
+        writer.name("file").value(file);
+        writer.name("line").value(line);
+        writer.name("column").value(column);
+        if (function != null) {
+            writer.name("function").value(function);
+        }
+        if (sourceCode != null) {
+            writer.name("sourceCode").beginArray();
+            for (int j = 0; j < sourceCode.size(); j++) {
+                SourceLine sourceLine = sourceCode.get(j);
+                writer.beginObject();
+                writer.name("line").value(sourceLine.getLine());
+                writer.name("content").value(sourceLine.getContent());
+                writer.endObject();
+            }
+            writer.endArray();
+        }
+        writer.endObject();
+    }
+
+    /**
+     * Builds the JSONObject view of the event passed to a {@link BeforeSendCallback}.
+     *
+     * @param envelope the envelope prefix, see {@link #envelope}
+     * @return the event as JSON
+     */
+    JSONObject toJSONObject(JsonWriter.Prefix envelope) {
+        JsonWriter writer = JsonWriter.forCurrentThread();
+        writeTo(writer, envelope);
+        return new JSONObject(new String(writer.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Replaces the event data with the payload of a JSON event returned by a {@link BeforeSendCallback}.
+     * Payload and top-level fields that are not modelled are kept as they are; the token and catcher
+     * type cannot change.
+     *
+     * @param json the event as JSON
+     */
+    void updateFrom(JSONObject json) {
+        JSONObject payload = json.optJSONObject("payload");
+        if (payload == null) {
+            payload = new JSONObject();
+        }
+
+        title = stringOrNull(payload, "title");
+        type = stringOrNull(payload, "type");
+        description = stringOrNull(payload, "description");
+        release = stringOrNull(payload, "release");
+        setContext(payload.optJSONObject("context"));
+        setUser(payload.optJSONObject("user"));
+        addons = payload.optJSONObject("addons");
+        setBacktrace(readBacktrace(payload.optJSONArray("backtrace")));
+        setCauses(addons != null ? readCauses(addons.optJSONArray(CAUSES_ADDON)) : null);
+        setBreadcrumbs(addons != null ? readBreadcrumbs(addons.optJSONArray(BREADCRUMBS_ADDON)) : null);
+        if (addons != null) {
+            addons.remove(CAUSES_ADDON);
+            addons.remove(BREADCRUMBS_ADDON);
+        }
+
+        otherFields = null;
+        for (String key : payload.keySet()) {
+            if (!isModelled(key)) {
+                if (otherFields == null) {
+                    otherFields = new LinkedHashMap<>();
+                }
+                otherFields.put(key, payload.get(key));
+            }
+        }
+
+        envelopeFields = null;
+        for (String key : json.keySet()) {
+            if (!"token".equals(key) && !"catcherType".equals(key) && !"payload".equals(key)) {
+                if (envelopeFields == null) {
+                    envelopeFields = new LinkedHashMap<>();
+                }
+                envelopeFields.put(key, json.get(key));
+            }
+        }
+    }
+
+    /**
+     * Converts a JSON backtrace to frames.
+     *
+     * @param array the JSON backtrace, may be null
+     * @return the frames, or null if there is no backtrace
+     */
+    private static List<BacktraceFrame> readBacktrace(JSONArray array) {
+        if (array == null) {
+            return null;
+        }
+        List<BacktraceFrame> frames = new ArrayList<>(array.length());
+        for (int i = 0; i < array.length(); i++) {
+            JSONObject frame = array.optJSONObject(i);
+            if (frame == null) {
+                continue;
+            }
+            List<SourceLine> sourceCode = null;
+            JSONArray lines = frame.optJSONArray("sourceCode");
+            if (lines != null) {
+                sourceCode = new ArrayList<>(lines.length());
+                for (int j = 0; j < lines.length(); j++) {
+                    JSONObject line = lines.optJSONObject(j);
+                    if (line != null) {
+                        sourceCode.add(new SourceLine(line.optInt("line"), line.optString("content")));
+                    }
+                }
+                sourceCode = Collections.unmodifiableList(sourceCode);
+            }
+            BacktraceFrame converted = new BacktraceFrame(stringOrNull(frame, "file"), frame.optInt("line"),
+                    stringOrNull(frame, "function"), sourceCode);
+            converted.setColumn(frame.optInt("column"));
+            frames.add(converted);
+        }
+        return frames;
+    }
+
+    /**
+     * Converts the JSON causes addon to causes.
+     *
+     * @param array the JSON causes, may be null
+     * @return the causes, or null if there are none
+     */
+    private static List<ExceptionCause> readCauses(JSONArray array) {
+        if (array == null) {
+            return null;
+        }
+        List<ExceptionCause> causes = new ArrayList<>(array.length());
+        for (int i = 0; i < array.length(); i++) {
+            JSONObject cause = array.optJSONObject(i);
+            if (cause == null) {
+                continue;
+            }
+            List<BacktraceFrame> frames = readBacktrace(cause.optJSONArray("backtrace"));
+            causes.add(new ExceptionCause(stringOrNull(cause, "title"), stringOrNull(cause, "type"),
+                    stringOrNull(cause, "description"), "suppressed".equals(cause.optString("relation")),
+                    cause.optInt("depth"), frames != null ? frames : new ArrayList<>(),
+                    cause.optInt("framesInCommon")));
+        }
+        return causes;
+    }
+
+    /**
+     * Converts the JSON breadcrumbs addon to breadcrumbs.
+     *
+     * @param array the JSON breadcrumbs, may be null
+     * @return the breadcrumbs, or null if there are none
+     */
+    private static List<Breadcrumb> readBreadcrumbs(JSONArray array) {
+        if (array == null) {
+            return null;
+        }
+        List<Breadcrumb> breadcrumbs = new ArrayList<>(array.length());
+        for (int i = 0; i < array.length(); i++) {
+            JSONObject breadcrumb = array.optJSONObject(i);
+            if (breadcrumb == null) {
+                continue;
+            }
+            String level = stringOrNull(breadcrumb, "level");
+            breadcrumbs.add(new Breadcrumb(breadcrumb.optLong("timestamp"), stringOrNull(breadcrumb, "category"),
+                    level != null ? parseLevel(level) : null, stringOrNull(breadcrumb, "message")));
+        }
+        return breadcrumbs;
+    }
+
+    /**
+     * Parses a breadcrumb level written by {@link #writeBreadcrumbs}.
+     *
+     * @param level the level name
+     * @return the level, {@link BreadcrumbLevel#INFO} if unknown
+     */
+    private static BreadcrumbLevel parseLevel(String level) {
+        try {
+            return BreadcrumbLevel.valueOf(level.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return BreadcrumbLevel.INFO;
+        }
+    }
+
+    /**
+     * Checks whether a payload field is modelled by this class.
+     *
+     * @param key the field name
+     * @return true for modelled fields
+     */
+    private static boolean isModelled(String key) {
+        switch (key) {
+            case "title":
+            case "type":
+            case "description":
+            case "release":
+            case "context":
+            case "user":
+            case "addons":
+            case "backtrace":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Reads an optional string field.
+     *
+     * @param json the object
+     * @param key  the field name
+     * @return the value as a string, or null if absent
+     */
+    private static String stringOrNull(JSONObject json, String key) {
+        Object value = json.opt(key);
+        return value == null || JSONObject.NULL.equals(value) ? null : value.toString();
+    }
+
+    /**
+     * Gets the file name of a stack trace element.
+     *
+     * @param element the element
+     * @return the file name, or a placeholder if unknown
+     */
+    private static String fileName(StackTraceElement element) {
+        return element.getFileName() != null ? element.getFileName() : "Unknown file";
+    }
+}
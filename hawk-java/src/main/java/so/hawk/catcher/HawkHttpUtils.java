@@ -1,62 +1,106 @@
 package so.hawk.catcher;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.io.OutputStream;
-import java.net.HttpURLConnection;
-import java.net.URL;
+import java.util.List;
 
 public class HawkHttpUtils {
 
     /**
-     * Reads the server's response from the connection.
+     * Sends a POST request with the given UTF-8 encoded payload to the specified endpoint.
      *
-     * @param connection the HTTP connection
-     * @return the server's response as a string
+     * @param transport    the transport used to deliver the request
+     * @param endpointBase the endpoint URL
+     * @param body         the encoded JSON payload to send
+     * @param compressor   the compressor owned by the calling thread, or null to send the payload as is
+     * @return the HTTP response code, or -1 if the request could not be completed
      */
-    static String readResponse(HttpURLConnection connection) {
-      StringBuilder response = new StringBuilder();
-      try (BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream()))) {
-        String line;
-        while ((line = reader.readLine()) != null) {
-          response.append(line);
+    static int sendPostRequest(HawkTransport transport, String endpointBase, byte[] body,
+                               PayloadCompressor compressor) {
+        try {
+            HawkRequest request;
+            if (compressor != null && compressor.compress(body, 0, body.length)) {
+                request = new HawkRequest(endpointBase, compressor.buffer(), 0, compressor.length())
+                        .setHeader("Content-Encoding", "gzip");
+            } else {
+                request = new HawkRequest(endpointBase, body);
+            }
+
+            HawkResponse response = transport.send(request);
+
+            int responseCode = response.getStatusCode();
+            if (response.isSuccessful()) {
+                if (Diagnostics.isEnabled(DiagnosticsLevel.DEBUG)) {
+                    Diagnostics.debug("Data sent successfully!");
+                }
+            } else if (Diagnostics.isEnabled(DiagnosticsLevel.WARN)) {
+                Diagnostics.warn("Failed to log error. HTTP response code: {}", responseCode);
+            }
+            return responseCode;
+        } catch (Exception ex) {
+            Diagnostics.warn("Failed to send error: {}", ex.getMessage());
+            return -1;
         }
-      } catch (Exception e) {
-        return "Unable to read response.";
-      }
-      return response.toString();
     }
 
     /**
-     * Sends a POST request with the given payload to the specified endpoint.
+     * Sends several events in a single POST request as a JSON array.
      *
+     * @param transport    the transport used to deliver the request
      * @param endpointBase the endpoint URL
-     * @param payload      the JSON payload to send
+     * @param payloads     the UTF-8 encoded JSON payloads to send
+     * @param compressor   the compressor owned by the calling thread, or null to send the payload as is
+     * @return the HTTP response code, or -1 if the request could not be completed
      */
-    static void sendPostRequest(String endpointBase, String payload) {
-      try {
-        URL url = new URL(endpointBase);
-        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-        connection.setConnectTimeout(2000);
-        connection.setReadTimeout(2000);
-        connection.setRequestMethod("POST");
-        connection.setRequestProperty("Content-Type", "application/json");
-        connection.setDoOutput(true);
-
-        try (OutputStream os = connection.getOutputStream()) {
-          os.write(payload.getBytes());
-          os.flush();
+    static int sendBatchRequest(HawkTransport transport, String endpointBase, List<byte[]> payloads,
+                                PayloadCompressor compressor) {
+        int length = payloads.size() + 1;
+        for (byte[] payload : payloads) {
+            length += payload.length;
         }
 
-        int responseCode = connection.getResponseCode();
-        if (responseCode == HttpURLConnection.HTTP_OK) {
-          System.out.println("Data sent successfully!");
-        } else {
-          System.err.println("Failed to log error. HTTP response code: " + responseCode);
+        byte[] body = new byte[length];
+        int position = 0;
+        body[position++] = '[';
+        for (int i = 0; i < payloads.size(); i++) {
+            if (i > 0) {
+                body[position++] = ',';
+            }
+            byte[] payload = payloads.get(i);
+            System.arraycopy(payload, 0, body, position, payload.length);
+            position += payload.length;
         }
-      } catch (Exception ex) {
-        System.err.println("Failed to send error: " + ex.getMessage());
-        ex.printStackTrace();
-      }
+        body[position] = ']';
+
+        return sendPostRequest(transport, endpointBase, body, compressor);
+    }
+
+    /**
+     * Checks whether the response code means the collector refused the request itself,
+     * as opposed to failing to process it.
+     *
+     * @param responseCode the HTTP response code
+     * @return true for 4xx responses other than 429 Too Many Requests
+     */
+    static boolean isRejected(int responseCode) {
+            return responseCode >= 400 && responseCode < 500 && responseCode != 429;
+    }
+
+    /**
+     * Checks whether the collector accepted the request.
+     *
+     * @param responseCode the HTTP response code
+     * @return true for 2xx responses
+     */
+    static boolean isSuccessful(int responseCode) {
+            return responseCode >= 200 && responseCode < 300;
+    }
+
+    /**
+     * Checks whether the request failed for a reason that may go away, so the event is worth keeping.
+     *
+     * @param responseCode the HTTP response code, or -1 if the request could not be completed
+     * @return true for network errors, 429 and 5xx responses
+     */
+    static boolean isDeliveryFailure(int responseCode) {
+            return responseCode == -1 || responseCode == 429 || responseCode >= 500;
     }
 }
@@ -0,0 +1,54 @@
+package so.hawk.catcher;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and latency histograms of a Hawk instance. Updated on the reporting and sender threads
+ * without locks; read through {@link HawkMetricsSnapshot}.
+ */
+final class HawkMetrics {
+    /**
+     * Events composed from an exception or message.
+     */
+    final LongAdder eventsComposed = new LongAdder();
+
+    /**
+     * Events accepted by the collector, including replayed ones.
+     */
+    final LongAdder eventsSent = new LongAdder();
+
+    /**
+     * Events the collector did not accept, either rejected or not reachable.
+     */
+    final LongAdder eventsFailed = new LongAdder();
+
+    /**
+     * Occurrences collapsed by the deduplicator.
+     */
+    final LongAdder eventsDeduplicated = new LongAdder();
+
+    /**
+     * Events dropped by an event processor or the beforeSend callback.
+     */
+    final LongAdder eventsFiltered = new LongAdder();
+
+    /**
+     * Asynchronous reports discarded because the reporter queue was full.
+     */
+    final LongAdder reportsDropped = new LongAdder();
+
+    /**
+     * Time spent composing events.
+     */
+    final LatencyHistogram composeLatency = new LatencyHistogram();
+
+    /**
+     * Time spent running processors and serializing events.
+     */
+    final LatencyHistogram serializeLatency = new LatencyHistogram();
+
+    /**
+     * Duration of single HTTP requests to the collector, retries counted separately.
+     */
+    final LatencyHistogram httpRoundTrip = new LatencyHistogram();
+}
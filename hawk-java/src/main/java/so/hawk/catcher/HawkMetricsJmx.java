@@ -0,0 +1,143 @@
+package so.hawk.catcher;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.Supplier;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+/**
+ * Publishes metrics snapshots as an MXBean. Every attribute read takes a fresh snapshot.
+ */
+final class HawkMetricsJmx implements HawkMetricsMXBean {
+    /**
+     * Name the bean of the default client is registered under.
+     */
+    static final String OBJECT_NAME = "so.hawk.catcher:type=Metrics";
+
+    /**
+     * Source of snapshots.
+     */
+    private final Supplier<HawkMetricsSnapshot> snapshots;
+
+    /**
+     * Creates the bean.
+     *
+     * @param snapshots the source of snapshots
+     */
+    private HawkMetricsJmx(Supplier<HawkMetricsSnapshot> snapshots) {
+        this.snapshots = snapshots;
+    }
+
+    /**
+     * Registers the bean with the platform MBean server, replacing a previously registered one.
+     *
+     * @param clientName the name of the client, or null for the default client
+     * @param snapshots  the source of snapshots
+     */
+    static void register(String clientName, Supplier<HawkMetricsSnapshot> snapshots) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = objectName(clientName);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(new StandardMBean(new HawkMetricsJmx(snapshots), HawkMetricsMXBean.class, true), name);
+        } catch (JMException | RuntimeException e) {
+            Diagnostics.warn("Failed to register metrics MBean: {}", e.toString());
+        }
+    }
+
+    /**
+     * Removes the MBean, if it is registered.
+     *
+     * @param clientName the name of the client, or null for the default client
+     */
+    static void unregister(String clientName) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = objectName(clientName);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+        } catch (JMException | RuntimeException e) {
+            Diagnostics.warn("Failed to unregister metrics MBean: {}", e.toString());
+        }
+    }
+
+    /**
+     * Builds the name of the MBean of a client.
+     *
+     * @param clientName the name of the client, or null for the default client
+     * @return the MBean name
+     * @throws JMException if the name is malformed
+     */
+    private static ObjectName objectName(String clientName) throws JMException {
+        if (clientName == null) {
+            return new ObjectName(OBJECT_NAME);
+        }
+        return new ObjectName(OBJECT_NAME + ",name=" + ObjectName.quote(clientName));
+    }
+
+    @Override
+    public long getEventsComposed() {
+        return snapshots.get().getEventsComposed();
+    }
+
+    @Override
+    public long getEventsSent() {
+        return snapshots.get().getEventsSent();
+    }
+
+    @Override
+    public long getEventsFailed() {
+        return snapshots.get().getEventsFailed();
+    }
+
+    @Override
+    public long getEventsDropped() {
+        return snapshots.get().getEventsDropped();
+    }
+
+    @Override
+    public long getEventsDeduplicated() {
+        return snapshots.get().getEventsDeduplicated();
+    }
+
+    @Override
+    public long getEventsRateLimited() {
+        return snapshots.get().getEventsRateLimited();
+    }
+
+    @Override
+    public long getEventsFiltered() {
+        return snapshots.get().getEventsFiltered();
+    }
+
+    @Override
+    public long getQueueDepth() {
+        return snapshots.get().getQueueDepth();
+    }
+
+    @Override
+    public long getSpoolSizeBytes() {
+        return snapshots.get().getSpoolSizeBytes();
+    }
+
+    @Override
+    public HistogramSnapshot getComposeLatency() {
+        return snapshots.get().getComposeLatency();
+    }
+
+    @Override
+    public HistogramSnapshot getSerializeLatency() {
+        return snapshots.get().getSerializeLatency();
+    }
+
+    @Override
+    public HistogramSnapshot getHttpRoundTrip() {
+        return snapshots.get().getHttpRoundTrip();
+    }
+}
@@ -0,0 +1,91 @@
+package so.hawk.catcher;
+
+/**
+ * JMX view of the catcher's metrics, registered as {@code so.hawk.catcher:type=Metrics}.
+ * Latencies are exposed as composite values with count, mean, percentiles and maximum in nanoseconds.
+ */
+public interface HawkMetricsMXBean {
+    /**
+     * Gets the number of events composed.
+     *
+     * @return the count
+     */
+    long getEventsComposed();
+
+    /**
+     * Gets the number of events accepted by the collector.
+     *
+     * @return the count
+     */
+    long getEventsSent();
+
+    /**
+     * Gets the number of events not accepted by the collector.
+     *
+     * @return the count
+     */
+    long getEventsFailed();
+
+    /**
+     * Gets the number of events discarded because the queue or spool was full.
+     *
+     * @return the count
+     */
+    long getEventsDropped();
+
+    /**
+     * Gets the number of occurrences collapsed by the deduplicator.
+     *
+     * @return the count
+     */
+    long getEventsDeduplicated();
+
+    /**
+     * Gets the number of events rejected by sampling or rate limits.
+     *
+     * @return the count
+     */
+    long getEventsRateLimited();
+
+    /**
+     * Gets the number of events dropped by processors.
+     *
+     * @return the count
+     */
+    long getEventsFiltered();
+
+    /**
+     * Gets the number of events waiting in the dispatch queue.
+     *
+     * @return the queue depth
+     */
+    long getQueueDepth();
+
+    /**
+     * Gets the disk space used by the spool.
+     *
+     * @return the size in bytes
+     */
+    long getSpoolSizeBytes();
+
+    /**
+     * Gets the time spent composing events.
+     *
+     * @return the latency summary
+     */
+    HistogramSnapshot getComposeLatency();
+
+    /**
+     * Gets the time spent processing and serializing events.
+     *
+     * @return the latency summary
+     */
+    HistogramSnapshot getSerializeLatency();
+
+    /**
+     * Gets the duration of HTTP requests to the collector.
+     *
+     * @return the latency summary
+     */
+    HistogramSnapshot getHttpRoundTrip();
+}
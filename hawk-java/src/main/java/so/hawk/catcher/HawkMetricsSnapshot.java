@@ -0,0 +1,210 @@
+package so.hawk.catcher;
+
+/**
+ * Point-in-time view of the catcher's own metrics, returned by {@link Hawk#getMetrics()}.
+ * Counters are totals since initialization.
+ */
+public class HawkMetricsSnapshot {
+    /**
+     * Events composed from an exception or message.
+     */
+    private final long eventsComposed;
+
+    /**
+     * Events accepted by the collector.
+     */
+    private final long eventsSent;
+
+    /**
+     * Events the collector did not accept.
+     */
+    private final long eventsFailed;
+
+    /**
+     * Events discarded because the dispatch queue or the spool was full.
+     */
+    private final long eventsDropped;
+
+    /**
+     * Occurrences collapsed by the deduplicator.
+     */
+    private final long eventsDeduplicated;
+
+    /**
+     * Events rejected by sampling or rate limits.
+     */
+    private final long eventsRateLimited;
+
+    /**
+     * Events dropped by an event processor or the beforeSend callback.
+     */
+    private final long eventsFiltered;
+
+    /**
+     * Events waiting in the dispatch queue.
+     */
+    private final long queueDepth;
+
+    /**
+     * Disk space used by the spool, in bytes.
+     */
+    private final long spoolSizeBytes;
+
+    /**
+     * Time spent composing events.
+     */
+    private final HistogramSnapshot composeLatency;
+
+    /**
+     * Time spent running processors and serializing events.
+     */
+    private final HistogramSnapshot serializeLatency;
+
+    /**
+     * Duration of HTTP requests to the collector.
+     */
+    private final HistogramSnapshot httpRoundTrip;
+
+    /**
+     * Creates a snapshot.
+     *
+     * @param eventsComposed     events composed
+     * @param eventsSent         events accepted by the collector
+     * @param eventsFailed       events not accepted by the collector
+     * @param eventsDropped      events discarded by a full queue or spool
+     * @param eventsDeduplicated occurrences collapsed by the deduplicator
+     * @param eventsRateLimited  events rejected by sampling or rate limits
+     * @param eventsFiltered     events dropped by processors
+     * @param queueDepth         events waiting in the dispatch queue
+     * @param spoolSizeBytes     disk space used by the spool
+     * @param composeLatency     time spent composing events
+     * @param serializeLatency   time spent processing and serializing events
+     * @param httpRoundTrip      duration of HTTP requests
+     */
+    HawkMetricsSnapshot(long eventsComposed, long eventsSent, long eventsFailed, long eventsDropped,
+                        long eventsDeduplicated, long eventsRateLimited, long eventsFiltered, long queueDepth,
+                        long spoolSizeBytes, HistogramSnapshot composeLatency, HistogramSnapshot serializeLatency,
+                        HistogramSnapshot httpRoundTrip) {
+        this.eventsComposed = eventsComposed;
+        this.eventsSent = eventsSent;
+        this.eventsFailed = eventsFailed;
+        this.eventsDropped = eventsDropped;
+        this.eventsDeduplicated = eventsDeduplicated;
+        this.eventsRateLimited = eventsRateLimited;
+        this.eventsFiltered = eventsFiltered;
+        this.queueDepth = queueDepth;
+        this.spoolSizeBytes = spoolSizeBytes;
+        this.composeLatency = composeLatency;
+        this.serializeLatency = serializeLatency;
+        this.httpRoundTrip = httpRoundTrip;
+    }
+
+    /**
+     * Gets the number of events composed from an exception or message.
+     *
+     * @return the count
+     */
+    public long getEventsComposed() {
+        return eventsComposed;
+    }
+
+    /**
+     * Gets the number of events accepted by the collector, including replayed ones.
+     *
+     * @return the count
+     */
+    public long getEventsSent() {
+        return eventsSent;
+    }
+
+    /**
+     * Gets the number of events the collector rejected or could not be reached for.
+     * Spooled events are counted again as sent once replayed.
+     *
+     * @return the count
+     */
+    public long getEventsFailed() {
+        return eventsFailed;
+    }
+
+    /**
+     * Gets the number of events discarded because the dispatch queue or the spool was full.
+     *
+     * @return the count
+     */
+    public long getEventsDropped() {
+        return eventsDropped;
+    }
+
+    /**
+     * Gets the number of occurrences collapsed by the deduplicator.
+     *
+     * @return the count
+     */
+    public long getEventsDeduplicated() {
+        return eventsDeduplicated;
+    }
+
+    /**
+     * Gets the number of events rejected by sampling or rate limits.
+     *
+     * @return the count
+     */
+    public long getEventsRateLimited() {
+        return eventsRateLimited;
+    }
+
+    /**
+     * Gets the number of events dropped by an event processor or the beforeSend callback.
+     *
+     * @return the count
+     */
+    public long getEventsFiltered() {
+        return eventsFiltered;
+    }
+
+    /**
+     * Gets the number of events waiting in the dispatch queue.
+     *
+     * @return the queue depth, 0 in synchronous mode
+     */
+    public long getQueueDepth() {
+        return queueDepth;
+    }
+
+    /**
+     * Gets the disk space used by the spool.
+     *
+     * @return the size in bytes, 0 if spooling is disabled
+     */
+    public long getSpoolSizeBytes() {
+        return spoolSizeBytes;
+    }
+
+    /**
+     * Gets the time spent composing events.
+     *
+     * @return the latency summary
+     */
+    public HistogramSnapshot getComposeLatency() {
+        return composeLatency;
+    }
+
+    /**
+     * Gets the time spent running event processors and serializing events.
+     *
+     * @return the latency summary
+     */
+    public HistogramSnapshot getSerializeLatency() {
+        return serializeLatency;
+    }
+
+    /**
+     * Gets the duration of single HTTP requests to the collector; each retry is a separate request.
+     *
+     * @return the latency summary
+     */
+    public HistogramSnapshot getHttpRoundTrip() {
+        return httpRoundTrip;
+    }
+}
@@ -0,0 +1,117 @@
+package so.hawk.catcher;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * HTTP request to the collector built by the catcher and executed by a {@link HawkTransport}.
+ */
+public class HawkRequest {
+    /**
+     * Collector URL.
+     */
+    private final String endpoint;
+
+    /**
+     * Array holding the request body.
+     */
+    private final byte[] body;
+
+    /**
+     * Offset of the body in the array.
+     */
+    private final int offset;
+
+    /**
+     * Length of the body.
+     */
+    private final int length;
+
+    /**
+     * Request headers besides Content-Type.
+     */
+    private final Map<String, String> headers = new LinkedHashMap<>();
+
+    /**
+     * Creates a request with a JSON body stored in a slice of the given array.
+     *
+     * @param endpoint the collector URL
+     * @param body     the array holding the body
+     * @param offset   the offset of the body in the array
+     * @param length   the length of the body
+     */
+    public HawkRequest(String endpoint, byte[] body, int offset, int length) {
+        this.endpoint = endpoint;
+        this.body = body;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    /**
+     * Creates a request with a JSON body occupying the whole array.
+     *
+     * @param endpoint the collector URL
+     * @param body     the body
+     */
+    public HawkRequest(String endpoint, byte[] body) {
+        this(endpoint, body, 0, body.length);
+    }
+
+    /**
+     * Sets a request header.
+     *
+     * @param name  the header name
+     * @param value the header value
+     * @return the HawkRequest instance
+     */
+    public HawkRequest setHeader(String name, String value) {
+        headers.put(name, value);
+        return this;
+    }
+
+    /**
+     * Gets the collector URL.
+     *
+     * @return the endpoint
+     */
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    /**
+     * Gets the array holding the request body.
+     *
+     * @return the body array
+     */
+    public byte[] getBody() {
+        return body;
+    }
+
+    /**
+     * Gets the offset of the body in the array.
+     *
+     * @return the body offset
+     */
+    public int getOffset() {
+        return offset;
+    }
+
+    /**
+     * Gets the length of the body.
+     *
+     * @return the body length
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * Gets the request headers besides Content-Type.
+     *
+     * @return the headers
+     */
+    public Map<String, String> getHeaders() {
+        return Collections.unmodifiableMap(headers);
+    }
+}
@@ -0,0 +1,59 @@
+package so.hawk.catcher;
+
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Collector response returned by a {@link HawkTransport}.
+ */
+public class HawkResponse {
+    /**
+     * HTTP status code.
+     */
+    private final int statusCode;
+
+    /**
+     * Response headers with lower-case names.
+     */
+    private final Map<String, String> headers;
+
+    /**
+     * Creates a response.
+     *
+     * @param statusCode the HTTP status code
+     * @param headers    the response headers with lower-case names
+     */
+    public HawkResponse(int statusCode, Map<String, String> headers) {
+        this.statusCode = statusCode;
+        this.headers = headers != null ? headers : Collections.<String, String>emptyMap();
+    }
+
+    /**
+     * Gets the HTTP status code.
+     *
+     * @return the status code
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * Gets a response header.
+     *
+     * @param name the header name, case-insensitive
+     * @return the header value or null if it is absent
+     */
+    public String getHeader(String name) {
+        return headers.get(name.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Checks whether the collector accepted the request.
+     *
+     * @return true for 2xx responses
+     */
+    public boolean isSuccessful() {
+        return statusCode >= 200 && statusCode < 300;
+    }
+}
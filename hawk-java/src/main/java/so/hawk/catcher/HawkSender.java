@@ -0,0 +1,205 @@
+package so.hawk.catcher;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Delivers events to the collector and keeps the ones that could not be delivered in the spool.
+ * <p>
+ * Spooled events are replayed on a background thread at startup and after the next successful delivery,
+ * i.e. once the collector is reachable again.
+ */
+class HawkSender {
+    /**
+     * Endpoint the events are delivered to.
+     */
+    private final String endpointBase;
+
+    /**
+     * Transport used to deliver events.
+     */
+    private final HawkTransport transport;
+
+    /**
+     * Configuration settings, used to create compressors for the replay thread.
+     */
+    private final HawkSettings settings;
+
+    /**
+     * Storage for undelivered events, or null if spooling is disabled.
+     */
+    private final EventSpool spool;
+
+    /**
+     * Counts delivered and failed events.
+     */
+    private final HawkMetrics metrics;
+
+    /**
+     * Thread replaying the spool, or null if spooling is disabled.
+     */
+    private final ExecutorService replayExecutor;
+
+    /**
+     * Set while a replay is scheduled or running.
+     */
+    private final AtomicBoolean replayScheduled = new AtomicBoolean();
+
+    /**
+     * Creates a sender and starts replaying events left in the spool by previous runs.
+     *
+     * @param endpointBase the endpoint the events are delivered to
+     * @param transport    the transport used to deliver events
+     * @param settings     the configuration settings
+     * @param metrics      the metrics counting delivered and failed events
+     */
+    HawkSender(String endpointBase, HawkTransport transport, HawkSettings settings, HawkMetrics metrics) {
+        this.endpointBase = endpointBase;
+        this.transport = transport;
+        this.settings = settings;
+        this.metrics = metrics;
+        this.spool = EventSpool.create(settings);
+
+        if (spool != null) {
+            this.replayExecutor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "hawk-spool-replay");
+                thread.setDaemon(true);
+                return thread;
+            });
+            if (spool.hasPending()) {
+                scheduleReplay();
+            }
+        } else {
+            this.replayExecutor = null;
+        }
+    }
+
+    /**
+     * Sends a single event, spooling it if the collector cannot be reached.
+     *
+     * @param body       the UTF-8 encoded JSON payload to send
+     * @param compressor the compressor owned by the calling thread, or null
+     * @return the HTTP response code, or -1 if the request could not be completed
+     */
+    int send(byte[] body, PayloadCompressor compressor) {
+        int responseCode = HawkHttpUtils.sendPostRequest(transport, endpointBase, body, compressor);
+
+        if (HawkHttpUtils.isSuccessful(responseCode)) {
+            metrics.eventsSent.increment();
+            onDelivered();
+        } else {
+            metrics.eventsFailed.increment();
+            if (HawkHttpUtils.isDeliveryFailure(responseCode)) {
+                persist(body);
+            }
+        }
+        return responseCode;
+    }
+
+    /**
+     * Sends several events in one request, spooling them if the collector cannot be reached.
+     * Rejected batches are not spooled: the caller is expected to resend their events one by one.
+     *
+     * @param payloads   the UTF-8 encoded JSON payloads to send
+     * @param compressor the compressor owned by the calling thread, or null
+     * @return the HTTP response code, or -1 if the request could not be completed
+     */
+    int sendBatch(List<byte[]> payloads, PayloadCompressor compressor) {
+        int responseCode = HawkHttpUtils.sendBatchRequest(transport, endpointBase, payloads, compressor);
+
+        if (HawkHttpUtils.isDeliveryFailure(responseCode)) {
+            metrics.eventsFailed.add(payloads.size());
+            for (byte[] payload : payloads) {
+                persist(payload);
+            }
+        } else if (HawkHttpUtils.isSuccessful(responseCode)) {
+            metrics.eventsSent.add(payloads.size());
+            onDelivered();
+        }
+        return responseCode;
+    }
+
+    /**
+     * Stores an undelivered event in the spool, if it is enabled.
+     *
+     * @param body the encoded event
+     * @return true if the event was stored
+     */
+    boolean persist(byte[] body) {
+        return spool != null && spool.append(body, 0, body.length);
+    }
+
+    /**
+     * Starts replaying the spool once the collector has accepted an event.
+     */
+    private void onDelivered() {
+        if (spool != null && spool.hasPending()) {
+            scheduleReplay();
+        }
+    }
+
+    /**
+     * Submits a replay unless one is already scheduled or running.
+     */
+    private void scheduleReplay() {
+        if (!replayScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            replayExecutor.execute(this::replay);
+        } catch (RejectedExecutionException e) {
+            replayScheduled.set(false);
+        }
+    }
+
+    /**
+     * Delivers spooled events until the spool is empty or the collector fails again.
+     */
+    private void replay() {
+        try (PayloadCompressor compressor = PayloadCompressor.create(settings)) {
+            int delivered = spool.replay(body -> HawkHttpUtils.isSuccessful(
+                    HawkHttpUtils.sendPostRequest(transport, endpointBase, body, compressor)));
+            metrics.eventsSent.add(delivered);
+            if (delivered > 0) {
+                Diagnostics.info("Delivered {} spooled events.", delivered);
+            }
+        } finally {
+            replayScheduled.set(false);
+        }
+    }
+
+    /**
+     * Gets the number of events lost by the spool because it was full.
+     *
+     * @return the number of dropped events, 0 if spooling is disabled
+     */
+    long getSpoolDroppedEvents() {
+        return spool != null ? spool.getDroppedRecords() : 0;
+    }
+
+    /**
+     * Gets the disk space used by the spool.
+     *
+     * @return the size in bytes, 0 if spooling is disabled
+     */
+    long getSpoolSizeBytes() {
+        return spool != null ? spool.getSizeBytes() : 0;
+    }
+
+    /**
+     * Stops replaying the spool, forces spooled events to disk, unlocks the spool directory
+     * and releases the transport.
+     */
+    void close() {
+        if (replayExecutor != null) {
+            replayExecutor.shutdownNow();
+        }
+        if (spool != null) {
+            spool.close();
+        }
+        transport.close();
+    }
+}
@@ -1,5 +1,10 @@
 package so.hawk.catcher;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
 import org.json.JSONObject;
 
 /**
@@ -21,11 +26,271 @@ public class HawkSettings {
      */
     private BeforeSendCallback beforeSend;
 
+    /**
+     * Processors applied to events before sending, in order.
+     */
+    private final List<EventProcessor> eventProcessors = new ArrayList<>();
+
     /**
      * User information related to errors.
      */
     private JSONObject user;
 
+    /**
+     * Whether events are delivered by a background thread instead of the calling one.
+     */
+    private boolean async = false;
+
+    /**
+     * Maximum number of events waiting to be sent in asynchronous mode.
+     */
+    private int queueCapacity = 1024;
+
+    /**
+     * What to do when the queue is full.
+     */
+    private OverflowPolicy overflowPolicy = OverflowPolicy.DROP_NEWEST;
+
+    /**
+     * Maximum time in milliseconds to wait for free space under {@link OverflowPolicy#BLOCK}.
+     */
+    private long enqueueTimeoutMillis = 100;
+
+    /**
+     * Custom collector endpoint, or null to derive it from the token.
+     */
+    private String endpoint;
+
+    /**
+     * Maximum number of events sent in one request. 1 disables batching.
+     */
+    private int batchSize = 1;
+
+    /**
+     * Maximum total size of events in one batch, in characters.
+     */
+    private int batchMaxBytes = 512 * 1024;
+
+    /**
+     * How long the dispatcher waits for more events before sending an incomplete batch.
+     */
+    private long batchLingerMillis = 200;
+
+    /**
+     * Maximum number of requests the dispatcher sends concurrently.
+     */
+    private int maxInFlightRequests = 1;
+
+    /**
+     * Whether the dispatcher sends requests on virtual threads when the JVM supports them.
+     */
+    private boolean virtualThreadsEnabled = false;
+
+    /**
+     * Custom transport, or null to use the built-in one.
+     */
+    private HawkTransport transport;
+
+    /**
+     * Maximum number of pooled connections to the collector.
+     */
+    private int maxConnections = 4;
+
+    /**
+     * Connect timeout in milliseconds.
+     */
+    private long connectTimeoutMillis = 2000;
+
+    /**
+     * Timeout for a single request in milliseconds.
+     */
+    private long requestTimeoutMillis = 2000;
+
+    /**
+     * Whether request bodies are gzip-compressed.
+     */
+    private boolean compressionEnabled = false;
+
+    /**
+     * Deflate level used for compression.
+     */
+    private int compressionLevel = 6;
+
+    /**
+     * Bodies smaller than this are sent uncompressed.
+     */
+    private int compressionMinBytes = 1024;
+
+    /**
+     * Directory for the spool of undelivered events, or null to disable spooling.
+     */
+    private String spoolDirectory;
+
+    /**
+     * Maximum total size of spool files.
+     */
+    private long spoolMaxBytes = 64L * 1024 * 1024;
+
+    /**
+     * Size of each spool segment file.
+     */
+    private int spoolSegmentBytes = 4 * 1024 * 1024;
+
+    /**
+     * Whether every spooled event is forced to disk.
+     */
+    private boolean spoolSyncWrites = false;
+
+    /**
+     * Maximum number of delivery attempts per request, or 0 for the default of the delivery mode.
+     */
+    private int maxAttempts;
+
+    /**
+     * Upper bound of the delay before the first retry.
+     */
+    private long retryInitialDelayMillis = 200;
+
+    /**
+     * Upper bound of any retry delay.
+     */
+    private long retryMaxDelayMillis = 5000;
+
+    /**
+     * Number of consecutive failures that opens the circuit breaker.
+     */
+    private int circuitBreakerFailureThreshold = 5;
+
+    /**
+     * How long the circuit breaker stays open before a probe request.
+     */
+    private long circuitBreakerOpenMillis = 30000;
+
+    /**
+     * Longest time the circuit breaker stays open when the collector asks to retry later.
+     */
+    private long circuitBreakerMaxOpenMillis = 600000;
+
+    /**
+     * Deduplication window in milliseconds, 0 disables deduplication.
+     */
+    private long dedupWindowMillis = 0;
+
+    /**
+     * Maximum number of error fingerprints tracked by deduplication.
+     */
+    private int dedupMaxEntries = 1024;
+
+    /**
+     * Number of top stack frames included in the error fingerprint.
+     */
+    private int fingerprintFrames = 5;
+
+    /**
+     * Maximum nesting level of causes and suppressed exceptions sent with an event.
+     */
+    private int maxCauseDepth = 8;
+
+    /**
+     * Number of breadcrumbs kept for all threads together.
+     */
+    private int breadcrumbsCapacity = 50;
+
+    /**
+     * Number of breadcrumbs kept for each thread.
+     */
+    private int threadBreadcrumbsCapacity = 20;
+
+    /**
+     * Fraction of events that are reported.
+     */
+    private double sampleRate = 1.0;
+
+    /**
+     * Maximum events per second for all errors together, 0 for no limit.
+     */
+    private double rateLimit = 0;
+
+    /**
+     * Maximum events per second for each exception type, 0 for no limit.
+     */
+    private double rateLimitPerType = 0;
+
+    /**
+     * Maximum events per second for each distinct error, 0 for no limit.
+     */
+    private double rateLimitPerFingerprint = 0;
+
+    /**
+     * Number of events allowed at once above the sustained rate.
+     */
+    private int rateLimitBurst = 10;
+
+    /**
+     * Maximum number of exception types or errors tracked by per-key limits.
+     */
+    private int rateLimitMaxKeys = 1024;
+
+    /**
+     * Maximum number of cached source files and of cached source snippets.
+     */
+    private int sourceCacheSize = 512;
+
+    /**
+     * Directories searched for source files, relative to the working directory unless absolute.
+     */
+    private List<String> sourceRoots = Arrays.asList("src/main/java", "src");
+
+    /**
+     * Whether sources are also looked up in -sources.jar files on the class path.
+     */
+    private boolean sourceJarsEnabled = true;
+
+    /**
+     * Maximum time an event waits for source snippets, in milliseconds.
+     */
+    private long sourceResolveTimeoutMillis = 50;
+
+    /**
+     * Verbosity of the catcher's own diagnostics messages.
+     */
+    private DiagnosticsLevel diagnosticsLevel = DiagnosticsLevel.OFF;
+
+    /**
+     * Maximum number of diagnostics messages per second.
+     */
+    private int diagnosticsRateLimit = 20;
+
+    /**
+     * Whether diagnostics messages go to SLF4J when it is on the class path.
+     */
+    private boolean diagnosticsSlf4jEnabled = true;
+
+    /**
+     * Whether metrics are published as a JMX MBean.
+     */
+    private boolean jmxEnabled = true;
+
+    /**
+     * Name of the client, used in its MBean name, or null for the default client.
+     */
+    private String name;
+
+    /**
+     * Time allowed for delivering queued events on close.
+     */
+    private long shutdownTimeoutMillis = 2000;
+
+    /**
+     * Number of threads delivering queued events on close.
+     */
+    private int shutdownFlushThreads = 2;
+
+    /**
+     * Whether Hawk is closed by a JVM shutdown hook.
+     */
+    private boolean shutdownHookEnabled = true;
+
     /**
      * Constructor with mandatory token.
      *
@@ -49,7 +314,8 @@ public class HawkSettings {
     }
 
     /**
-     * Sets a key-value pair in the context JSON object.
+     * Sets a key-value pair in the context JSON object. The context is copied into an immutable
+     * snapshot when Hawk is initialized; use {@link Hawk#setContext} to change it afterwards.
      *
      * @param key   the key to set
      * @param value the value to set
@@ -72,7 +338,23 @@ public class HawkSettings {
     }
 
     /**
-     * Sets user information.
+     * Adds a processor applied to events before sending. Processors run in the order they are added,
+     * followed by the beforeSend callback.
+     *
+     * @param processor the processor
+     * @return the HawkSettings instance
+     */
+    public HawkSettings addEventProcessor(EventProcessor processor) {
+        if (processor == null) {
+            throw new IllegalArgumentException("Event processor must not be null.");
+        }
+        this.eventProcessors.add(processor);
+        return this;
+    }
+
+    /**
+     * Sets user information. Like the context, it is copied when Hawk is initialized;
+     * use {@link Hawk#setUser} to change it afterwards.
      *
      * @param key   the key to set
      * @param value the value to set
@@ -84,38 +366,1223 @@ public class HawkSettings {
     }
 
     /**
-     * Gets the authentication token.
+     * Enables or disables asynchronous delivery through a bounded queue and a background sender thread.
      *
-     * @return the token
+     * @param async true to send events in the background
+     * @return the HawkSettings instance
      */
-    public String getToken() {
-        return token;
+    public HawkSettings setAsync(boolean async) {
+        this.async = async;
+        return this;
     }
 
     /**
-     * Gets the context data.
+     * Sets the maximum number of events waiting to be sent in asynchronous mode.
      *
-     * @return the context
+     * @param queueCapacity the queue capacity
+     * @return the HawkSettings instance
      */
-    public JSONObject getContext() {
-        return context;
+    public HawkSettings setQueueCapacity(int queueCapacity) {
+        if (queueCapacity <= 0) {
+            throw new IllegalArgumentException("Queue capacity must be positive.");
+        }
+        this.queueCapacity = queueCapacity;
+        return this;
     }
 
     /**
-     * Gets the beforeSend callback.
+     * Sets what to do when the queue is full.
      *
-     * @return the beforeSend callback
+     * @param overflowPolicy the overflow policy
+     * @return the HawkSettings instance
      */
-    public BeforeSendCallback getBeforeSend() {
-        return beforeSend;
+    public HawkSettings setOverflowPolicy(OverflowPolicy overflowPolicy) {
+        if (overflowPolicy == null) {
+            throw new IllegalArgumentException("Overflow policy must not be null.");
+        }
+        this.overflowPolicy = overflowPolicy;
+        return this;
     }
 
     /**
-     * Gets the user information.
+     * Sets how long to wait for free space under {@link OverflowPolicy#BLOCK}.
      *
-     * @return the user information
+     * @param enqueueTimeoutMillis the timeout in milliseconds
+     * @return the HawkSettings instance
      */
-    public JSONObject getUser() {
-        return user;
+    public HawkSettings setEnqueueTimeoutMillis(long enqueueTimeoutMillis) {
+        if (enqueueTimeoutMillis < 0) {
+            throw new IllegalArgumentException("Enqueue timeout must not be negative.");
+        }
+        this.enqueueTimeoutMillis = enqueueTimeoutMillis;
+        return this;
+    }
+
+    /**
+     * Overrides the collector endpoint derived from the token, e.g. to use a self-hosted or local collector.
+     *
+     * @param endpoint the collector URL
+     * @return the HawkSettings instance
+     */
+    public HawkSettings setEndpoint(String endpoint) {
+        this.endpoint = endpoint;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of events sent in one request in asynchronous mode. 1 disables batching.
+     *
+     * @param batchSize the maximum number of events per request
+     * @return the HawkSettings instance
+     */
+    public HawkSettings setBatchSize(int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive.");
+        }
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    /**
+     * Sets the maximum total size of events in one batch. A batch is sent as soon as it reaches this size.
+     *
+     * @param batchMaxBytes the maximum batch size
+     * @return the HawkSettings instance
+     */
+    public HawkSettings setBatchMaxBytes(int batchMaxBytes) {
+        if (batchMaxBytes <= 0) {
+            throw new IllegalArgumentException("Batch max bytes must be positive.");
+        }
+        this.batchMaxBytes = batchMaxBytes;
+        return this;
+    }
+
+    /**
+     * Sets how long to wait for more events before sending an incomplete batch.
+     *
+     * @param batchLingerMillis the linger time in milliseconds
+     * @return the HawkSettings instance
+     */
+    public HawkSettings setBatchLingerMillis(long batchLingerMillis) {
+        if (batchLingerMillis < 0) {
+            throw new IllegalArgumentException("Batch linger time must not be negative.");
+        }
+        this.batchLingerMillis = batchLingerMillis;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of requests sent concurrently in asynchronous mode. With more than one,
+     * each batch is sent on its own thread while the dispatcher collects the next one. Raise
+     * {@link #setMaxConnections(int)} as well, since the transport limits concurrent connections too.
+     *
+     * @param maxInFlightRequests the number of concurrent requests, 1 to send them one at a time
+     * @return the HawkSettings instance
+     */
+    public HawkSettings setMaxInFlightRequests(int maxInFlightRequests) {
+        if (maxInFlightRequests < 1) {
+            throw new IllegalArgumentException("Max in-flight requests must be at least 1.");
+        }
+        this.maxInFlightRequests = maxInFlightRequests;
+        return this;
+    }
+
+    /**
+     * Enables sending each request on a new virtual thread on Java 21+, instead of a pool of
+     * {@link #setMaxInFlightRequests(int)} platform threads. Falls back to platform threads
+     * on older JVMs.
+     *
+     * @param virtualThreadsEnabled whether virtual threads are used
+     * @return the HawkSettings instance
+     */
+    public HawkSettings setVirtualThreadsEnabled(boolean virtualThreadsEnabled) {
+        this.virtualThreadsEnabled = virtualThreadsEnabled;
+        return this;
+    }
+
+    /**
+     * Sets a custom transport used to deliver events instead of the built-in one.
+     *
+     * @param transport the transport
+     * @return the HawkSettings instance
+     */
+    public HawkSettings setTransport(HawkTransport transport) {
+        this.transport = transport;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of concurrent connections to the collector. The JDK transports keep
+     * idle connections in a JVM-wide pool, whose size is set by the {@code http.maxConnections}
+     * (Java 8) or {@code jdk.httpclient.connectionPoolSize} (Java 11+) system property.
+     *
+     * @param maxConnections the pool size
+     * @return the HawkSettings instance
+     */
+    public HawkSettings setMaxConnections(int maxConnections) {
+        if (maxConnections <= 0) {
+            throw new IllegalArgumentException("Max connections must be positive.");
+        }
+        this.maxConnections = maxConnections;
+        return this;
+    }
+
+    /**
+     * Sets the connect timeout.
+     *
+     * @param connectTimeoutMillis the timeout in milliseconds
+     * @return the HawkSettings instance
+     */
+    public HawkSettings setConnectTimeoutMillis(long connectTimeoutMillis) {
+        if (connectTimeoutMillis <= 0) {
+            throw new IllegalArgumentException("Connect timeout must be positive.");
+        }
+        this.connectTimeoutMillis = connectTimeoutMillis;
+        return this;
+    }
+
+    /**
+     * Sets the timeout for a single request.
+     *
+     * @param requestTimeoutMillis the timeout in milliseconds
+     * @return the HawkSettings instance
+     */
+    public HawkSettings setRequestTimeoutMillis(long requestTimeoutMillis) {
+        if (requestTimeoutMillis <= 0) {
+            throw new IllegalArgumentException("Request timeout must be positive.");
+        }
+        this.requestTimeoutMillis = requestTimeoutMillis;
+        return this;
+    }
+
+    /**
+     * Enables or disables gzip compression of request bodies ({@code Content-Encoding: gzip}).
+     *
+     * @param compressionEnabled true to compress request bodies
+     * @return the HawkSettings instance
+     */
+    public HawkSettings setCompressionEnabled(boolean compressionEnabled) {
+        this.compressionEnabled = compressionEnabled;
+        return this;
+    }
+
+    /**
+     * Sets the deflate level used for compression.
+     *
+     * @param compressionLevel the level from 1 (fastest) to 9 (smallest)
+     * @return the HawkSettings instance
+     */
+    public HawkSettings setCompressionLevel(int compressionLevel) {
+        if (compressionLevel < 1 || compressionLevel > 9) {
+            throw new IllegalArgumentException("Compression level must be between 1 and 9.");
+        }
+        this.compressionLevel = compressionLevel;
+        return this;
+    }
+
+    /**
+     * Sets the minimum body size to compress. Smaller bodies are sent as is.
+     *
+     * @param compressionMinBytes the size threshold in bytes
+     * @return the HawkSettings instance
+     */
+    public HawkSettings setCompressionMinBytes(int compressionMinBytes) {
+        if (compressionMinBytes < 0) {
+            throw new IllegalArgumentException("Compression threshold must not be negative.");
+        }
+        this.compressionMinBytes = compressionMinBytes;
+        return this;
+    }
+
+    /**
+     * Enables the spool: events that cannot be delivered are stored in this directory
+     * and sent again on the next start or once the collector is reachable. Each client uses a
+     * subdirectory named after a hash of its token and endpoint; if another client or process with
+     * the same token is using it, a numbered subdirectory is used instead.
+     *
+     * @param spoolDirectory the directory path, or null to disable spooling
+     * @return the HawkSettings instance
+     */
+    public HawkSettings setSpoolDirectory(String spoolDirectory) {
+        this.spoolDirectory = spoolDirectory;
+        return this;
+    }
+
+    /**
+     * Sets the maximum total size of spool files. The oldest events are discarded beyond it.
+     *
+     * @param spoolMaxBytes the size limit in bytes
+     * @return the HawkSettings instance
+     */
+    public HawkSettings setSpoolMaxBytes(long spoolMaxBytes) {
+        if (spoolMaxBytes <= 0) {
+            throw new IllegalArgumentException("Spool size must be positive.");
+        }
+        this.spoolMaxBytes = spoolMaxBytes;
+        return this;
+    }
+
+    /**
+     * Sets the size of each spool segment file. An event larger than a segment is not spooled.
+     *
+     * @param spoolSegmentBytes the segment size in bytes
+     * @return the HawkSettings instance
+     */
+    public HawkSettings setSpoolSegmentBytes(int spoolSegmentBytes) {
+        if (spoolSegmentBytes < 1024) {
+            throw new IllegalArgumentException("Spool segment size must be at least 1024 bytes.");
+        }
+        this.spoolSegmentBytes = spoolSegmentBytes;
+        return this;
+    }
+
+    /**
+     * Enables forcing every spooled event to disk. Off by default, since it makes each write wait for the disk.
+     *
+     * @param spoolSyncWrites true to force every write to disk
+     * @return the HawkSettings instance
+     */
+    public HawkSettings setSpoolSyncWrites(boolean spoolSyncWrites) {
+        this.spoolSyncWrites = spoolSyncWrites;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of delivery attempts for network errors, 429 and 5xx responses.
+     * Defaults to 3 in asynchronous mode and to 1 in synchronous mode, where retries would
+     * block the thread reporting the error.
+     *
+     * @param maxAttempts the number of attempts including the first one, 1 disables retries
+     * @return the HawkSettings instance
+     */
+    public HawkSettings setMaxAttempts(int maxAttempts) {
+        if (maxAttempts <= 0) {
+            throw new IllegalArgumentException("Max attempts must be positive.");
+        }
+        this.maxAttempts = maxAttempts;
+        return this;
+    }
+
+    /**
+     * Sets the upper bound of the delay before the first retry. Later delays double up to the maximum.
+     *
+     * @param retryInitialDelayMillis the delay in milliseconds
+     * @return the HawkSettings instance
+     */
+    public HawkSettings setRetryInitialDelayMillis(long retryInitialDelayMillis) {
+        if (retryInitialDelayMillis < 0) {
+            throw new IllegalArgumentException("Retry delay must not be negative.");
+        }
+        this.retryInitialDelayMillis = retryInitialDelayMillis;
+        return this;
+    }
+
+    /**
+     * Sets the upper bound of any retry delay. A longer {@code Retry-After} stops retrying and opens the circuit breaker.
+     *
+     * @param retryMaxDelayMillis the delay in milliseconds
+     * @return the HawkSettings instance
+     */
+    public HawkSettings setRetryMaxDelayMillis(long retryMaxDelayMillis) {
+        if (retryMaxDelayMillis < 0) {
+            throw new IllegalArgumentException("Retry delay must not be negative.");
+        }
+        this.retryMaxDelayMillis = retryMaxDelayMillis;
+        return this;
+    }
+
+    /**
+     * Sets the number of consecutive failures after which requests are skipped until the collector recovers.
+     *
+     * @param circuitBreakerFailureThreshold the number of failures
+     * @return the HawkSettings instance
+     */
+    public HawkSettings setCircuitBreakerFailureThreshold(int circuitBreakerFailureThreshold) {
+        if (circuitBreakerFailureThreshold <= 0) {
+            throw new IllegalArgumentException("Circuit breaker threshold must be positive.");
+        }
+        this.circuitBreakerFailureThreshold = circuitBreakerFailureThreshold;
+        return this;
+    }
+
+    /**
+     * Sets how long requests are skipped once the circuit breaker opens, before a probe request is sent.
+     *
+     * @param circuitBreakerOpenMillis the open period in milliseconds
+     * @return the HawkSettings instance
+     */
+    public HawkSettings setCircuitBreakerOpenMillis(long circuitBreakerOpenMillis) {
+        if (circuitBreakerOpenMillis <= 0) {
+            throw new IllegalArgumentException("Circuit breaker open period must be positive.");
+        }
+        this.circuitBreakerOpenMillis = circuitBreakerOpenMillis;
+        return this;
+    }
+
+    /**
+     * Sets the longest time requests are skipped when the collector asks to retry later with a
+     * {@code Retry-After} header longer than the maximum retry delay.
+     *
+     * @param circuitBreakerMaxOpenMillis the maximum open period in milliseconds
+     * @return the HawkSettings instance
+     */
+    public HawkSettings setCircuitBreakerMaxOpenMillis(long circuitBreakerMaxOpenMillis) {
+        if (circuitBreakerMaxOpenMillis <= 0) {
+            throw new IllegalArgumentException("Circuit breaker maximum open period must be positive.");
+        }
+        this.circuitBreakerMaxOpenMillis = circuitBreakerMaxOpenMillis;
+        return this;
+    }
+
+    /**
+     * Enables deduplication: repeats of an error within the window are counted instead of sent,
+     * and reported as one event with the repetition count when the window ends.
+     *
+     * @param dedupWindowMillis the window length in milliseconds, 0 to disable
+     * @return the HawkSettings instance
+     */
+    public HawkSettings setDedupWindowMillis(long dedupWindowMillis) {
+        if (dedupWindowMillis < 0) {
+            throw new IllegalArgumentException("Deduplication window must not be negative.");
+        }
+        this.dedupWindowMillis = dedupWindowMillis;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of distinct errors tracked by deduplication. Errors beyond it are sent as usual.
+     *
+     * @param dedupMaxEntries the maximum number of tracked errors
+     * @return the HawkSettings instance
+     */
+    public HawkSettings setDedupMaxEntries(int dedupMaxEntries) {
+        if (dedupMaxEntries <= 0) {
+            throw new IllegalArgumentException("Deduplication cache size must be positive.");
+        }
+        this.dedupMaxEntries = dedupMaxEntries;
+        return this;
+    }
+
+    /**
+     * Sets how many top stack frames identify an error, together with its class and message template.
+     *
+     * @param fingerprintFrames the number of frames
+     * @return the HawkSettings instance
+     */
+    public HawkSettings setFingerprintFrames(int fingerprintFrames) {
+        if (fingerprintFrames < 0) {
+            throw new IllegalArgumentException("Fingerprint frames must not be negative.");
+        }
+        this.fingerprintFrames = fingerprintFrames;
+        return this;
+    }
+
+    /**
+     * Sets how deep causes and suppressed exceptions are followed, 0 to send only the reported exception.
+     * Each throwable is sent once even if the chain is cyclic, and frames a cause shares with
+     * the enclosing trace are replaced by their count.
+     *
+     * @param maxCauseDepth the maximum nesting level
+     * @return the HawkSettings instance
+     */
+    public HawkSettings setMaxCauseDepth(int maxCauseDepth) {
+        if (maxCauseDepth < 0) {
+            throw new IllegalArgumentException("Max cause depth must not be negative.");
+        }
+        this.maxCauseDepth = maxCauseDepth;
+        return this;
+    }
+
+    /**
+     * Sets how many breadcrumbs recorded with {@link Hawk#addBreadcrumb} are kept and sent with events.
+     *
+     * @param breadcrumbsCapacity the number of breadcrumbs, 0 to disable global breadcrumbs
+     * @return the HawkSettings instance
+     */
+    public HawkSettings setBreadcrumbsCapacity(int breadcrumbsCapacity) {
+        if (breadcrumbsCapacity < 0) {
+            throw new IllegalArgumentException("Breadcrumbs capacity must not be negative.");
+        }
+        this.breadcrumbsCapacity = breadcrumbsCapacity;
+        return this;
+    }
+
+    /**
+     * Sets how many breadcrumbs recorded with {@link Hawk#addThreadBreadcrumb} are kept for each thread.
+     * They are sent with events reported from the same thread.
+     *
+     * @param threadBreadcrumbsCapacity the number of breadcrumbs, 0 to disable per-thread breadcrumbs
+     * @return the HawkSettings instance
+     */
+    public HawkSettings setThreadBreadcrumbsCapacity(int threadBreadcrumbsCapacity) {
+        if (threadBreadcrumbsCapacity < 0) {
+            throw new IllegalArgumentException("Thread breadcrumbs capacity must not be negative.");
+        }
+        this.threadBreadcrumbsCapacity = threadBreadcrumbsCapacity;
+        return this;
+    }
+
+    /**
+     * Sets the fraction of events that are reported, chosen at random.
+     *
+     * @param sampleRate the fraction from 0.0 (none) to 1.0 (all)
+     * @return the HawkSettings instance
+     */
+    public HawkSettings setSampleRate(double sampleRate) {
+        if (sampleRate < 0 || sampleRate > 1) {
+            throw new IllegalArgumentException("Sample rate must be between 0 and 1.");
+        }
+        this.sampleRate = sampleRate;
+        return this;
+    }
+
+    /**
+     * Limits the number of events reported per second for all errors together.
+     *
+     * @param rateLimit the events per second, 0 for no limit
+     * @return the HawkSettings instance
+     */
+    public HawkSettings setRateLimit(double rateLimit) {
+        if (rateLimit < 0) {
+            throw new IllegalArgumentException("Rate limit must not be negative.");
+        }
+        this.rateLimit = rateLimit;
+        return this;
+    }
+
+    /**
+     * Limits the number of events reported per second for each exception type.
+     *
+     * @param rateLimitPerType the events per second, 0 for no limit
+     * @return the HawkSettings instance
+     */
+    public HawkSettings setRateLimitPerType(double rateLimitPerType) {
+        if (rateLimitPerType < 0) {
+            throw new IllegalArgumentException("Rate limit must not be negative.");
+        }
+        this.rateLimitPerType = rateLimitPerType;
+        return this;
+    }
+
+    /**
+     * Limits the number of events reported per second for each distinct error, as identified by its fingerprint.
+     *
+     * @param rateLimitPerFingerprint the events per second, 0 for no limit
+     * @return the HawkSettings instance
+     */
+    public HawkSettings setRateLimitPerFingerprint(double rateLimitPerFingerprint) {
+        if (rateLimitPerFingerprint < 0) {
+            throw new IllegalArgumentException("Rate limit must not be negative.");
+        }
+        this.rateLimitPerFingerprint = rateLimitPerFingerprint;
+        return this;
+    }
+
+    /**
+     * Sets how many events each rate limit lets through at once above its sustained rate.
+     *
+     * @param rateLimitBurst the burst size
+     * @return the HawkSettings instance
+     */
+    public HawkSettings setRateLimitBurst(int rateLimitBurst) {
+        if (rateLimitBurst <= 0) {
+            throw new IllegalArgumentException("Rate limit burst must be positive.");
+        }
+        this.rateLimitBurst = rateLimitBurst;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of exception types or errors tracked by per-type and per-fingerprint limits.
+     *
+     * @param rateLimitMaxKeys the maximum number of tracked keys
+     * @return the HawkSettings instance
+     */
+    public HawkSettings setRateLimitMaxKeys(int rateLimitMaxKeys) {
+        if (rateLimitMaxKeys <= 0) {
+            throw new IllegalArgumentException("Rate limit key count must be positive.");
+        }
+        this.rateLimitMaxKeys = rateLimitMaxKeys;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of source files and snippets cached for backtraces.
+     *
+     * @param sourceCacheSize the cache size
+     * @return the HawkSettings instance
+     */
+    public HawkSettings setSourceCacheSize(int sourceCacheSize) {
+        if (sourceCacheSize <= 0) {
+            throw new IllegalArgumentException("Source cache size must be positive.");
+        }
+        this.sourceCacheSize = sourceCacheSize;
+        return this;
+    }
+
+    /**
+     * Sets the directories searched for source files. They are searched before source jars.
+     *
+     * @param sourceRoots the source root directories
+     * @return the HawkSettings instance
+     */
+    public HawkSettings setSourceRoots(String... sourceRoots) {
+        for (String root : sourceRoots) {
+            if (root == null || root.isEmpty()) {
+                throw new IllegalArgumentException("Source roots must not be empty.");
+            }
+        }
+        this.sourceRoots = Arrays.asList(sourceRoots.clone());
+        return this;
+    }
+
+    /**
+     * Enables or disables looking up sources in -sources.jar files on the class path,
+     * next to class path jars and nested in Spring Boot archives.
+     *
+     * @param sourceJarsEnabled whether source jars are searched
+     * @return the HawkSettings instance
+     */
+    public HawkSettings setSourceJarsEnabled(boolean sourceJarsEnabled) {
+        this.sourceJarsEnabled = sourceJarsEnabled;
+        return this;
+    }
+
+    /**
+     * Sets how long an event waits for source snippets that are not cached yet. Sources are resolved
+     * in the background; frames still unresolved at the deadline are sent without source code.
+     *
+     * @param sourceResolveTimeoutMillis the timeout in milliseconds, 0 to use cached snippets only
+     * @return the HawkSettings instance
+     */
+    public HawkSettings setSourceResolveTimeoutMillis(long sourceResolveTimeoutMillis) {
+        if (sourceResolveTimeoutMillis < 0) {
+            throw new IllegalArgumentException("Source resolve timeout must not be negative.");
+        }
+        this.sourceResolveTimeoutMillis = sourceResolveTimeoutMillis;
+        return this;
+    }
+
+    /**
+     * Sets the verbosity of the catcher's own diagnostics messages, e.g. failed deliveries.
+     * Messages are written by a background thread, never by the thread reporting an error.
+     * Diagnostics are shared by all clients and configured by {@link Hawk#init}; this setting is
+     * ignored for clients created directly.
+     *
+     * @param diagnosticsLevel the level, {@link DiagnosticsLevel#OFF} by default
+     * @return the HawkSettings instance
+     */
+    public HawkSettings setDiagnosticsLevel(DiagnosticsLevel diagnosticsLevel) {
+        if (diagnosticsLevel == null) {
+            throw new IllegalArgumentException("Diagnostics level must not be null.");
+        }
+        this.diagnosticsLevel = diagnosticsLevel;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of diagnostics messages written per second. Further messages are counted
+     * and reported as suppressed. Only applied by {@link Hawk#init}.
+     *
+     * @param diagnosticsRateLimit the messages per second, 0 for no limit
+     * @return the HawkSettings instance
+     */
+    public HawkSettings setDiagnosticsRateLimit(int diagnosticsRateLimit) {
+        if (diagnosticsRateLimit < 0) {
+            throw new IllegalArgumentException("Diagnostics rate limit must not be negative.");
+        }
+        this.diagnosticsRateLimit = diagnosticsRateLimit;
+        return this;
+    }
+
+    /**
+     * Enables or disables forwarding diagnostics messages to SLF4J (logger {@code so.hawk.catcher})
+     * when it is on the class path. Otherwise they are written to standard error. Only applied by
+     * {@link Hawk#init}.
+     *
+     * @param diagnosticsSlf4jEnabled whether SLF4J is used
+     * @return the HawkSettings instance
+     */
+    public HawkSettings setDiagnosticsSlf4jEnabled(boolean diagnosticsSlf4jEnabled) {
+        this.diagnosticsSlf4jEnabled = diagnosticsSlf4jEnabled;
+        return this;
+    }
+
+    /**
+     * Enables or disables publishing the catcher's metrics as the {@code so.hawk.catcher:type=Metrics} MBean.
+     *
+     * @param jmxEnabled whether the MBean is registered
+     * @return the HawkSettings instance
+     */
+    public HawkSettings setJmxEnabled(boolean jmxEnabled) {
+        this.jmxEnabled = jmxEnabled;
+        return this;
+    }
+
+    /**
+     * Sets the name of the client, which tells clients apart in diagnostics. The metrics MBean of a
+     * named client is registered as {@code so.hawk.catcher:type=Metrics,name="<name>"}, so each client
+     * running in the same JVM should have its own name. Unnamed clients other than the default one
+     * are registered as {@code client-1}, {@code client-2}, etc.
+     *
+     * @param name the client name, or null for the default client
+     * @return the HawkSettings instance
+     * @throws IllegalArgumentException if the name is empty
+     */
+    public HawkSettings setName(String name) {
+        if (name != null && name.isEmpty()) {
+            throw new IllegalArgumentException("Client name must not be empty.");
+        }
+        this.name = name;
+        return this;
+    }
+
+    /**
+     * Sets the time allowed for delivering queued events when Hawk is closed, and for delivering
+     * the event of an uncaught exception before the default handler runs.
+     * Events that are not delivered in time are stored in the spool, if it is enabled.
+     *
+     * @param shutdownTimeoutMillis the timeout in milliseconds
+     * @return the HawkSettings instance
+     */
+    public HawkSettings setShutdownTimeoutMillis(long shutdownTimeoutMillis) {
+        if (shutdownTimeoutMillis < 0) {
+            throw new IllegalArgumentException("Shutdown timeout must not be negative.");
+        }
+        this.shutdownTimeoutMillis = shutdownTimeoutMillis;
+        return this;
+    }
+
+    /**
+     * Sets the number of threads sending queued events in batches when Hawk is closed.
+     *
+     * @param shutdownFlushThreads the number of threads
+     * @return the HawkSettings instance
+     */
+    public HawkSettings setShutdownFlushThreads(int shutdownFlushThreads) {
+        if (shutdownFlushThreads < 1) {
+            throw new IllegalArgumentException("Shutdown flush threads must be at least 1.");
+        }
+        this.shutdownFlushThreads = shutdownFlushThreads;
+        return this;
+    }
+
+    /**
+     * Enables or disables closing Hawk from a JVM shutdown hook, so queued events are delivered
+     * or spooled when the application exits.
+     *
+     * @param shutdownHookEnabled whether the shutdown hook is registered
+     * @return the HawkSettings instance
+     */
+    public HawkSettings setShutdownHookEnabled(boolean shutdownHookEnabled) {
+        this.shutdownHookEnabled = shutdownHookEnabled;
+        return this;
+    }
+
+    /**
+     * Gets the authentication token.
+     *
+     * @return the token
+     */
+    public String getToken() {
+        return token;
+    }
+
+    /**
+     * Gets the context data.
+     *
+     * @return the context
+     */
+    public JSONObject getContext() {
+        return context;
+    }
+
+    /**
+     * Gets the beforeSend callback.
+     *
+     * @return the beforeSend callback
+     */
+    public BeforeSendCallback getBeforeSend() {
+        return beforeSend;
+    }
+
+    /**
+     * Gets the event processors.
+     *
+     * @return the processors in execution order
+     */
+    public List<EventProcessor> getEventProcessors() {
+        return Collections.unmodifiableList(eventProcessors);
+    }
+
+    /**
+     * Gets the user information.
+     *
+     * @return the user information
+     */
+    public JSONObject getUser() {
+        return user;
+    }
+
+    /**
+     * Checks whether asynchronous delivery is enabled.
+     *
+     * @return true if events are sent in the background
+     */
+    public boolean isAsync() {
+        return async;
+    }
+
+    /**
+     * Gets the maximum number of events waiting to be sent.
+     *
+     * @return the queue capacity
+     */
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * Gets the overflow policy.
+     *
+     * @return the overflow policy
+     */
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    /**
+     * Gets the enqueue timeout used by {@link OverflowPolicy#BLOCK}.
+     *
+     * @return the timeout in milliseconds
+     */
+    public long getEnqueueTimeoutMillis() {
+        return enqueueTimeoutMillis;
+    }
+
+    /**
+     * Gets the custom collector endpoint.
+     *
+     * @return the endpoint, or null if it is derived from the token
+     */
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    /**
+     * Gets the maximum number of events sent in one request.
+     *
+     * @return the batch size
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Gets the maximum total size of events in one batch.
+     *
+     * @return the batch size limit
+     */
+    public int getBatchMaxBytes() {
+        return batchMaxBytes;
+    }
+
+    /**
+     * Gets how long to wait for more events before sending an incomplete batch.
+     *
+     * @return the linger time in milliseconds
+     */
+    public long getBatchLingerMillis() {
+        return batchLingerMillis;
+    }
+
+    /**
+     * Gets the custom transport.
+     *
+     * @return the transport, or null if the built-in one is used
+     */
+    public HawkTransport getTransport() {
+        return transport;
+    }
+
+    /**
+     * Gets the maximum number of pooled connections.
+     *
+     * @return the pool size
+     */
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    /**
+     * Gets the connect timeout.
+     *
+     * @return the timeout in milliseconds
+     */
+    public long getConnectTimeoutMillis() {
+        return connectTimeoutMillis;
+    }
+
+    /**
+     * Gets the timeout for a single request.
+     *
+     * @return the timeout in milliseconds
+     */
+    public long getRequestTimeoutMillis() {
+        return requestTimeoutMillis;
+    }
+
+    /**
+     * Checks whether request bodies are compressed.
+     *
+     * @return true if compression is enabled
+     */
+    public boolean isCompressionEnabled() {
+        return compressionEnabled;
+    }
+
+    /**
+     * Gets the deflate level used for compression.
+     *
+     * @return the compression level
+     */
+    public int getCompressionLevel() {
+        return compressionLevel;
+    }
+
+    /**
+     * Gets the minimum body size to compress.
+     *
+     * @return the size threshold in bytes
+     */
+    public int getCompressionMinBytes() {
+        return compressionMinBytes;
+    }
+
+    /**
+     * Gets the spool directory.
+     *
+     * @return the directory path, or null if spooling is disabled
+     */
+    public String getSpoolDirectory() {
+        return spoolDirectory;
+    }
+
+    /**
+     * Gets the maximum total size of spool files.
+     *
+     * @return the size limit in bytes
+     */
+    public long getSpoolMaxBytes() {
+        return spoolMaxBytes;
+    }
+
+    /**
+     * Gets the size of each spool segment file.
+     *
+     * @return the segment size in bytes
+     */
+    public int getSpoolSegmentBytes() {
+        return spoolSegmentBytes;
+    }
+
+    /**
+     * Checks whether every spooled event is forced to disk.
+     *
+     * @return true if writes are synchronous
+     */
+    public boolean isSpoolSyncWrites() {
+        return spoolSyncWrites;
+    }
+
+    /**
+     * Gets the maximum number of delivery attempts per request.
+     *
+     * @return the number of attempts set, or the default of the delivery mode
+     */
+    public int getMaxAttempts() {
+        if (maxAttempts > 0) {
+            return maxAttempts;
+        }
+        return async ? 3 : 1;
+    }
+
+    /**
+     * Gets the upper bound of the delay before the first retry.
+     *
+     * @return the delay in milliseconds
+     */
+    public long getRetryInitialDelayMillis() {
+        return retryInitialDelayMillis;
+    }
+
+    /**
+     * Gets the upper bound of any retry delay.
+     *
+     * @return the delay in milliseconds
+     */
+    public long getRetryMaxDelayMillis() {
+        return retryMaxDelayMillis;
+    }
+
+    /**
+     * Gets the number of consecutive failures that opens the circuit breaker.
+     *
+     * @return the number of failures
+     */
+    public int getCircuitBreakerFailureThreshold() {
+        return circuitBreakerFailureThreshold;
+    }
+
+    /**
+     * Gets how long the circuit breaker stays open before a probe request.
+     *
+     * @return the open period in milliseconds
+     */
+    public long getCircuitBreakerOpenMillis() {
+        return circuitBreakerOpenMillis;
+    }
+
+    /**
+     * Gets the longest time the circuit breaker stays open when the collector asks to retry later.
+     *
+     * @return the maximum open period in milliseconds
+     */
+    public long getCircuitBreakerMaxOpenMillis() {
+        return circuitBreakerMaxOpenMillis;
+    }
+
+    /**
+     * Gets the deduplication window.
+     *
+     * @return the window length in milliseconds, 0 if deduplication is disabled
+     */
+    public long getDedupWindowMillis() {
+        return dedupWindowMillis;
+    }
+
+    /**
+     * Gets the maximum number of errors tracked by deduplication.
+     *
+     * @return the maximum number of tracked errors
+     */
+    public int getDedupMaxEntries() {
+        return dedupMaxEntries;
+    }
+
+    /**
+     * Gets the number of top stack frames included in the error fingerprint.
+     *
+     * @return the number of frames
+     */
+    public int getFingerprintFrames() {
+        return fingerprintFrames;
+    }
+
+    /**
+     * Gets the fraction of events that are reported.
+     *
+     * @return the sample rate
+     */
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * Gets the global rate limit.
+     *
+     * @return the events per second, 0 for no limit
+     */
+    public double getRateLimit() {
+        return rateLimit;
+    }
+
+    /**
+     * Gets the rate limit for each exception type.
+     *
+     * @return the events per second, 0 for no limit
+     */
+    public double getRateLimitPerType() {
+        return rateLimitPerType;
+    }
+
+    /**
+     * Gets the rate limit for each distinct error.
+     *
+     * @return the events per second, 0 for no limit
+     */
+    public double getRateLimitPerFingerprint() {
+        return rateLimitPerFingerprint;
+    }
+
+    /**
+     * Gets the burst size of rate limits.
+     *
+     * @return the burst size
+     */
+    public int getRateLimitBurst() {
+        return rateLimitBurst;
+    }
+
+    /**
+     * Gets the maximum number of keys tracked by per-key limits.
+     *
+     * @return the maximum number of tracked keys
+     */
+    public int getRateLimitMaxKeys() {
+        return rateLimitMaxKeys;
+    }
+
+    /**
+     * Gets the maximum number of cached source files and snippets.
+     *
+     * @return the cache size
+     */
+    public int getSourceCacheSize() {
+        return sourceCacheSize;
+    }
+
+    /**
+     * Gets the directories searched for source files.
+     *
+     * @return the source roots
+     */
+    public List<String> getSourceRoots() {
+        return sourceRoots;
+    }
+
+    /**
+     * Checks whether source jars are searched.
+     *
+     * @return true if source jars are searched
+     */
+    public boolean isSourceJarsEnabled() {
+        return sourceJarsEnabled;
+    }
+
+    /**
+     * Gets how long an event waits for source snippets, in milliseconds.
+     *
+     * @return the timeout
+     */
+    public long getSourceResolveTimeoutMillis() {
+        return sourceResolveTimeoutMillis;
+    }
+
+    /**
+     * Gets the verbosity of diagnostics messages.
+     *
+     * @return the diagnostics level
+     */
+    public DiagnosticsLevel getDiagnosticsLevel() {
+        return diagnosticsLevel;
+    }
+
+    /**
+     * Gets the maximum number of diagnostics messages per second.
+     *
+     * @return the rate limit, 0 if unlimited
+     */
+    public int getDiagnosticsRateLimit() {
+        return diagnosticsRateLimit;
+    }
+
+    /**
+     * Checks whether diagnostics messages go to SLF4J when available.
+     *
+     * @return true if SLF4J is used
+     */
+    public boolean isDiagnosticsSlf4jEnabled() {
+        return diagnosticsSlf4jEnabled;
+    }
+
+    /**
+     * Checks whether metrics are published through JMX.
+     *
+     * @return true if the MBean is registered
+     */
+    public boolean isJmxEnabled() {
+        return jmxEnabled;
+    }
+
+    /**
+     * Gets the time allowed for delivering queued events on close.
+     *
+     * @return the timeout in milliseconds
+     */
+    public long getShutdownTimeoutMillis() {
+        return shutdownTimeoutMillis;
+    }
+
+    /**
+     * Gets the number of threads delivering queued events on close.
+     *
+     * @return the number of threads
+     */
+    public int getShutdownFlushThreads() {
+        return shutdownFlushThreads;
+    }
+
+    /**
+     * Checks whether Hawk is closed by a JVM shutdown hook.
+     *
+     * @return true if the shutdown hook is registered
+     */
+    public boolean isShutdownHookEnabled() {
+        return shutdownHookEnabled;
+    }
+
+    /**
+     * Gets how deep causes and suppressed exceptions are followed.
+     *
+     * @return the maximum nesting level
+     */
+    public int getMaxCauseDepth() {
+        return maxCauseDepth;
+    }
+
+    /**
+     * Gets the number of breadcrumbs kept for all threads together.
+     *
+     * @return the capacity
+     */
+    public int getBreadcrumbsCapacity() {
+        return breadcrumbsCapacity;
+    }
+
+    /**
+     * Gets the number of breadcrumbs kept for each thread.
+     *
+     * @return the capacity
+     */
+    public int getThreadBreadcrumbsCapacity() {
+        return threadBreadcrumbsCapacity;
+    }
+
+    /**
+     * Gets the maximum number of requests sent concurrently.
+     *
+     * @return the number of concurrent requests
+     */
+    public int getMaxInFlightRequests() {
+        return maxInFlightRequests;
+    }
+
+    /**
+     * Checks whether requests are sent on virtual threads when the JVM supports them.
+     *
+     * @return true if virtual threads are enabled
+     */
+    public boolean isVirtualThreadsEnabled() {
+        return virtualThreadsEnabled;
+    }
+
+    /**
+     * Gets the name of the client.
+     *
+     * @return the client name, or null for the default client
+     */
+    public String getName() {
+        return name;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,28 @@
+package so.hawk.catcher;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Delivers encoded events to the collector.
+ * <p>
+ * Implementations are shared by every thread that reports events and must be thread-safe.
+ * The request body may be reused by the caller once {@link #send(HawkRequest)} returns.
+ */
+public interface HawkTransport extends Closeable {
+    /**
+     * Sends the request and waits for the response.
+     *
+     * @param request the request to send
+     * @return the collector response
+     * @throws IOException if the request could not be completed
+     */
+    HawkResponse send(HawkRequest request) throws IOException;
+
+    /**
+     * Releases pooled connections and threads. Does nothing by default.
+     */
+    @Override
+    default void close() {
+    }
+}
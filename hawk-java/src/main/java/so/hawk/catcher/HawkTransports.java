@@ -0,0 +1,51 @@
+package so.hawk.catcher;
+
+import java.lang.reflect.Constructor;
+
+/**
+ * Chooses the transport implementation for the running JVM.
+ */
+final class HawkTransports {
+    /**
+     * Transport backed by {@code java.net.http.HttpClient}, compiled separately for Java 11.
+     */
+    private static final String HTTP_CLIENT_TRANSPORT = "so.hawk.catcher.JdkHttpClientTransport";
+
+    private HawkTransports() {
+    }
+
+    /**
+     * Returns the transport configured in the settings, or the best built-in one, wrapped with
+     * the retry policy and circuit breaker from the settings.
+     *
+     * @param settings the configuration settings
+     * @param metrics  the metrics recording request durations
+     * @return the transport to use
+     */
+    static HawkTransport create(HawkSettings settings, HawkMetrics metrics) {
+        HawkTransport transport = settings.getTransport() != null ? settings.getTransport() : createDefault(settings);
+        return new ResilientTransport(transport,
+                new RetryPolicy(settings.getMaxAttempts(), settings.getRetryInitialDelayMillis(),
+                        settings.getRetryMaxDelayMillis()),
+                new CircuitBreaker(settings.getCircuitBreakerFailureThreshold(), settings.getCircuitBreakerOpenMillis()),
+                settings.getCircuitBreakerMaxOpenMillis(), metrics.httpRoundTrip);
+    }
+
+    /**
+     * Creates the best built-in transport: the {@code HttpClient} one on Java 11+
+     * and the {@code HttpURLConnection} one otherwise.
+     *
+     * @param settings the configuration settings
+     * @return the built-in transport
+     */
+    private static HawkTransport createDefault(HawkSettings settings) {
+        try {
+            Class.forName("java.net.http.HttpClient");
+            Constructor<?> constructor = Class.forName(HTTP_CLIENT_TRANSPORT).getDeclaredConstructor(HawkSettings.class);
+            return (HawkTransport) constructor.newInstance(settings);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            Diagnostics.debug("HttpClient transport is not available, using HttpURLConnection: {}", e.toString());
+            return new UrlConnectionTransport(settings);
+        }
+    }
+}
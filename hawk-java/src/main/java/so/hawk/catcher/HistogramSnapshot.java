@@ -0,0 +1,142 @@
+package so.hawk.catcher;
+
+/**
+ * Summary of a latency histogram at the time it was taken. All values are in nanoseconds;
+ * percentiles are accurate to about 3%.
+ */
+public class HistogramSnapshot {
+    /**
+     * Number of recorded values.
+     */
+    private final long count;
+
+    /**
+     * Sum of recorded values.
+     */
+    private final long totalNanos;
+
+    /**
+     * Largest recorded value.
+     */
+    private final long maxNanos;
+
+    /**
+     * Median.
+     */
+    private final long p50Nanos;
+
+    /**
+     * 90th percentile.
+     */
+    private final long p90Nanos;
+
+    /**
+     * 99th percentile.
+     */
+    private final long p99Nanos;
+
+    /**
+     * 99.9th percentile.
+     */
+    private final long p999Nanos;
+
+    /**
+     * Creates a snapshot.
+     *
+     * @param count      the number of recorded values
+     * @param totalNanos the sum of recorded values
+     * @param maxNanos   the largest recorded value
+     * @param p50Nanos   the median
+     * @param p90Nanos   the 90th percentile
+     * @param p99Nanos   the 99th percentile
+     * @param p999Nanos  the 99.9th percentile
+     */
+    HistogramSnapshot(long count, long totalNanos, long maxNanos, long p50Nanos, long p90Nanos, long p99Nanos,
+                      long p999Nanos) {
+        this.count = count;
+        this.totalNanos = totalNanos;
+        this.maxNanos = maxNanos;
+        this.p50Nanos = p50Nanos;
+        this.p90Nanos = p90Nanos;
+        this.p99Nanos = p99Nanos;
+        this.p999Nanos = p999Nanos;
+    }
+
+    /**
+     * Gets the number of recorded values.
+     *
+     * @return the count
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Gets the sum of recorded values.
+     *
+     * @return the total in nanoseconds
+     */
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * Gets the average value.
+     *
+     * @return the mean in nanoseconds, 0 if nothing was recorded
+     */
+    public long getMeanNanos() {
+        return count > 0 ? totalNanos / count : 0;
+    }
+
+    /**
+     * Gets the largest recorded value.
+     *
+     * @return the maximum in nanoseconds
+     */
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    /**
+     * Gets the median.
+     *
+     * @return the 50th percentile in nanoseconds
+     */
+    public long getP50Nanos() {
+        return p50Nanos;
+    }
+
+    /**
+     * Gets the 90th percentile.
+     *
+     * @return the 90th percentile in nanoseconds
+     */
+    public long getP90Nanos() {
+        return p90Nanos;
+    }
+
+    /**
+     * Gets the 99th percentile.
+     *
+     * @return the 99th percentile in nanoseconds
+     */
+    public long getP99Nanos() {
+        return p99Nanos;
+    }
+
+    /**
+     * Gets the 99.9th percentile.
+     *
+     * @return the 99.9th percentile in nanoseconds
+     */
+    public long getP999Nanos() {
+        return p999Nanos;
+    }
+
+    @Override
+    public String toString() {
+        return "count=" + count + ", mean=" + getMeanNanos() + "ns, p50=" + p50Nanos + "ns, p99=" + p99Nanos
+                + "ns, max=" + maxNanos + "ns";
+    }
+}
@@ -0,0 +1,202 @@
+package so.hawk.catcher;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+/**
+ * Looks up sources in {@code -sources.jar} files.
+ * <p>
+ * Considered jars are: {@code -sources.jar} entries of the class path, {@code X-sources.jar}
+ * files lying next to class path jars {@code X.jar}, and {@code -sources.jar} files nested in
+ * Spring Boot ({@code BOOT-INF/lib}) or WAR ({@code WEB-INF/lib}) archives on the class path.
+ * Nested jars are extracted once to a temporary file so their entries can be read directly.
+ * Jars are discovered on first use and kept open until {@link #close()}, which also deletes the
+ * extracted files.
+ */
+class JarSourceResolver implements SourceResolver {
+    /**
+     * Suffix of source jars.
+     */
+    private static final String SOURCES_SUFFIX = "-sources.jar";
+
+    /**
+     * Directories of nested libraries in executable archives.
+     */
+    private static final String[] NESTED_LIB_DIRECTORIES = {"BOOT-INF/lib/", "WEB-INF/lib/"};
+
+    /**
+     * Open source jars, discovered on first use.
+     */
+    private List<JarFile> jars;
+
+    /**
+     * Temporary files holding extracted nested jars.
+     */
+    private final List<Path> extracted = new ArrayList<>();
+
+    @Override
+    public synchronized SourceFile resolve(String sourcePath) throws IOException {
+        for (JarFile jar : jars()) {
+            JarEntry entry = jar.getJarEntry(sourcePath);
+            if (entry != null) {
+                try (InputStream in = jar.getInputStream(entry)) {
+                    return new SourceFile.InMemory(readAll(in));
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the source jars, discovering them on first use.
+     *
+     * @return the open source jars
+     */
+    private List<JarFile> jars() {
+        if (jars == null) {
+            jars = discover(System.getProperty("java.class.path", ""));
+        }
+        return jars;
+    }
+
+    /**
+     * Closes the source jars and deletes the extracted ones. Later lookups find nothing.
+     */
+    @Override
+    public synchronized void close() {
+        if (jars != null) {
+            for (JarFile jar : jars) {
+                try {
+                    jar.close();
+                } catch (IOException e) {
+                    Diagnostics.debug("Failed to close sources jar {}: {}", jar.getName(), e.getMessage());
+                }
+            }
+        }
+        jars = Collections.emptyList();
+        for (Path file : extracted) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                Diagnostics.debug("Failed to delete {}: {}", file, e.getMessage());
+            }
+        }
+        extracted.clear();
+    }
+
+    /**
+     * Finds source jars for the given class path.
+     *
+     * @param classPath the class path
+     * @return the open source jars
+     */
+    private List<JarFile> discover(String classPath) {
+        Set<File> candidates = new LinkedHashSet<>();
+        List<JarFile> result = new ArrayList<>();
+
+        for (String element : classPath.split(File.pathSeparator)) {
+            if (!element.endsWith(".jar")) {
+                continue;
+            }
+            File jar = new File(element);
+            if (element.endsWith(SOURCES_SUFFIX)) {
+                candidates.add(jar);
+                continue;
+            }
+            candidates.add(new File(element.substring(0, element.length() - ".jar".length()) + SOURCES_SUFFIX));
+            result.addAll(extractNested(jar));
+        }
+
+        for (File candidate : candidates) {
+            if (candidate.isFile()) {
+                try {
+                    result.add(new JarFile(candidate));
+                } catch (IOException e) {
+                    Diagnostics.warn("Failed to open sources jar {}: {}", candidate, e.getMessage());
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Extracts source jars nested in an executable archive.
+     *
+     * @param archive the class path jar
+     * @return the extracted source jars
+     */
+    private List<JarFile> extractNested(File archive) {
+        List<JarFile> result = new ArrayList<>();
+        if (!archive.isFile()) {
+            return result;
+        }
+
+        try (JarFile outer = new JarFile(archive)) {
+            Enumeration<JarEntry> entries = outer.entries();
+            while (entries.hasMoreElements()) {
+                JarEntry entry = entries.nextElement();
+                if (!isNestedSourcesJar(entry.getName())) {
+                    continue;
+                }
+                Path file = Files.createTempFile("hawk-", SOURCES_SUFFIX);
+                file.toFile().deleteOnExit();
+                extracted.add(file);
+                try (InputStream in = outer.getInputStream(entry)) {
+                    Files.copy(in, file, StandardCopyOption.REPLACE_EXISTING);
+                }
+                result.add(new JarFile(file.toFile()));
+            }
+        } catch (IOException e) {
+            Diagnostics.warn("Failed to scan {} for nested sources: {}", archive, e.getMessage());
+        }
+        return result;
+    }
+
+    /**
+     * Checks whether an archive entry is a source jar in a nested library directory.
+     *
+     * @param name the entry name
+     * @return true for nested source jars
+     */
+    private static boolean isNestedSourcesJar(String name) {
+        if (!name.endsWith(SOURCES_SUFFIX)) {
+            return false;
+        }
+        for (String directory : NESTED_LIB_DIRECTORIES) {
+            if (name.startsWith(directory)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reads a stream to the end.
+     *
+     * @param in the stream
+     * @return the content
+     * @throws IOException if the stream cannot be read
+     */
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,219 @@
+package so.hawk.catcher;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * Immutable JSON object serialized once, used for the context and user data shared by all events.
+ * <p>
+ * Updates create a new snapshot, which is swapped in atomically; events keep the snapshot they were
+ * composed with. JSON objects and arrays, maps and collections are copied deeply when they are set and
+ * again when the values are handed out as a mutable object, so neither the caller nor event processors
+ * can change a snapshot shared by other events.
+ */
+final class JsonSnapshot {
+    /**
+     * Snapshot without values.
+     */
+    static final JsonSnapshot EMPTY = new JsonSnapshot(Collections.emptyMap());
+
+    /**
+     * Values in insertion order, unmodifiable.
+     */
+    private final Map<String, Object> values;
+
+    /**
+     * The serialized object.
+     */
+    private final byte[] json;
+
+    /**
+     * The serialized object without its closing brace, for appending more members.
+     */
+    private final JsonWriter.Prefix open;
+
+    /**
+     * Creates a snapshot and serializes it.
+     *
+     * @param values the values, not copied
+     */
+    private JsonSnapshot(Map<String, Object> values) {
+        this.values = Collections.unmodifiableMap(values);
+        JsonWriter writer = new JsonWriter();
+        writer.beginObject();
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            writer.name(entry.getKey()).value(entry.getValue());
+        }
+        this.open = writer.toPrefix();
+        writer.endObject();
+        this.json = writer.toByteArray();
+    }
+
+    /**
+     * Creates a snapshot of a JSON object.
+     *
+     * @param object the object, or null for an empty snapshot
+     * @return the snapshot
+     */
+    static JsonSnapshot of(JSONObject object) {
+        if (object == null || object.isEmpty()) {
+            return EMPTY;
+        }
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (String key : object.keySet()) {
+            values.put(key, deepCopy(object.opt(key)));
+        }
+        return new JsonSnapshot(values);
+    }
+
+    /**
+     * Returns a snapshot with a value set.
+     *
+     * @param key   the key
+     * @param value the value, or null to remove the key
+     * @return the new snapshot
+     */
+    JsonSnapshot with(String key, Object value) {
+        if (value == null) {
+            return without(key);
+        }
+        Map<String, Object> copy = new LinkedHashMap<>(values);
+        copy.put(key, deepCopy(value));
+        return new JsonSnapshot(copy);
+    }
+
+    /**
+     * Returns a snapshot without a key.
+     *
+     * @param key the key
+     * @return the new snapshot, or this one if the key is absent
+     */
+    JsonSnapshot without(String key) {
+        if (!values.containsKey(key)) {
+            return this;
+        }
+        Map<String, Object> copy = new LinkedHashMap<>(values);
+        copy.remove(key);
+        return copy.isEmpty() ? EMPTY : new JsonSnapshot(copy);
+    }
+
+    /**
+     * Gets a value as a string, like {@link JSONObject#optString(String)}.
+     *
+     * @param key the key
+     * @return the value as a string, or an empty string if absent
+     */
+    String optString(String key) {
+        Object value = values.get(key);
+        return value != null ? value.toString() : "";
+    }
+
+    /**
+     * Copies the values and those of a scope into a mutable JSON object.
+     *
+     * @param scope the innermost scope whose values override the snapshot, or null
+     * @return the copy
+     */
+    JSONObject toJSONObject(ContextScope scope) {
+        JSONObject object = new JSONObject();
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            object.put(entry.getKey(), deepCopy(entry.getValue()));
+        }
+        for (ContextScope current = scope; current != null; current = current.parent) {
+            if (!scope.definesBefore(current.key, current)) {
+                object.put(current.key, deepCopy(current.value));
+            }
+        }
+        return object;
+    }
+
+    /**
+     * Copies JSON objects and arrays, maps, iterables and object arrays with all nested containers.
+     * Other values are returned as they are.
+     *
+     * @param value the value
+     * @return the copy
+     */
+    static Object deepCopy(Object value) {
+        if (value instanceof JSONObject) {
+            JSONObject source = (JSONObject) value;
+            JSONObject copy = new JSONObject();
+            for (String key : source.keySet()) {
+                copy.put(key, deepCopy(source.opt(key)));
+            }
+            return copy;
+        }
+        if (value instanceof JSONArray) {
+            JSONArray source = (JSONArray) value;
+            JSONArray copy = new JSONArray();
+            for (int i = 0; i < source.length(); i++) {
+                copy.put(deepCopy(source.opt(i)));
+            }
+            return copy;
+        }
+        if (value instanceof Map) {
+            Map<String, Object> copy = new LinkedHashMap<>();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                copy.put(String.valueOf(entry.getKey()), deepCopy(entry.getValue()));
+            }
+            return copy;
+        }
+        if (value instanceof Iterable) {
+            List<Object> copy = new ArrayList<>();
+            for (Object element : (Iterable<?>) value) {
+                copy.add(deepCopy(element));
+            }
+            return copy;
+        }
+        if (value instanceof Object[]) {
+            Object[] source = (Object[]) value;
+            Object[] copy = new Object[source.length];
+            for (int i = 0; i < source.length; i++) {
+                copy[i] = deepCopy(source[i]);
+            }
+            return copy;
+        }
+        return value;
+    }
+
+    /**
+     * Writes the object merged with the values of a scope. Without a scope the serialized bytes are
+     * copied as they are; with one they are extended unless the scope overrides a key of the snapshot.
+     *
+     * @param writer the writer
+     * @param scope  the innermost scope whose values override the snapshot, or null
+     */
+    void writeTo(JsonWriter writer, ContextScope scope) {
+        if (scope == null) {
+            writer.rawValue(json);
+            return;
+        }
+
+        boolean overridden = false;
+        for (ContextScope current = scope; current != null && !overridden; current = current.parent) {
+            overridden = values.containsKey(current.key);
+        }
+        if (overridden) {
+            writer.beginObject();
+            for (Map.Entry<String, Object> entry : values.entrySet()) {
+                if (!scope.definesBefore(entry.getKey(), null)) {
+                    writer.name(entry.getKey()).value(entry.getValue());
+                }
+            }
+        } else {
+            writer.prefix(open);
+        }
+        for (ContextScope current = scope; current != null; current = current.parent) {
+            if (!scope.definesBefore(current.key, current)) {
+                writer.name(current.key).value(current.value);
+            }
+        }
+        writer.endObject();
+    }
+}
@@ -0,0 +1,609 @@
+package so.hawk.catcher;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Map;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.json.JSONString;
+
+/**
+ * Streaming JSON writer producing UTF-8 directly into a byte buffer.
+ * <p>
+ * Strings are encoded character by character and numbers digit by digit, so writing an event does
+ * not create intermediate strings. Each thread reuses its own writer through {@link #forCurrentThread()};
+ * buffers that grew beyond {@link #MAX_RETAINED_BUFFER} are released on the next reset.
+ * Constant parts of a document can be serialized once with {@link #toPrefix()} or {@link #rawValue(byte[])}
+ * and copied into every later document. Not thread-safe.
+ */
+final class JsonWriter {
+    /**
+     * Pre-serialized start of a value that leaves one or more objects or arrays open,
+     * together with the writer state needed to continue writing inside them.
+     */
+    static final class Prefix {
+        /**
+         * UTF-8 encoded bytes.
+         */
+        private final byte[] bytes;
+
+        /**
+         * Whether each open container already has elements, outermost first.
+         */
+        private final boolean[] openContainers;
+
+        /**
+         * Creates a prefix.
+         *
+         * @param bytes          the encoded bytes
+         * @param openContainers whether each open container already has elements
+         */
+        private Prefix(byte[] bytes, boolean[] openContainers) {
+            this.bytes = bytes;
+            this.openContainers = openContainers;
+        }
+    }
+
+    /**
+     * Largest buffer kept between events; bigger ones are released on reset.
+     */
+    private static final int MAX_RETAINED_BUFFER = 1024 * 1024;
+
+    /**
+     * Initial buffer size.
+     */
+    private static final int INITIAL_BUFFER = 8192;
+
+    /**
+     * Hexadecimal digits used for escaped control characters.
+     */
+    private static final byte[] HEX_DIGITS = {'0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e', 'f'};
+
+    /**
+     * Bytes of the {@code null} literal.
+     */
+    private static final byte[] NULL = {'n', 'u', 'l', 'l'};
+
+    /**
+     * Bytes of the {@code true} literal.
+     */
+    private static final byte[] TRUE = {'t', 'r', 'u', 'e'};
+
+    /**
+     * Bytes of the {@code false} literal.
+     */
+    private static final byte[] FALSE = {'f', 'a', 'l', 's', 'e'};
+
+    /**
+     * Writer reused by each thread.
+     */
+    private static final ThreadLocal<JsonWriter> CURRENT = ThreadLocal.withInitial(JsonWriter::new);
+
+    /**
+     * Output buffer.
+     */
+    private byte[] buffer = new byte[INITIAL_BUFFER];
+
+    /**
+     * Number of bytes written.
+     */
+    private int position;
+
+    /**
+     * Whether the object or array at each nesting level already holds an element.
+     */
+    private boolean[] hasElements = new boolean[16];
+
+    /**
+     * Current nesting level, 0 at the top.
+     */
+    private int depth;
+
+    /**
+     * Set after a field name, so the following value is not preceded by a comma.
+     */
+    private boolean afterName;
+
+    /**
+     * Returns the writer of the calling thread, reset and ready for a new document.
+     *
+     * @return the writer
+     */
+    static JsonWriter forCurrentThread() {
+        JsonWriter writer = CURRENT.get();
+        writer.reset();
+        return writer;
+    }
+
+    /**
+     * Discards the written document.
+     */
+    void reset() {
+        if (buffer.length > MAX_RETAINED_BUFFER) {
+            buffer = new byte[INITIAL_BUFFER];
+        }
+        position = 0;
+        depth = 0;
+        hasElements[0] = false;
+        afterName = false;
+    }
+
+    /**
+     * Starts an object.
+     *
+     * @return this writer
+     */
+    JsonWriter beginObject() {
+        beforeValue();
+        put((byte) '{');
+        push();
+        return this;
+    }
+
+    /**
+     * Ends the current object.
+     *
+     * @return this writer
+     */
+    JsonWriter endObject() {
+        depth--;
+        put((byte) '}');
+        return this;
+    }
+
+    /**
+     * Starts an array.
+     *
+     * @return this writer
+     */
+    JsonWriter beginArray() {
+        beforeValue();
+        put((byte) '[');
+        push();
+        return this;
+    }
+
+    /**
+     * Ends the current array.
+     *
+     * @return this writer
+     */
+    JsonWriter endArray() {
+        depth--;
+        put((byte) ']');
+        return this;
+    }
+
+    /**
+     * Writes a field name. Must be followed by a value.
+     *
+     * @param name the field name
+     * @return this writer
+     */
+    JsonWriter name(String name) {
+        separate();
+        writeString(name);
+        put((byte) ':');
+        afterName = true;
+        return this;
+    }
+
+    /**
+     * Writes a string value.
+     *
+     * @param value the value, null writes {@code null}
+     * @return this writer
+     */
+    JsonWriter value(String value) {
+        if (value == null) {
+            return nullValue();
+        }
+        beforeValue();
+        writeString(value);
+        return this;
+    }
+
+    /**
+     * Writes an integer value.
+     *
+     * @param value the value
+     * @return this writer
+     */
+    JsonWriter value(long value) {
+        beforeValue();
+        writeLong(value);
+        return this;
+    }
+
+    /**
+     * Writes a boolean value.
+     *
+     * @param value the value
+     * @return this writer
+     */
+    JsonWriter value(boolean value) {
+        beforeValue();
+        putAll(value ? TRUE : FALSE);
+        return this;
+    }
+
+    /**
+     * Writes {@code null}.
+     *
+     * @return this writer
+     */
+    JsonWriter nullValue() {
+        beforeValue();
+        putAll(NULL);
+        return this;
+    }
+
+    /**
+     * Writes an arbitrary value: org.json objects and arrays, maps, iterables, arrays, numbers,
+     * booleans and strings are written as their JSON counterparts, anything else as its string form.
+     *
+     * @param value the value, null or {@link JSONObject#NULL} writes {@code null}
+     * @return this writer
+     */
+    JsonWriter value(Object value) {
+        if (value == null || JSONObject.NULL.equals(value)) {
+            return nullValue();
+        }
+        if (value instanceof String) {
+            return value((String) value);
+        }
+        if (value instanceof Boolean) {
+            return value(((Boolean) value).booleanValue());
+        }
+        if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            return value(((Number) value).longValue());
+        }
+        if (value instanceof Double || value instanceof Float) {
+            double number = ((Number) value).doubleValue();
+            return Double.isNaN(number) || Double.isInfinite(number) ? nullValue() : raw(value.toString());
+        }
+        if (value instanceof BigInteger || value instanceof BigDecimal) {
+            return raw(value.toString());
+        }
+        if (value instanceof JSONObject) {
+            JSONObject object = (JSONObject) value;
+            beginObject();
+            for (String key : object.keySet()) {
+                name(key).value(object.opt(key));
+            }
+            return endObject();
+        }
+        if (value instanceof JSONArray) {
+            JSONArray array = (JSONArray) value;
+            beginArray();
+            for (int i = 0; i < array.length(); i++) {
+                value(array.opt(i));
+            }
+            return endArray();
+        }
+        if (value instanceof Map) {
+            beginObject();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                name(String.valueOf(entry.getKey())).value(entry.getValue());
+            }
+            return endObject();
+        }
+        if (value instanceof Iterable) {
+            beginArray();
+            for (Object element : (Iterable<?>) value) {
+                value(element);
+            }
+            return endArray();
+        }
+        if (value instanceof Object[]) {
+            beginArray();
+            for (Object element : (Object[]) value) {
+                value(element);
+            }
+            return endArray();
+        }
+        if (value instanceof JSONString) {
+            beforeValue();
+            writeUtf8(((JSONString) value).toJSONString());
+            return this;
+        }
+        if (value instanceof Enum) {
+            return value(((Enum<?>) value).name());
+        }
+        return value(value.toString());
+    }
+
+    /**
+     * Writes a value that is already valid JSON.
+     *
+     * @param json the JSON text, ASCII only, such as a number
+     * @return this writer
+     */
+    private JsonWriter raw(String json) {
+        beforeValue();
+        writeAscii(json);
+        return this;
+    }
+
+    /**
+     * Writes ASCII text as is.
+     *
+     * @param text the text
+     */
+    private void writeAscii(String text) {
+        ensureCapacity(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            buffer[position++] = (byte) text.charAt(i);
+        }
+    }
+
+    /**
+     * Writes a complete value that was serialized before.
+     *
+     * @param json the UTF-8 encoded JSON value
+     * @return this writer
+     */
+    JsonWriter rawValue(byte[] json) {
+        beforeValue();
+        putAll(json);
+        return this;
+    }
+
+    /**
+     * Writes the start of a value that was captured with {@link #toPrefix()}. Writing continues
+     * inside its innermost open container, and each container still has to be closed.
+     *
+     * @param prefix the captured prefix
+     * @return this writer
+     */
+    JsonWriter prefix(Prefix prefix) {
+        beforeValue();
+        putAll(prefix.bytes);
+        for (boolean containerHasElements : prefix.openContainers) {
+            push();
+            hasElements[depth] = containerHasElements;
+        }
+        return this;
+    }
+
+    /**
+     * Captures what was written so far as a prefix. The writer must have written a single value
+     * that is still open, and must not be waiting for a value after a name.
+     *
+     * @return the prefix
+     * @throws IllegalStateException if no container is open or a value is expected
+     */
+    Prefix toPrefix() {
+        if (depth == 0 || afterName) {
+            throw new IllegalStateException("A prefix must end inside an open container.");
+        }
+        return new Prefix(toByteArray(), Arrays.copyOfRange(hasElements, 1, depth + 1));
+    }
+
+    /**
+     * Copies the written document.
+     *
+     * @return the UTF-8 encoded document
+     */
+    byte[] toByteArray() {
+        return Arrays.copyOf(buffer, position);
+    }
+
+    /**
+     * Gets the number of bytes written.
+     *
+     * @return the document size
+     */
+    int size() {
+        return position;
+    }
+
+    /**
+     * Writes a comma if the value is not the first element of its container.
+     */
+    private void beforeValue() {
+        if (afterName) {
+            afterName = false;
+        } else {
+            separate();
+        }
+    }
+
+    /**
+     * Writes a comma unless the current container is still empty.
+     */
+    private void separate() {
+        if (hasElements[depth]) {
+            put((byte) ',');
+        } else {
+            hasElements[depth] = true;
+        }
+    }
+
+    /**
+     * Enters a nested container.
+     */
+    private void push() {
+        depth++;
+        if (depth == hasElements.length) {
+            hasElements = Arrays.copyOf(hasElements, depth * 2);
+        }
+        hasElements[depth] = false;
+    }
+
+    /**
+     * Writes a quoted, escaped string as UTF-8.
+     *
+     * @param value the string
+     */
+    private void writeString(String value) {
+        int length = value.length();
+        ensureCapacity(length + 2);
+        buffer[position++] = '"';
+
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x20 && c < 0x80 && c != '"' && c != '\\') {
+                ensureCapacity(1);
+                buffer[position++] = (byte) c;
+                continue;
+            }
+
+            ensureCapacity(6);
+            if (c == '"' || c == '\\') {
+                buffer[position++] = '\\';
+                buffer[position++] = (byte) c;
+            } else if (c < 0x20) {
+                writeEscapedControl(c);
+            } else {
+                i = writeNonAscii(value, i);
+            }
+        }
+
+        ensureCapacity(1);
+        buffer[position++] = '"';
+    }
+
+    /**
+     * Writes text that is already valid JSON as UTF-8, without escaping.
+     *
+     * @param text the JSON text
+     */
+    private void writeUtf8(String text) {
+        int length = text.length();
+        ensureCapacity(length);
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                ensureCapacity(1);
+                buffer[position++] = (byte) c;
+            } else {
+                ensureCapacity(4);
+                i = writeNonAscii(text, i);
+            }
+        }
+    }
+
+    /**
+     * Writes a character of 0x80 or above as UTF-8, combining it with the next one if they form a
+     * surrogate pair. Unpaired surrogates are written as {@code ?}. The caller ensures room for 4 bytes.
+     *
+     * @param text the text
+     * @param i    the index of the character
+     * @return the index of the last character written
+     */
+    private int writeNonAscii(String text, int i) {
+        char c = text.charAt(i);
+        if (c < 0x800) {
+            buffer[position++] = (byte) (0xc0 | (c >> 6));
+            buffer[position++] = (byte) (0x80 | (c & 0x3f));
+        } else if (Character.isHighSurrogate(c) && i + 1 < text.length() && Character.isLowSurrogate(text.charAt(i + 1))) {
+            int codePoint = Character.toCodePoint(c, text.charAt(++i));
+            buffer[position++] = (byte) (0xf0 | (codePoint >> 18));
+            buffer[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3f));
+            buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3f));
+            buffer[position++] = (byte) (0x80 | (codePoint & 0x3f));
+        } else if (Character.isSurrogate(c)) {
+            buffer[position++] = '?';
+        } else {
+            buffer[position++] = (byte) (0xe0 | (c >> 12));
+            buffer[position++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+            buffer[position++] = (byte) (0x80 | (c & 0x3f));
+        }
+        return i;
+    }
+
+    /**
+     * Writes the escape sequence of a control character. The caller ensures capacity.
+     *
+     * @param c the control character
+     */
+    private void writeEscapedControl(char c) {
+        buffer[position++] = '\\';
+        switch (c) {
+            case '\n':
+                buffer[position++] = 'n';
+                break;
+            case '\r':
+                buffer[position++] = 'r';
+                break;
+            case '\t':
+                buffer[position++] = 't';
+                break;
+            case '\b':
+                buffer[position++] = 'b';
+                break;
+            case '\f':
+                buffer[position++] = 'f';
+                break;
+            default:
+                buffer[position++] = 'u';
+                buffer[position++] = '0';
+                buffer[position++] = '0';
+                buffer[position++] = HEX_DIGITS[c >> 4];
+                buffer[position++] = HEX_DIGITS[c & 0xf];
+        }
+    }
+
+    /**
+     * Writes the decimal digits of a long.
+     *
+     * @param value the value
+     */
+    private void writeLong(long value) {
+        if (value == Long.MIN_VALUE) {
+            writeAscii(Long.toString(value));
+            return;
+        }
+        ensureCapacity(20);
+        if (value < 0) {
+            buffer[position++] = '-';
+            value = -value;
+        }
+
+        int digits = 1;
+        for (long rest = value / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        int end = position + digits;
+        for (int i = end - 1; i >= position; i--) {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        position = end;
+    }
+
+    /**
+     * Writes a single byte.
+     *
+     * @param b the byte
+     */
+    private void put(byte b) {
+        ensureCapacity(1);
+        buffer[position++] = b;
+    }
+
+    /**
+     * Writes several bytes.
+     *
+     * @param bytes the bytes
+     */
+    private void putAll(byte[] bytes) {
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    /**
+     * Grows the buffer so it can take the given number of additional bytes.
+     *
+     * @param additional the number of bytes about to be written
+     */
+    private void ensureCapacity(int additional) {
+        if (buffer.length - position < additional) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + additional));
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package so.hawk.catcher;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with log-linear buckets, in the style of HdrHistogram.
+ * <p>
+ * Values below {@code 2^SUB_BUCKET_BITS} nanoseconds have exact buckets; above that, every power of
+ * two is split into {@code 2^(SUB_BUCKET_BITS - 1)} linear buckets, so a recorded value is off by at
+ * most about 3%. Recording is one atomic increment and never allocates.
+ */
+final class LatencyHistogram {
+    /**
+     * Precision of the buckets: 6 bits keep the relative error around 3%.
+     */
+    private static final int SUB_BUCKET_BITS = 6;
+
+    /**
+     * Number of exact buckets for the smallest values.
+     */
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * Number of buckets per power of two above the exact range.
+     */
+    private static final int HALF_SUB_BUCKET_COUNT = SUB_BUCKET_COUNT / 2;
+
+    /**
+     * Total number of buckets, covering every positive long.
+     */
+    private static final int BUCKET_COUNT = SUB_BUCKET_COUNT + (63 - SUB_BUCKET_BITS) * HALF_SUB_BUCKET_COUNT;
+
+    /**
+     * Number of values recorded in each bucket.
+     */
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+
+    /**
+     * Number of recorded values.
+     */
+    private final LongAdder count = new LongAdder();
+
+    /**
+     * Sum of recorded values.
+     */
+    private final LongAdder sum = new LongAdder();
+
+    /**
+     * Largest recorded value.
+     */
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records a duration.
+     *
+     * @param nanos the duration in nanoseconds; negative values are recorded as 0
+     */
+    void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(indexOf(value));
+        count.increment();
+        sum.add(value);
+        long current;
+        while (value > (current = max.get()) && !max.compareAndSet(current, value)) {
+            // retry until the maximum is updated or a larger value is recorded
+        }
+    }
+
+    /**
+     * Finds the bucket of a value.
+     *
+     * @param value the non-negative value
+     * @return the bucket index
+     */
+    static int indexOf(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (magnitude - SUB_BUCKET_BITS + 1));
+        return SUB_BUCKET_COUNT + (magnitude - SUB_BUCKET_BITS) * HALF_SUB_BUCKET_COUNT + subBucket - HALF_SUB_BUCKET_COUNT;
+    }
+
+    /**
+     * Gets the largest value that falls into a bucket.
+     *
+     * @param index the bucket index
+     * @return the upper bound of the bucket
+     */
+    static long highestValueOf(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int offset = index - SUB_BUCKET_COUNT;
+        int magnitude = SUB_BUCKET_BITS + offset / HALF_SUB_BUCKET_COUNT;
+        long subBucket = HALF_SUB_BUCKET_COUNT + offset % HALF_SUB_BUCKET_COUNT;
+        int shift = magnitude - SUB_BUCKET_BITS + 1;
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    /**
+     * Takes a consistent-enough snapshot for reporting; values recorded concurrently may be
+     * missing from some of the figures.
+     *
+     * @return the snapshot
+     */
+    HistogramSnapshot snapshot() {
+        long[] buckets = new long[BUCKET_COUNT];
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets[i] = counts.get(i);
+            total += buckets[i];
+        }
+        long maxValue = max.get();
+        return new HistogramSnapshot(total, sum.sum(), maxValue,
+                Math.min(maxValue, percentile(buckets, total, 0.5)), Math.min(maxValue, percentile(buckets, total, 0.9)),
+                Math.min(maxValue, percentile(buckets, total, 0.99)), Math.min(maxValue, percentile(buckets, total, 0.999)));
+    }
+
+    /**
+     * Finds the value below which the given fraction of recorded values fall.
+     *
+     * @param buckets  the bucket counts
+     * @param total    the number of values in the buckets
+     * @param fraction the fraction, e.g. 0.99
+     * @return the upper bound of the bucket holding the percentile, 0 if nothing was recorded
+     */
+    private static long percentile(long[] buckets, long total, double fraction) {
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(total * fraction));
+        long seen = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i];
+            if (seen >= rank) {
+                return highestValueOf(i);
+            }
+        }
+        return highestValueOf(buckets.length - 1);
+    }
+}
@@ -0,0 +1,21 @@
+package so.hawk.catcher;
+
+/**
+ * Defines what happens when an event is sent while the dispatch queue is full.
+ */
+public enum OverflowPolicy {
+    /**
+     * Discards the event being sent and keeps the queued ones.
+     */
+    DROP_NEWEST,
+
+    /**
+     * Discards the oldest queued event to make room for the new one.
+     */
+    DROP_OLDEST,
+
+    /**
+     * Waits for free space up to the configured enqueue timeout, then discards the new event.
+     */
+    BLOCK
+}
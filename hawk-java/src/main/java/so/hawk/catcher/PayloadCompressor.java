@@ -0,0 +1,171 @@
+package so.hawk.catcher;
+
+import java.io.Closeable;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Gzip-compresses request bodies into a buffer that is reused between events.
+ * <p>
+ * Not thread-safe: each sender thread owns its own compressor. The {@link Deflater} holds native
+ * memory, so compressors must be {@link #close() closed} when they are no longer needed.
+ */
+final class PayloadCompressor implements Closeable {
+    /**
+     * Gzip member header: magic, deflate method, no flags, no mtime, no extra flags, unknown OS.
+     */
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+    /**
+     * Size of the gzip trailer: CRC32 and uncompressed size.
+     */
+    private static final int GZIP_TRAILER_SIZE = 8;
+
+    /**
+     * Largest buffer kept between events; bigger ones are released after use.
+     */
+    private static final int MAX_RETAINED_BUFFER = 1024 * 1024;
+
+    /**
+     * Raw deflate compressor; gzip framing is written by hand.
+     */
+    private final Deflater deflater;
+
+    /**
+     * Checksum of the uncompressed body.
+     */
+    private final CRC32 crc = new CRC32();
+
+    /**
+     * Bodies smaller than this are sent uncompressed.
+     */
+    private final int minBytes;
+
+    /**
+     * Output buffer holding the last compressed body.
+     */
+    private byte[] buffer = new byte[8192];
+
+    /**
+     * Length of the last compressed body.
+     */
+    private int length;
+
+    /**
+     * Creates a compressor.
+     *
+     * @param level    the deflate level, 1 (fastest) to 9 (smallest)
+     * @param minBytes bodies smaller than this are not compressed
+     */
+    PayloadCompressor(int level, int minBytes) {
+        this.deflater = new Deflater(level, true);
+        this.minBytes = minBytes;
+    }
+
+    /**
+     * Creates a compressor configured by the settings.
+     *
+     * @param settings the configuration settings
+     * @return the compressor, or null if compression is disabled
+     */
+    static PayloadCompressor create(HawkSettings settings) {
+        if (!settings.isCompressionEnabled()) {
+            return null;
+        }
+        return new PayloadCompressor(settings.getCompressionLevel(), settings.getCompressionMinBytes());
+    }
+
+    /**
+     * Compresses the body into the internal buffer unless it is below the size threshold.
+     *
+     * @param input  the array holding the body
+     * @param offset the offset of the body
+     * @param len    the length of the body
+     * @return true if the body was compressed and {@link #buffer()} holds the result
+     */
+    boolean compress(byte[] input, int offset, int len) {
+        if (len < minBytes) {
+            return false;
+        }
+
+        if (buffer.length > MAX_RETAINED_BUFFER) {
+            buffer = new byte[8192];
+        }
+        System.arraycopy(GZIP_HEADER, 0, buffer, 0, GZIP_HEADER.length);
+        int position = GZIP_HEADER.length;
+
+        deflater.reset();
+        deflater.setInput(input, offset, len);
+        deflater.finish();
+        while (!deflater.finished()) {
+            if (position == buffer.length) {
+                grow(position);
+            }
+            position += deflater.deflate(buffer, position, buffer.length - position);
+        }
+
+        crc.reset();
+        crc.update(input, offset, len);
+        if (buffer.length - position < GZIP_TRAILER_SIZE) {
+            grow(position);
+        }
+        position = writeIntLE(buffer, position, (int) crc.getValue());
+        position = writeIntLE(buffer, position, len);
+
+        length = position;
+        return true;
+    }
+
+    /**
+     * Doubles the output buffer keeping the bytes written so far.
+     *
+     * @param used the number of bytes already written
+     */
+    private void grow(int used) {
+        byte[] larger = new byte[buffer.length * 2];
+        System.arraycopy(buffer, 0, larger, 0, used);
+        buffer = larger;
+    }
+
+    /**
+     * Writes an int in little-endian order, as required by the gzip trailer.
+     *
+     * @param target   the array to write to
+     * @param position the position to write at
+     * @param value    the value to write
+     * @return the position after the written value
+     */
+    private static int writeIntLE(byte[] target, int position, int value) {
+        target[position] = (byte) value;
+        target[position + 1] = (byte) (value >>> 8);
+        target[position + 2] = (byte) (value >>> 16);
+        target[position + 3] = (byte) (value >>> 24);
+        return position + 4;
+    }
+
+    /**
+     * Gets the buffer holding the last compressed body. Valid until the next call to {@link #compress}.
+     *
+     * @return the output buffer
+     */
+    byte[] buffer() {
+        return buffer;
+    }
+
+    /**
+     * Gets the length of the last compressed body.
+     *
+     * @return the compressed length
+     */
+    int length() {
+        return length;
+    }
+
+    /**
+     * Releases the native memory held by the deflater.
+     */
+    @Override
+    public void close() {
+        deflater.end();
+    }
+}
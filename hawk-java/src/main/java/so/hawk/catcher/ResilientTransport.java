@@ -0,0 +1,144 @@
+package so.hawk.catcher;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wraps a transport with retries and a circuit breaker.
+ * <p>
+ * Network errors, 429 and 5xx responses are retried with exponential backoff and jitter, honoring
+ * {@code Retry-After}. Consecutive failures open the circuit breaker, after which requests fail
+ * immediately instead of waiting for connect timeouts, until a probe request succeeds. A
+ * {@code Retry-After} longer than the maximum retry delay opens the breaker for that long, up to
+ * the configured maximum pause.
+ */
+class ResilientTransport implements HawkTransport {
+    /**
+     * Transport performing the actual requests.
+     */
+    private final HawkTransport delegate;
+
+    /**
+     * Retry schedule.
+     */
+    private final RetryPolicy retryPolicy;
+
+    /**
+     * Breaker shared by all requests to the collector.
+     */
+    private final CircuitBreaker circuitBreaker;
+
+    /**
+     * Longest pause honored when the collector asks to retry later.
+     */
+    private final long maxPauseMillis;
+
+    /**
+     * Records the duration of each request attempt.
+     */
+    private final LatencyHistogram roundTrips;
+
+    /**
+     * Creates a resilient transport.
+     *
+     * @param delegate       the transport performing the actual requests
+     * @param retryPolicy    the retry schedule
+     * @param circuitBreaker the circuit breaker
+     * @param maxPauseMillis the longest pause honored when the collector asks to retry later
+     * @param roundTrips     records the duration of each request attempt
+     */
+    ResilientTransport(HawkTransport delegate, RetryPolicy retryPolicy, CircuitBreaker circuitBreaker,
+                       long maxPauseMillis, LatencyHistogram roundTrips) {
+        this.delegate = delegate;
+        this.retryPolicy = retryPolicy;
+        this.circuitBreaker = circuitBreaker;
+        this.maxPauseMillis = maxPauseMillis;
+        this.roundTrips = roundTrips;
+    }
+
+    @Override
+    public HawkResponse send(HawkRequest request) throws IOException {
+        int attempt = 0;
+        while (true) {
+            if (!circuitBreaker.allowRequest()) {
+                throw new IOException("Circuit breaker is open, request skipped.");
+            }
+            attempt++;
+
+            HawkResponse response;
+            long start = System.nanoTime();
+            try {
+                response = delegate.send(request);
+            } catch (RuntimeException e) {
+                // Still record the outcome, or a failed probe would leave the breaker half-open.
+                roundTrips.record(System.nanoTime() - start);
+                circuitBreaker.onFailure();
+                throw e;
+            } catch (IOException e) {
+                roundTrips.record(System.nanoTime() - start);
+                circuitBreaker.onFailure();
+                if (attempt >= retryPolicy.getMaxAttempts()) {
+                    throw e;
+                }
+                if (Diagnostics.isEnabled(DiagnosticsLevel.DEBUG)) {
+                    Diagnostics.debug("Attempt {} failed, retrying: {}", attempt, e.getMessage());
+                }
+                pause(retryPolicy.backoffMillis(attempt));
+                continue;
+            }
+
+            roundTrips.record(System.nanoTime() - start);
+
+            if (!RetryPolicy.isRetryable(response.getStatusCode())) {
+                circuitBreaker.onSuccess();
+                return response;
+            }
+
+            long retryAfter = RetryPolicy.parseRetryAfter(response.getHeader("Retry-After"));
+            if (retryAfter > retryPolicy.getMaxDelayMillis()) {
+                long pauseMillis = Math.min(retryAfter, maxPauseMillis);
+                circuitBreaker.openFor(TimeUnit.MILLISECONDS.toNanos(pauseMillis));
+                Diagnostics.info("Collector asked to retry after {} ms, pausing delivery for {} ms.",
+                        retryAfter, pauseMillis);
+                return response;
+            }
+            circuitBreaker.onFailure();
+            if (attempt >= retryPolicy.getMaxAttempts()) {
+                return response;
+            }
+            pause(retryAfter >= 0 ? retryAfter : retryPolicy.backoffMillis(attempt));
+        }
+    }
+
+    /**
+     * Sleeps between attempts.
+     *
+     * @param millis the delay in milliseconds
+     * @throws IOException if the thread is interrupted
+     */
+    private static void pause(long millis) throws IOException {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting to retry.", e);
+        }
+    }
+
+    /**
+     * Gets the circuit breaker.
+     *
+     * @return the circuit breaker
+     */
+    CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+}
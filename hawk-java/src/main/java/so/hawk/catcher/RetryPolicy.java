@@ -0,0 +1,116 @@
+package so.hawk.catcher;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides whether a failed request is retried and how long to wait before the next attempt.
+ * <p>
+ * Delays grow exponentially from the initial delay up to the maximum, with full jitter: the actual
+ * delay is a random value between zero and the exponential bound, so clients do not retry in lockstep.
+ */
+class RetryPolicy {
+    /**
+     * Largest {@code Retry-After} value in seconds whose milliseconds fit in a long.
+     */
+    private static final long MAX_RETRY_AFTER_SECONDS = Long.MAX_VALUE / 1000;
+
+    /**
+     * Maximum number of attempts including the first one.
+     */
+    private final int maxAttempts;
+
+    /**
+     * Upper bound of the delay before the second attempt.
+     */
+    private final long initialDelayMillis;
+
+    /**
+     * Upper bound of any delay.
+     */
+    private final long maxDelayMillis;
+
+    /**
+     * Creates a retry policy.
+     *
+     * @param maxAttempts        the maximum number of attempts including the first one
+     * @param initialDelayMillis the upper bound of the first delay
+     * @param maxDelayMillis     the upper bound of any delay
+     */
+    RetryPolicy(int maxAttempts, long initialDelayMillis, long maxDelayMillis) {
+        this.maxAttempts = maxAttempts;
+        this.initialDelayMillis = initialDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+    }
+
+    /**
+     * Checks whether a response is worth retrying.
+     *
+     * @param statusCode the HTTP status code
+     * @return true for 429 and 5xx responses
+     */
+    static boolean isRetryable(int statusCode) {
+        return statusCode == 429 || statusCode >= 500;
+    }
+
+    /**
+     * Computes the delay before the next attempt.
+     *
+     * @param attempt the number of attempts made so far, starting at 1
+     * @return the delay in milliseconds
+     */
+    long backoffMillis(int attempt) {
+        int shift = Math.min(attempt - 1, 30);
+        long bound = Math.min(maxDelayMillis, initialDelayMillis << shift);
+        return bound > 0 ? ThreadLocalRandom.current().nextLong(bound + 1) : 0;
+    }
+
+    /**
+     * Parses a {@code Retry-After} header given either in seconds or as an HTTP date.
+     *
+     * @param value the header value, may be null
+     * @return the delay in milliseconds, or -1 if the header is absent or malformed
+     */
+    static long parseRetryAfter(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return -1;
+        }
+        String trimmed = value.trim();
+        try {
+            long seconds = Long.parseLong(trimmed);
+            return seconds > 0 ? Math.min(seconds, MAX_RETRY_AFTER_SECONDS) * 1000 : 0;
+        } catch (NumberFormatException ignored) {
+            // not a number of seconds, try the date form
+        }
+        try {
+            SimpleDateFormat format = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss zzz", Locale.US);
+            format.setTimeZone(TimeZone.getTimeZone("GMT"));
+            Date date = format.parse(trimmed);
+            return Math.max(0, date.getTime() - System.currentTimeMillis());
+        } catch (ParseException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Gets the maximum number of attempts.
+     *
+     * @return the maximum number of attempts including the first one
+     */
+    int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * Gets the upper bound of any delay.
+     *
+     * @return the maximum delay in milliseconds
+     */
+    long getMaxDelayMillis() {
+        return maxDelayMillis;
+    }
+}
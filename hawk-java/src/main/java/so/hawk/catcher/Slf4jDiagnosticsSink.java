@@ -0,0 +1,31 @@
+package so.hawk.catcher;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Forwards diagnostics messages to SLF4J. Only loaded when SLF4J is on the class path.
+ */
+final class Slf4jDiagnosticsSink implements Diagnostics.Sink {
+    /**
+     * Logger receiving the messages.
+     */
+    private final Logger logger = LoggerFactory.getLogger("so.hawk.catcher");
+
+    @Override
+    public void write(DiagnosticsLevel level, long timeMillis, String threadName, String message, Throwable thrown) {
+        switch (level) {
+            case ERROR:
+                logger.error(message, thrown);
+                break;
+            case WARN:
+                logger.warn(message, thrown);
+                break;
+            case INFO:
+                logger.info(message, thrown);
+                break;
+            default:
+                logger.debug(message, thrown);
+        }
+    }
+}
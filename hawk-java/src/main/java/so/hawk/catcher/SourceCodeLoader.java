@@ -0,0 +1,251 @@
+package so.hawk.catcher;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Loads source code snippets for stack frames, with bounded caches so an exception storm
+ * does not repeat disk I/O.
+ * <p>
+ * Sources are looked up by a chain of resolvers: the configured source roots first, then
+ * {@code -sources.jar} files. Lookups and reads run on a single background thread; callers get
+ * a future per snippet and wait for them no longer than the configured deadline. Snippets are
+ * memoized by class name and line number, resolved files (and failed lookups) by class name.
+ * Frames of JDK classes are never looked up. {@link #close()} stops the thread and releases the
+ * files held by the resolvers.
+ */
+class SourceCodeLoader {
+    /**
+     * Number of lines before the frame line included in a snippet.
+     */
+    private static final int LINES_BEFORE = 10;
+
+    /**
+     * Number of lines after the frame line included in a snippet.
+     */
+    private static final int LINES_AFTER = 9;
+
+    /**
+     * Package prefixes of classes whose sources are never available.
+     */
+    private static final String[] SKIPPED_PACKAGES = {"java.", "javax.", "jdk.", "sun.", "com.sun."};
+
+    /**
+     * Marker cached for classes whose source file was not found.
+     */
+    private static final SourceFile NOT_FOUND = new SourceFile.InMemory(new byte[0]);
+
+    /**
+     * Resolvers asked for source files, in order.
+     */
+    private final List<SourceResolver> resolvers = new ArrayList<>();
+
+    /**
+     * Source files by class name, including failed lookups. Only used by the resolver thread.
+     */
+    private final Map<String, SourceFile> files;
+
+    /**
+     * Snippets by class name and line number, completed with an empty list if unavailable.
+     */
+    private final Map<String, CompletableFuture<List<SourceLine>>> snippets;
+
+    /**
+     * Thread resolving sources and reading snippets.
+     */
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * Creates a loader with the resolvers and cache size from the settings.
+     *
+     * @param settings the configuration settings
+     */
+    SourceCodeLoader(HawkSettings settings) {
+        int cacheSize = settings.getSourceCacheSize();
+        this.files = lruMap(cacheSize);
+        this.snippets = lruMap(cacheSize);
+
+        resolvers.add(new DirectorySourceResolver(settings.getSourceRoots()));
+        if (settings.isSourceJarsEnabled()) {
+            resolvers.add(new JarSourceResolver());
+        }
+
+        this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(cacheSize), runnable -> {
+                    Thread thread = new Thread(runnable, "hawk-source-resolver");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Creates a map that evicts the least recently used entry beyond the given size.
+     *
+     * @param maxSize the maximum number of entries
+     * @param <V>     the value type
+     * @return the map; callers synchronize on it
+     */
+    private static <V> Map<String, V> lruMap(int maxSize) {
+        return new LinkedHashMap<String, V>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Starts loading the snippet around the line of the given frame, unless it is cached or pending.
+     *
+     * @param element the stack frame
+     * @return the snippet future, or null if the frame has no source to look up
+     */
+    CompletableFuture<List<SourceLine>> request(StackTraceElement element) {
+        String className = element.getClassName();
+        int lineNumber = element.getLineNumber();
+        if (element.getFileName() == null || lineNumber <= 0 || isSkipped(className)) {
+            return null;
+        }
+
+        String key = className + ':' + lineNumber;
+        CompletableFuture<List<SourceLine>> snippet;
+        synchronized (snippets) {
+            snippet = snippets.get(key);
+            if (snippet != null) {
+                return snippet;
+            }
+            snippet = new CompletableFuture<>();
+            snippets.put(key, snippet);
+        }
+
+        CompletableFuture<List<SourceLine>> pending = snippet;
+        try {
+            executor.execute(() -> pending.complete(loadSnippet(element)));
+        } catch (RejectedExecutionException e) {
+            synchronized (snippets) {
+                snippets.remove(key, pending);
+            }
+            pending.complete(Collections.emptyList());
+        }
+        return snippet;
+    }
+
+    /**
+     * Stops the resolver thread, completing queued lookups with empty snippets, and closes the resolvers.
+     * Snippets requested afterwards are empty.
+     */
+    void close() {
+        executor.shutdownNow();
+        synchronized (snippets) {
+            for (CompletableFuture<List<SourceLine>> snippet : snippets.values()) {
+                snippet.complete(Collections.emptyList());
+            }
+        }
+        for (SourceResolver resolver : resolvers) {
+            resolver.close();
+        }
+    }
+
+    /**
+     * Waits for a snippet until the deadline.
+     *
+     * @param snippet       the snippet future, may be null
+     * @param deadlineNanos the {@link System#nanoTime()} value after which the caller stops waiting
+     * @return the snippet lines, or null if the source is unavailable or not loaded in time
+     */
+    static List<SourceLine> await(CompletableFuture<List<SourceLine>> snippet, long deadlineNanos) {
+        if (snippet == null) {
+            return null;
+        }
+        try {
+            List<SourceLine> lines = snippet.isDone()
+                    ? snippet.get()
+                    : snippet.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+            return lines.isEmpty() ? null : lines;
+        } catch (TimeoutException | ExecutionException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    /**
+     * Resolves the source file and reads the snippet window. Runs on the resolver thread.
+     *
+     * @param element the stack frame
+     * @return the snippet lines, empty if the source is unavailable
+     */
+    private List<SourceLine> loadSnippet(StackTraceElement element) {
+        SourceFile file = resolve(element.getClassName(), element.getFileName());
+        if (file == NOT_FOUND) {
+            return Collections.emptyList();
+        }
+        int lineNumber = element.getLineNumber();
+        try {
+            return file.window(lineNumber - LINES_BEFORE, lineNumber + LINES_AFTER);
+        } catch (IOException e) {
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Finds the source file of a class through the resolver chain, caching the result.
+     *
+     * @param className the fully qualified class name
+     * @param fileName  the source file name from the stack frame
+     * @return the file, or {@link #NOT_FOUND}
+     */
+    private SourceFile resolve(String className, String fileName) {
+        SourceFile cached = files.get(className);
+        if (cached != null) {
+            return cached;
+        }
+
+        int lastDot = className.lastIndexOf('.');
+        String packagePath = lastDot > 0 ? className.substring(0, lastDot).replace('.', '/') + "/" : "";
+        String sourcePath = packagePath + fileName;
+
+        SourceFile resolved = NOT_FOUND;
+        for (SourceResolver resolver : resolvers) {
+            try {
+                SourceFile file = resolver.resolve(sourcePath);
+                if (file != null) {
+                    resolved = file;
+                    break;
+                }
+            } catch (IOException e) {
+                Diagnostics.debug("Failed to read source {}: {}", sourcePath, e.getMessage());
+            }
+        }
+
+        files.put(className, resolved);
+        return resolved;
+    }
+
+    /**
+     * Checks whether the class belongs to the JDK, whose sources are never available.
+     *
+     * @param className the fully qualified class name
+     * @return true if the class should not be looked up
+     */
+    private static boolean isSkipped(String className) {
+        for (String prefix : SKIPPED_PACKAGES) {
+            if (className.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
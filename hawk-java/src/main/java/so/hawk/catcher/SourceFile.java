@@ -0,0 +1,207 @@
+package so.hawk.catcher;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Source file found by a {@link SourceResolver}.
+ * <p>
+ * The offsets of line starts are indexed on the first request, after which any window of lines
+ * is read directly from its byte range instead of scanning the file from the beginning.
+ * Instances are only used by the source resolver thread.
+ */
+abstract class SourceFile {
+    /**
+     * Byte offsets of line starts, built on first use.
+     */
+    private int[] lineStarts;
+
+    /**
+     * Reads the lines in the given range.
+     *
+     * @param first the first line, starting at 1
+     * @param last  the last line, inclusive
+     * @return the lines, empty if the range is beyond the end of the file
+     * @throws IOException if the file cannot be read
+     */
+    List<SourceLine> window(int first, int last) throws IOException {
+        int[] starts = lineStarts();
+        first = Math.max(1, first);
+        last = Math.min(last, starts.length);
+        if (first > last) {
+            return Collections.emptyList();
+        }
+
+        long from = starts[first - 1];
+        long to = last < starts.length ? starts[last] : length();
+        byte[] bytes = read(from, (int) (to - from));
+
+        List<SourceLine> lines = new ArrayList<>(last - first + 1);
+        int lineStart = 0;
+        int lineNumber = first;
+        for (int i = 0; i <= bytes.length && lineNumber <= last; i++) {
+            if (i == bytes.length || bytes[i] == '\n') {
+                int lineEnd = i > lineStart && bytes[i - 1] == '\r' ? i - 1 : i;
+                lines.add(new SourceLine(lineNumber++, new String(bytes, lineStart, lineEnd - lineStart, StandardCharsets.UTF_8)));
+                lineStart = i + 1;
+            }
+        }
+        return Collections.unmodifiableList(lines);
+    }
+
+    /**
+     * Returns the line index, building it on first use.
+     *
+     * @return the byte offsets of line starts
+     * @throws IOException if the file cannot be read
+     */
+    private int[] lineStarts() throws IOException {
+        if (lineStarts == null) {
+            lineStarts = buildIndex();
+        }
+        return lineStarts;
+    }
+
+    /**
+     * Scans the file once recording where each line starts.
+     *
+     * @return the byte offsets of line starts
+     * @throws IOException if the file cannot be read
+     */
+    private int[] buildIndex() throws IOException {
+        int[] starts = new int[256];
+        int count = 1;
+        int position = 0;
+
+        try (InputStream in = new BufferedInputStream(open())) {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                for (int i = 0; i < read; i++) {
+                    if (buffer[i] == '\n') {
+                        if (count == starts.length) {
+                            starts = Arrays.copyOf(starts, count * 2);
+                        }
+                        starts[count++] = position + i + 1;
+                    }
+                }
+                position += read;
+            }
+        }
+
+        if (count > 1 && starts[count - 1] == position) {
+            count--;
+        }
+        return Arrays.copyOf(starts, count);
+    }
+
+    /**
+     * Opens the whole file for indexing.
+     *
+     * @return the file content stream
+     * @throws IOException if the file cannot be opened
+     */
+    protected abstract InputStream open() throws IOException;
+
+    /**
+     * Reads a byte range of the file.
+     *
+     * @param offset the start of the range
+     * @param length the length of the range
+     * @return the bytes
+     * @throws IOException if the file cannot be read
+     */
+    protected abstract byte[] read(long offset, int length) throws IOException;
+
+    /**
+     * Gets the file size in bytes.
+     *
+     * @return the file size
+     * @throws IOException if the size cannot be determined
+     */
+    protected abstract long length() throws IOException;
+
+    /**
+     * Source file on disk, read with positional reads.
+     */
+    static final class OnDisk extends SourceFile {
+        /**
+         * File path.
+         */
+        private final Path path;
+
+        /**
+         * Creates a source file backed by a file on disk.
+         *
+         * @param path the file path
+         */
+        OnDisk(Path path) {
+            this.path = path;
+        }
+
+        @Override
+        protected InputStream open() throws IOException {
+            return Files.newInputStream(path);
+        }
+
+        @Override
+        protected byte[] read(long offset, int length) throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate(length);
+            try (FileChannel channel = FileChannel.open(path)) {
+                while (buffer.hasRemaining() && channel.read(buffer, offset + buffer.position()) != -1) {
+                    // keep reading until the range is complete
+                }
+            }
+            return Arrays.copyOf(buffer.array(), buffer.position());
+        }
+
+        @Override
+        protected long length() throws IOException {
+            return Files.size(path);
+        }
+    }
+
+    /**
+     * Source file held in memory, e.g. an entry of a sources jar.
+     */
+    static final class InMemory extends SourceFile {
+        /**
+         * File content.
+         */
+        private final byte[] content;
+
+        /**
+         * Creates a source file backed by its content.
+         *
+         * @param content the file content
+         */
+        InMemory(byte[] content) {
+            this.content = content;
+        }
+
+        @Override
+        protected InputStream open() {
+            return new java.io.ByteArrayInputStream(content);
+        }
+
+        @Override
+        protected byte[] read(long offset, int length) {
+            return Arrays.copyOfRange(content, (int) offset, (int) offset + length);
+        }
+
+        @Override
+        protected long length() {
+            return content.length;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package so.hawk.catcher;
+
+/**
+ * A single line of a source code snippet attached to a stack frame.
+ */
+public final class SourceLine {
+    /**
+     * Line number, starting at 1.
+     */
+    private final int line;
+
+    /**
+     * Line content without the line terminator.
+     */
+    private final String content;
+
+    /**
+     * Creates a source line.
+     *
+     * @param line    the line number, starting at 1
+     * @param content the line content
+     */
+    public SourceLine(int line, String content) {
+        this.line = line;
+        this.content = content;
+    }
+
+    /**
+     * Gets the line number.
+     *
+     * @return the line number, starting at 1
+     */
+    public int getLine() {
+        return line;
+    }
+
+    /**
+     * Gets the line content.
+     *
+     * @return the content without the line terminator
+     */
+    public String getContent() {
+        return content;
+    }
+}
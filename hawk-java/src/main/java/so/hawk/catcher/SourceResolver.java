@@ -0,0 +1,24 @@
+package so.hawk.catcher;
+
+import java.io.IOException;
+
+/**
+ * Finds the source file for a stack frame. Resolvers are combined in a chain,
+ * the first one that finds the file wins.
+ */
+interface SourceResolver {
+    /**
+     * Looks up a source file.
+     *
+     * @param sourcePath the path relative to a source root, e.g. {@code so/hawk/catcher/Hawk.java}
+     * @return the source file, or null if this resolver does not have it
+     * @throws IOException if the source exists but cannot be read
+     */
+    SourceFile resolve(String sourcePath) throws IOException;
+
+    /**
+     * Releases the files held open by this resolver. Does nothing by default.
+     */
+    default void close() {
+    }
+}
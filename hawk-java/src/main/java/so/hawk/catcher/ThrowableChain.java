@@ -0,0 +1,165 @@
+package so.hawk.catcher;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Walks the causes and suppressed exceptions of a throwable in the order
+ * {@link Throwable#printStackTrace()} prints them.
+ * <p>
+ * Every throwable is visited once, so cyclic cause chains terminate. Frames a throwable shares with
+ * the end of its enclosing trace are not kept; only their number is, like the "... N more" lines of
+ * a printed stack trace.
+ */
+final class ThrowableChain {
+    /**
+     * Maximum number of linked throwables kept, whatever the depth.
+     */
+    static final int MAX_LINKS = 64;
+
+    private ThrowableChain() {
+    }
+
+    /**
+     * A cause or suppressed exception found while walking the chain.
+     */
+    static final class Link {
+        /**
+         * The linked throwable.
+         */
+        final Throwable throwable;
+
+        /**
+         * Whether the throwable was suppressed rather than a cause.
+         */
+        final boolean suppressed;
+
+        /**
+         * Nesting level, 1 for links of the reported exception.
+         */
+        final int depth;
+
+        /**
+         * Stack trace of the throwable.
+         */
+        final StackTraceElement[] stackTrace;
+
+        /**
+         * Number of leading stack trace elements that are not shared with the enclosing trace.
+         */
+        final int uniqueFrames;
+
+        /**
+         * Pending source snippets of the unique frames, or null if not requested.
+         */
+        List<CompletableFuture<List<SourceLine>>> snippets;
+
+        /**
+         * Creates a link.
+         *
+         * @param throwable    the linked throwable
+         * @param suppressed   whether it was suppressed rather than a cause
+         * @param depth        the nesting level
+         * @param stackTrace   its stack trace
+         * @param uniqueFrames the number of frames not shared with the enclosing trace
+         */
+        Link(Throwable throwable, boolean suppressed, int depth, StackTraceElement[] stackTrace, int uniqueFrames) {
+            this.throwable = throwable;
+            this.suppressed = suppressed;
+            this.depth = depth;
+            this.stackTrace = stackTrace;
+            this.uniqueFrames = uniqueFrames;
+        }
+
+        /**
+         * Gets the number of frames shared with the enclosing trace.
+         *
+         * @return the number of elided frames
+         */
+        int framesInCommon() {
+            return stackTrace.length - uniqueFrames;
+        }
+    }
+
+    /**
+     * Collects the causes and suppressed exceptions of a throwable.
+     *
+     * @param root       the reported throwable
+     * @param stackTrace the stack trace of the reported throwable
+     * @param maxDepth   the maximum nesting level, 0 to collect nothing
+     * @return the links in print order, empty if there are none
+     */
+    static List<Link> collect(Throwable root, StackTraceElement[] stackTrace, int maxDepth) {
+        if (maxDepth <= 0 || (root.getCause() == null && root.getSuppressed().length == 0)) {
+            return Collections.emptyList();
+        }
+        Set<Throwable> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        visited.add(root);
+        List<Link> links = new ArrayList<>();
+        collectEnclosed(root, stackTrace, 1, maxDepth, visited, links);
+        return links;
+    }
+
+    /**
+     * Adds the suppressed exceptions and the cause of a throwable, then theirs.
+     *
+     * @param enclosing      the throwable whose links are collected
+     * @param enclosingTrace its stack trace
+     * @param depth          the nesting level of its links
+     * @param maxDepth       the maximum nesting level
+     * @param visited        the throwables already seen
+     * @param links          the collected links
+     */
+    private static void collectEnclosed(Throwable enclosing, StackTraceElement[] enclosingTrace, int depth,
+                                        int maxDepth, Set<Throwable> visited, List<Link> links) {
+        for (Throwable suppressed : enclosing.getSuppressed()) {
+            add(suppressed, true, enclosingTrace, depth, maxDepth, visited, links);
+        }
+        Throwable cause = enclosing.getCause();
+        if (cause != null) {
+            add(cause, false, enclosingTrace, depth, maxDepth, visited, links);
+        }
+    }
+
+    /**
+     * Adds a linked throwable unless it was already seen or a limit is reached, then walks its links.
+     *
+     * @param throwable      the linked throwable
+     * @param suppressed     whether it was suppressed rather than a cause
+     * @param enclosingTrace the stack trace of the enclosing throwable
+     * @param depth          the nesting level
+     * @param maxDepth       the maximum nesting level
+     * @param visited        the throwables already seen
+     * @param links          the collected links
+     */
+    private static void add(Throwable throwable, boolean suppressed, StackTraceElement[] enclosingTrace, int depth,
+                            int maxDepth, Set<Throwable> visited, List<Link> links) {
+        if (depth > maxDepth || links.size() >= MAX_LINKS || !visited.add(throwable)) {
+            return;
+        }
+        StackTraceElement[] trace = throwable.getStackTrace();
+        links.add(new Link(throwable, suppressed, depth, trace, uniqueFrames(trace, enclosingTrace)));
+        collectEnclosed(throwable, trace, depth + 1, maxDepth, visited, links);
+    }
+
+    /**
+     * Counts the frames of a trace that precede the frames it shares with the end of the enclosing trace.
+     *
+     * @param trace          the stack trace
+     * @param enclosingTrace the stack trace of the enclosing throwable
+     * @return the number of unique leading frames
+     */
+    static int uniqueFrames(StackTraceElement[] trace, StackTraceElement[] enclosingTrace) {
+        int m = trace.length - 1;
+        int n = enclosingTrace.length - 1;
+        while (m >= 0 && n >= 0 && trace[m].equals(enclosingTrace[n])) {
+            m--;
+            n--;
+        }
+        return m + 1;
+    }
+}
@@ -0,0 +1,76 @@
+package so.hawk.catcher;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket.
+ * <p>
+ * Implemented as the generic cell rate algorithm: instead of a token count the bucket stores the
+ * theoretical arrival time of the next event, so acquiring a token is a single CAS on one
+ * {@link AtomicLong} and allocates nothing.
+ */
+final class TokenBucket {
+    /**
+     * Time between two events at the sustained rate.
+     */
+    private final long intervalNanos;
+
+    /**
+     * How far ahead of real time the arrival time may run: (burst - 1) intervals.
+     */
+    private final long toleranceNanos;
+
+    /**
+     * Theoretical arrival time of the next event, in {@link System#nanoTime()} units.
+     */
+    private final AtomicLong nextArrival;
+
+    /**
+     * Creates a full bucket.
+     *
+     * @param eventsPerSecond the sustained rate
+     * @param burst           the maximum number of events allowed at once
+     */
+    TokenBucket(double eventsPerSecond, int burst) {
+        this.intervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / eventsPerSecond));
+        this.toleranceNanos = intervalNanos * (Math.max(1, burst) - 1);
+        this.nextArrival = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * Takes a token if one is available.
+     *
+     * @return true if the event may pass
+     */
+    boolean tryAcquire() {
+        long now = System.nanoTime();
+        while (true) {
+            long arrival = nextArrival.get();
+            long start = arrival - now > 0 ? arrival : now;
+            if (start - now > toleranceNanos) {
+                return false;
+            }
+            if (nextArrival.compareAndSet(arrival, start + intervalNanos)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Returns a token taken by {@link #tryAcquire()} for an event that was rejected by another limit.
+     */
+    void refund() {
+        nextArrival.addAndGet(-intervalNanos);
+    }
+
+    /**
+     * Checks whether the bucket has refilled completely, so replacing it with a new one changes nothing.
+     *
+     * @param now the current {@link System#nanoTime()}
+     * @return true if the bucket is full
+     */
+    boolean isFull(long now) {
+        return nextArrival.get() - now <= 0;
+    }
+}
@@ -0,0 +1,138 @@
+package so.hawk.catcher;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transport based on {@link HttpURLConnection}, used on Java 8.
+ * <p>
+ * Connections are pooled by the JDK keep-alive cache, which only reuses a socket after its
+ * response has been read to the end. This transport therefore always drains the response or
+ * error stream. The cache size and idle timeout are JDK-wide ({@code http.maxConnections} and the
+ * server's Keep-Alive header), so here the pool size only bounds the number of concurrent requests.
+ */
+class UrlConnectionTransport implements HawkTransport {
+    /**
+     * Limits the number of requests in flight to the configured pool size.
+     */
+    private final Semaphore connections;
+
+    /**
+     * Connect timeout in milliseconds.
+     */
+    private final int connectTimeoutMillis;
+
+    /**
+     * Read timeout in milliseconds.
+     */
+    private final int requestTimeoutMillis;
+
+    /**
+     * Creates a transport with the pool and timeouts from the settings.
+     *
+     * @param settings the configuration settings
+     */
+    UrlConnectionTransport(HawkSettings settings) {
+        this.connections = new Semaphore(settings.getMaxConnections());
+        this.connectTimeoutMillis = (int) settings.getConnectTimeoutMillis();
+        this.requestTimeoutMillis = (int) settings.getRequestTimeoutMillis();
+    }
+
+    @Override
+    public HawkResponse send(HawkRequest request) throws IOException {
+        acquireConnection();
+        try {
+            return execute(request);
+        } finally {
+            connections.release();
+        }
+    }
+
+    /**
+     * Waits for a free connection slot no longer than the request timeout.
+     *
+     * @throws IOException if no slot became free in time
+     */
+    private void acquireConnection() throws IOException {
+        try {
+            if (!connections.tryAcquire(requestTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new IOException("Timed out waiting for a free connection.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for a free connection.", e);
+        }
+    }
+
+    /**
+     * Performs the request on a (possibly reused) connection.
+     *
+     * @param request the request to send
+     * @return the collector response
+     * @throws IOException if the request could not be completed
+     */
+    private HawkResponse execute(HawkRequest request) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(request.getEndpoint()).openConnection();
+        connection.setConnectTimeout(connectTimeoutMillis);
+        connection.setReadTimeout(requestTimeoutMillis);
+        connection.setRequestMethod("POST");
+        connection.setRequestProperty("Content-Type", "application/json");
+        for (Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+            connection.setRequestProperty(header.getKey(), header.getValue());
+        }
+        connection.setDoOutput(true);
+        connection.setFixedLengthStreamingMode(request.getLength());
+
+        try (OutputStream os = connection.getOutputStream()) {
+            os.write(request.getBody(), request.getOffset(), request.getLength());
+        }
+
+        int responseCode = connection.getResponseCode();
+        drain(responseCode >= 400 ? connection.getErrorStream() : connection.getInputStream());
+
+        return new HawkResponse(responseCode, readHeaders(connection));
+    }
+
+    /**
+     * Reads the stream to the end and closes it, so the socket goes back to the keep-alive cache.
+     *
+     * @param stream the response or error stream, may be null
+     * @throws IOException if the stream cannot be read
+     */
+    private static void drain(InputStream stream) throws IOException {
+        if (stream == null) {
+            return;
+        }
+        try (InputStream in = stream) {
+            byte[] buffer = new byte[1024];
+            while (in.read(buffer) != -1) {
+                // discard
+            }
+        }
+    }
+
+    /**
+     * Collects the response headers with lower-case names.
+     *
+     * @param connection the completed connection
+     * @return the response headers
+     */
+    private static Map<String, String> readHeaders(HttpURLConnection connection) {
+        Map<String, String> headers = new HashMap<>();
+        for (Map.Entry<String, List<String>> header : connection.getHeaderFields().entrySet()) {
+            if (header.getKey() != null && !header.getValue().isEmpty()) {
+                headers.put(header.getKey().toLowerCase(Locale.ROOT), header.getValue().get(0));
+            }
+        }
+        return headers;
+    }
+}
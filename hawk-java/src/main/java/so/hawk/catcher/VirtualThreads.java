@@ -0,0 +1,31 @@
+package so.hawk.catcher;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Creates virtual threads on Java 21+. The API is looked up reflectively, so the catcher still
+ * compiles and runs on Java 8.
+ */
+final class VirtualThreads {
+    private VirtualThreads() {
+    }
+
+    /**
+     * Creates a factory of virtual threads named with the prefix and a counter.
+     *
+     * @param namePrefix the thread name prefix
+     * @return the factory, or null if virtual threads are not available
+     */
+    static ThreadFactory factory(String namePrefix) {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 0L);
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+            // Before Java 21, or Java 19-20 without preview features enabled.
+            Diagnostics.debug("Virtual threads are not available: {}", e.toString());
+            return null;
+        }
+    }
+}
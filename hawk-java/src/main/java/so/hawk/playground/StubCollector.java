@@ -0,0 +1,267 @@
+package so.hawk.playground;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+import so.hawk.catcher.Hawk;
+
+/**
+ * Local stand-in for the Hawk collector, used to try the catcher without sending events to hawk.so.
+ * <p>
+ * Accepts single events as JSON objects and, if enabled, batches as JSON arrays of events.
+ * Batches are rejected with 400 when batch support is disabled, like a collector that does not understand them.
+ */
+public class StubCollector implements AutoCloseable {
+    /**
+     * Embedded HTTP server.
+     */
+    private final HttpServer server;
+
+    /**
+     * Threads handling requests, one per concurrent request.
+     */
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    /**
+     * Whether JSON arrays of events are accepted.
+     */
+    private volatile boolean acceptBatches;
+
+    /**
+     * Time each request takes before it is answered, in milliseconds.
+     */
+    private volatile long latencyMillis;
+
+    /**
+     * Number of HTTP requests received.
+     */
+    private final AtomicLong requests = new AtomicLong();
+
+    /**
+     * Number of events accepted.
+     */
+    private final AtomicLong events = new AtomicLong();
+
+    /**
+     * Number of requests answered with an error.
+     */
+    private final AtomicLong rejectedRequests = new AtomicLong();
+
+    /**
+     * Number of request body bytes received, as sent on the wire.
+     */
+    private final AtomicLong receivedBytes = new AtomicLong();
+
+    /**
+     * Starts the collector on a free local port.
+     *
+     * @param acceptBatches whether JSON arrays of events are accepted
+     * @throws IOException if the server cannot be started
+     */
+    public StubCollector(boolean acceptBatches) throws IOException {
+        this.acceptBatches = acceptBatches;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        this.server.createContext("/", this::handle);
+        this.server.setExecutor(executor);
+        this.server.start();
+    }
+
+    /**
+     * Handles a single request.
+     *
+     * @param exchange the HTTP exchange
+     * @throws IOException if the response cannot be written
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        int status;
+        try {
+            Object body = new JSONTokener(readBody(exchange)).nextValue();
+            if (body instanceof JSONObject) {
+                events.incrementAndGet();
+                status = 200;
+            } else if (body instanceof JSONArray && acceptBatches) {
+                events.addAndGet(((JSONArray) body).length());
+                status = 200;
+            } else {
+                status = 400;
+            }
+        } catch (Exception e) {
+            status = 400;
+        }
+
+        if (status != 200) {
+            rejectedRequests.incrementAndGet();
+        }
+        if (latencyMillis > 0) {
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        exchange.sendResponseHeaders(status, -1);
+        exchange.close();
+    }
+
+    /**
+     * Reads the request body as a string, decoding gzip if needed.
+     *
+     * @param exchange the HTTP exchange
+     * @return the request body
+     * @throws IOException if the body cannot be read
+     */
+    private String readBody(HttpExchange exchange) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        try (InputStream in = exchange.getRequestBody()) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                body.write(buffer, 0, read);
+            }
+        }
+        receivedBytes.addAndGet(body.size());
+
+        if (!"gzip".equalsIgnoreCase(exchange.getRequestHeaders().getFirst("Content-Encoding"))) {
+            return new String(body.toByteArray(), StandardCharsets.UTF_8);
+        }
+
+        ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(body.toByteArray()))) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                decoded.write(buffer, 0, read);
+            }
+        }
+        return new String(decoded.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Gets the URL to pass to {@code HawkSettings.setEndpoint}.
+     *
+     * @return the collector URL
+     */
+    public String getEndpoint() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+    }
+
+    /**
+     * Enables or disables batch support.
+     *
+     * @param acceptBatches whether JSON arrays of events are accepted
+     */
+    public void setAcceptBatches(boolean acceptBatches) {
+        this.acceptBatches = acceptBatches;
+    }
+
+    /**
+     * Delays every response, to simulate a distant or slow collector.
+     *
+     * @param latencyMillis the delay in milliseconds, 0 for none
+     */
+    public void setLatencyMillis(long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+    }
+
+    /**
+     * Gets the number of HTTP requests received.
+     *
+     * @return the number of requests
+     */
+    public long getRequests() {
+        return requests.get();
+    }
+
+    /**
+     * Gets the number of events accepted.
+     *
+     * @return the number of events
+     */
+    public long getEvents() {
+        return events.get();
+    }
+
+    /**
+     * Gets the number of requests answered with an error.
+     *
+     * @return the number of rejected requests
+     */
+    public long getRejectedRequests() {
+        return rejectedRequests.get();
+    }
+
+    /**
+     * Gets the number of request body bytes received, as sent on the wire.
+     *
+     * @return the number of received bytes
+     */
+    public long getReceivedBytes() {
+        return receivedBytes.get();
+    }
+
+    /**
+     * Creates a token the catcher accepts, for use with the stub collector.
+     *
+     * @return a Base64-encoded integration token
+     */
+    public static String stubToken() {
+        String json = "{\"integrationId\":\"stub\",\"secret\":\"stub\"}";
+        return Base64.getEncoder().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Stops the collector.
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    /**
+     * Sends a burst of events through a batching catcher to a stub collector that rejects batches,
+     * and prints how they were delivered.
+     *
+     * @param args command line arguments
+     * @throws Exception if the collector cannot be started
+     */
+    public static void main(String[] args) throws Exception {
+        boolean acceptBatches = args.length > 0 && Boolean.parseBoolean(args[0]);
+
+        try (StubCollector collector = new StubCollector(acceptBatches)) {
+            Hawk.init(config -> config.setToken(stubToken())
+                    .setEndpoint(collector.getEndpoint())
+                    .setAsync(true)
+                    .setBatchSize(50)
+                    .setBatchLingerMillis(100));
+
+            for (int i = 0; i < 500; i++) {
+                Hawk.send("Stub collector event " + i);
+            }
+
+            long deadline = System.currentTimeMillis() + 10000;
+            while (collector.getEvents() < 500 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+
+            System.out.printf("Events: %d, requests: %d, rejected requests: %d%n",
+                    collector.getEvents(), collector.getRequests(), collector.getRejectedRequests());
+        }
+    }
+}
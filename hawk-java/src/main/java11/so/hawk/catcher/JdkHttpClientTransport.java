@@ -0,0 +1,107 @@
+package so.hawk.catcher;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transport based on {@link HttpClient}, used on Java 11 and newer.
+ * <p>
+ * The client keeps connections alive between events. Its pool size and idle timeout are JVM-wide
+ * ({@code jdk.httpclient.connectionPoolSize} and {@code jdk.httpclient.keepalive.timeout}, read once
+ * per process) and are left to the application, so here the pool size only bounds the number of
+ * concurrent requests.
+ */
+class JdkHttpClientTransport implements HawkTransport {
+    /**
+     * Shared client keeping connections alive.
+     */
+    private final HttpClient client;
+
+    /**
+     * Limits the number of requests in flight to the configured pool size.
+     */
+    private final Semaphore connections;
+
+    /**
+     * Per-request timeout.
+     */
+    private final Duration requestTimeout;
+
+    /**
+     * Creates a transport with the concurrency limit and timeouts from the settings.
+     *
+     * @param settings the configuration settings
+     */
+    JdkHttpClientTransport(HawkSettings settings) {
+        this.client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(settings.getConnectTimeoutMillis()))
+                .build();
+        this.connections = new Semaphore(settings.getMaxConnections());
+        this.requestTimeout = Duration.ofMillis(settings.getRequestTimeoutMillis());
+    }
+
+    @Override
+    public HawkResponse send(HawkRequest request) throws IOException {
+        acquireConnection();
+        try {
+            HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(request.getEndpoint()))
+                    .timeout(requestTimeout)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(
+                            request.getBody(), request.getOffset(), request.getLength()));
+            for (Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+                builder.header(header.getKey(), header.getValue());
+            }
+
+            HttpResponse<Void> response = client.send(builder.build(), HttpResponse.BodyHandlers.discarding());
+            return new HawkResponse(response.statusCode(), readHeaders(response));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while sending the request.", e);
+        } finally {
+            connections.release();
+        }
+    }
+
+    /**
+     * Waits for a free connection slot no longer than the request timeout.
+     *
+     * @throws IOException if no slot became free in time
+     */
+    private void acquireConnection() throws IOException {
+        try {
+            if (!connections.tryAcquire(requestTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new IOException("Timed out waiting for a free connection.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for a free connection.", e);
+        }
+    }
+
+    /**
+     * Collects the response headers with lower-case names.
+     *
+     * @param response the completed response
+     * @return the response headers
+     */
+    private static Map<String, String> readHeaders(HttpResponse<?> response) {
+        Map<String, String> headers = new HashMap<>();
+        for (Map.Entry<String, List<String>> header : response.headers().map().entrySet()) {
+            if (!header.getValue().isEmpty()) {
+                headers.put(header.getKey().toLowerCase(Locale.ROOT), header.getValue().get(0));
+            }
+        }
+        return headers;
+    }
+}
@@ -0,0 +1,90 @@
+package so.hawk.catcher;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Round-trips events through a beforeSend callback.
+ */
+class BeforeSendProcessorTest {
+    /**
+     * Token with a valid integration ID.
+     */
+    private static final String TOKEN = Base64.getEncoder().encodeToString(
+            "{\"integrationId\":\"test\",\"secret\":\"s\"}".getBytes(StandardCharsets.UTF_8));
+
+    /**
+     * Client encoding the events.
+     */
+    private HawkClient client;
+
+    @BeforeEach
+    void setUp() {
+        client = new HawkClient(new HawkSettings(TOKEN)
+                .setEndpoint("http://127.0.0.1:9")
+                .setJmxEnabled(false)
+                .setShutdownHookEnabled(false)
+                .setContext("application", "PlaygroundApp")
+                .setBeforeSend(payload -> {
+                    payload.put("customField", "Custom Value");
+                    return payload;
+                }));
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+    }
+
+    @Test
+    void keepsTopLevelFieldsAddedByTheReadmeCallback() {
+        JSONObject sent = encode(new IllegalStateException("boom"));
+
+        assertEquals("Custom Value", sent.getString("customField"));
+        assertEquals(TOKEN, sent.getString("token"));
+        assertEquals("errors/java", sent.getString("catcherType"));
+        JSONObject payload = sent.getJSONObject("payload");
+        assertEquals("java.lang.IllegalStateException: boom", payload.getString("title"));
+        assertEquals("PlaygroundApp", payload.getJSONObject("context").getString("application"));
+        assertNotNull(payload.optJSONArray("backtrace"));
+    }
+
+    @Test
+    void keepsUnknownPayloadFields() {
+        client.close();
+        client = new HawkClient(new HawkSettings(TOKEN)
+                .setEndpoint("http://127.0.0.1:9")
+                .setJmxEnabled(false)
+                .setShutdownHookEnabled(false)
+                .setBeforeSend(event -> {
+                    event.getJSONObject("payload").put("level", 30);
+                    event.put("token", "changed");
+                    return event;
+                }));
+
+        JSONObject sent = encode("message");
+
+        assertEquals(30, sent.getJSONObject("payload").getInt("level"));
+        assertEquals(TOKEN, sent.getString("token"));
+    }
+
+    /**
+     * Composes and encodes an event as it would be sent.
+     *
+     * @param messageOrException the reported exception or message
+     * @return the sent JSON
+     */
+    private JSONObject encode(Object messageOrException) {
+        byte[] body = client.encode(HawkClient.composeEvent(client, messageOrException, null));
+        assertNotNull(body);
+        return new JSONObject(new String(body, StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,33 @@
+package so.hawk.catcher;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Applies per-fingerprint and per-type limits without charging rejected events twice.
+ */
+class EventRateLimiterTest {
+    /**
+     * Rate slow enough that no bucket refills during a test.
+     */
+    private static final double SLOW_RATE = 0.001;
+
+    @Test
+    void refundsFingerprintTokenWhenTypeLimitRejects() {
+        EventRateLimiter limiter = new EventRateLimiter(new HawkSettings("token")
+                .setRateLimitPerFingerprint(SLOW_RATE)
+                .setRateLimitPerType(SLOW_RATE)
+                .setRateLimitBurst(2));
+
+        assertTrue(limiter.tryAcquire(new RuntimeException(), 1));
+        assertTrue(limiter.tryAcquire(new RuntimeException(), 2));
+        // The per-type bucket is empty: the event is rejected and fingerprint 1 keeps its last token.
+        assertFalse(limiter.tryAcquire(new RuntimeException(), 1));
+        assertTrue(limiter.tryAcquire(new IllegalStateException(), 1));
+        assertFalse(limiter.tryAcquire(new UnsupportedOperationException(), 1));
+        assertEquals(2, limiter.getRejectedEvents());
+    }
+}
@@ -0,0 +1,235 @@
+package so.hawk.catcher;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Writes, recovers and replays spool segments.
+ */
+class EventSpoolTest {
+    /**
+     * Size of the segments of spools opened directly.
+     */
+    private static final int SEGMENT_BYTES = 4096;
+
+    /**
+     * Directory holding the spool.
+     */
+    @TempDir
+    Path directory;
+
+    @Test
+    void replaysRecordsAfterReopen() throws IOException {
+        EventSpool spool = open();
+        append(spool, "first");
+        append(spool, "second");
+        spool.close();
+
+        EventSpool reopened = open();
+        assertTrue(reopened.hasPending());
+        assertEquals(Arrays.asList("first", "second"), replay(reopened));
+        assertFalse(reopened.hasPending());
+        assertTrue(segments(directory).isEmpty());
+        reopened.close();
+    }
+
+    @Test
+    void resumesAfterFailedDelivery() throws IOException {
+        EventSpool spool = open();
+        append(spool, "first");
+        append(spool, "second");
+
+        List<String> delivered = new ArrayList<>();
+        assertEquals(1, spool.replay(body -> {
+            if (delivered.size() == 1) {
+                return false;
+            }
+            return delivered.add(new String(body, StandardCharsets.UTF_8));
+        }));
+        assertEquals(Arrays.asList("second"), replay(spool));
+        spool.close();
+    }
+
+    @Test
+    void stopsAtRecordWithChecksumMismatch() throws IOException {
+        EventSpool spool = open();
+        append(spool, "first");
+        append(spool, "second");
+        spool.close();
+
+        // Flip the first body byte of the second record.
+        int secondBody = 8 + "first".length() + 8;
+        try (FileChannel channel = FileChannel.open(onlySegment(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer value = ByteBuffer.allocate(1);
+            channel.read(value, secondBody);
+            value.put(0, (byte) (value.get(0) ^ 0xFF));
+            value.rewind();
+            channel.write(value, secondBody);
+        }
+
+        EventSpool reopened = open();
+        assertEquals(Arrays.asList("first"), replay(reopened));
+        reopened.close();
+    }
+
+    @Test
+    void stopsAtTruncatedTail() throws IOException {
+        EventSpool spool = open();
+        append(spool, "first");
+        append(spool, "second");
+        spool.close();
+
+        // Cut the file in the middle of the second record's body.
+        try (FileChannel channel = FileChannel.open(onlySegment(), StandardOpenOption.WRITE)) {
+            channel.truncate(8 + "first".length() + 8 + 3);
+        }
+
+        EventSpool reopened = open();
+        assertEquals(Arrays.asList("first"), replay(reopened));
+        reopened.close();
+    }
+
+    @Test
+    void evictsOldestSegmentsOverSizeLimit() throws IOException {
+        EventSpool spool = new EventSpool(directory, 1024, 2048, false, null);
+        byte[] body = new byte[600];
+        for (int i = 0; i < 3; i++) {
+            body[0] = (byte) ('a' + i);
+            assertTrue(spool.append(body, 0, body.length));
+        }
+
+        assertEquals(2, spool.getDroppedRecords());
+        List<Byte> firstBytes = new ArrayList<>();
+        spool.replay(record -> firstBytes.add(record[0]));
+        assertEquals(1, firstBytes.size());
+        assertEquals((byte) 'c', firstBytes.get(0));
+        spool.close();
+    }
+
+    @Test
+    void dropsRecordsLargerThanSegment() throws IOException {
+        EventSpool spool = new EventSpool(directory, 1024, 4096, false, null);
+        assertFalse(spool.append(new byte[1024], 0, 1024));
+        assertEquals(1, spool.getDroppedRecords());
+        assertFalse(spool.hasPending());
+        spool.close();
+    }
+
+    @Test
+    void adoptsSegmentsOfUnlockedInstances() throws IOException {
+        HawkSettings settings = new HawkSettings("token-a").setSpoolDirectory(directory.toString());
+        EventSpool first = EventSpool.create(settings);
+        EventSpool second = EventSpool.create(settings);
+        assertNotNull(first);
+        assertNotNull(second);
+        append(first, "first");
+        append(second, "second");
+        second.close();
+        first.close();
+
+        EventSpool next = EventSpool.create(settings);
+        assertNotNull(next);
+        assertEquals(Arrays.asList("first", "second"), replay(next));
+        next.close();
+    }
+
+    @Test
+    void keepsClientsOfDifferentProjectsApart() throws IOException {
+        HawkSettings tenantA = new HawkSettings("token-a").setSpoolDirectory(directory.toString());
+        HawkSettings tenantB = new HawkSettings("token-b").setSpoolDirectory(directory.toString());
+        assertNotEquals(EventSpool.clientKey(tenantA), EventSpool.clientKey(tenantB));
+
+        EventSpool spoolA = EventSpool.create(tenantA);
+        append(spoolA, "tenant-a");
+        spoolA.close();
+
+        EventSpool spoolB = EventSpool.create(tenantB);
+        assertFalse(spoolB.hasPending());
+        assertTrue(replay(spoolB).isEmpty());
+        spoolB.close();
+
+        EventSpool reopenedA = EventSpool.create(tenantA);
+        assertEquals(Arrays.asList("tenant-a"), replay(reopenedA));
+        reopenedA.close();
+    }
+
+    /**
+     * Opens a spool on the test directory without locking it.
+     *
+     * @return the spool
+     * @throws IOException if the directory cannot be listed
+     */
+    private EventSpool open() throws IOException {
+        return new EventSpool(directory, SEGMENT_BYTES, 4L * SEGMENT_BYTES, false, null);
+    }
+
+    /**
+     * Appends a text record.
+     *
+     * @param spool the spool
+     * @param text  the record body
+     */
+    private static void append(EventSpool spool, String text) {
+        byte[] body = text.getBytes(StandardCharsets.UTF_8);
+        assertTrue(spool.append(body, 0, body.length));
+    }
+
+    /**
+     * Replays all records as text.
+     *
+     * @param spool the spool
+     * @return the record bodies, oldest first
+     */
+    private static List<String> replay(EventSpool spool) {
+        List<String> records = new ArrayList<>();
+        spool.replay(body -> records.add(new String(body, StandardCharsets.UTF_8)));
+        return records;
+    }
+
+    /**
+     * Gets the single segment file of the test directory.
+     *
+     * @return the segment file
+     * @throws IOException if the directory cannot be listed
+     */
+    private Path onlySegment() throws IOException {
+        List<Path> segments = segments(directory);
+        assertEquals(1, segments.size());
+        return segments.get(0);
+    }
+
+    /**
+     * Lists the segment files of a directory.
+     *
+     * @param directory the directory
+     * @return the segment files
+     * @throws IOException if the directory cannot be listed
+     */
+    private static List<Path> segments(Path directory) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "hawk-*.spool")) {
+            for (Path file : files) {
+                segments.add(file);
+            }
+        }
+        return segments;
+    }
+}
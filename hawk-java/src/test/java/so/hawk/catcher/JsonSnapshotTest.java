@@ -0,0 +1,58 @@
+package so.hawk.catcher;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.nio.charset.StandardCharsets;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Keeps shared snapshots immune to changes of the values they were built from and handed out as.
+ */
+class JsonSnapshotTest {
+
+    @Test
+    void ignoresLaterChangesToStoredValues() {
+        JSONObject nested = new JSONObject().put("id", 1);
+        JSONObject context = new JSONObject().put("user", nested);
+        JsonSnapshot snapshot = JsonSnapshot.of(context).with("tags", new JSONArray().put("a"));
+
+        nested.put("id", 2);
+        context.put("added", true);
+
+        assertEquals(1, snapshot.toJSONObject(null).getJSONObject("user").getInt("id"));
+        JSONObject written = new JSONObject(serialize(snapshot));
+        assertEquals(1, written.getJSONObject("user").getInt("id"));
+        assertFalse(written.has("added"));
+    }
+
+    @Test
+    void handsOutCopiesOfNestedValues() {
+        JsonSnapshot snapshot = JsonSnapshot.of(new JSONObject()
+                .put("user", new JSONObject().put("id", 1))
+                .put("tags", new JSONArray().put("a")));
+
+        JSONObject copy = snapshot.toJSONObject(null);
+        copy.getJSONObject("user").put("id", 2);
+        copy.getJSONArray("tags").put("b");
+
+        JSONObject again = snapshot.toJSONObject(null);
+        assertEquals(1, again.getJSONObject("user").getInt("id"));
+        assertEquals(1, again.getJSONArray("tags").length());
+    }
+
+    /**
+     * Serializes a snapshot.
+     *
+     * @param snapshot the snapshot
+     * @return the JSON text
+     */
+    private static String serialize(JsonSnapshot snapshot) {
+        JsonWriter writer = new JsonWriter();
+        snapshot.writeTo(writer, null);
+        return new String(writer.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
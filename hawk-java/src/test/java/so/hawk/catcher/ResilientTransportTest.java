@@ -0,0 +1,51 @@
+package so.hawk.catcher;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Honors {@code Retry-After} without overflowing.
+ */
+class ResilientTransportTest {
+
+    @Test
+    void parsesRetryAfterSeconds() {
+        assertEquals(120_000, RetryPolicy.parseRetryAfter(" 120 "));
+        assertEquals(0, RetryPolicy.parseRetryAfter("-5"));
+        assertEquals(-1, RetryPolicy.parseRetryAfter("soon"));
+    }
+
+    @Test
+    void clampsHugeRetryAfterInsteadOfOverflowing() {
+        assertEquals(Long.MAX_VALUE / 1000 * 1000, RetryPolicy.parseRetryAfter(Long.toString(Long.MAX_VALUE)));
+        assertEquals(Long.MAX_VALUE / 1000 * 1000, RetryPolicy.parseRetryAfter("9300000000000000"));
+    }
+
+    @Test
+    void capsPauseRequestedByCollector() throws Exception {
+        AtomicInteger requests = new AtomicInteger();
+        HawkTransport collector = request -> {
+            requests.incrementAndGet();
+            return new HawkResponse(503, Collections.singletonMap("retry-after", "9300000000000000"));
+        };
+        CircuitBreaker breaker = new CircuitBreaker(5, 1);
+        ResilientTransport transport = new ResilientTransport(collector, new RetryPolicy(3, 1, 10), breaker,
+                50, new LatencyHistogram());
+        HawkRequest request = new HawkRequest("http://127.0.0.1:9", new byte[]{'{', '}'});
+
+        assertEquals(503, transport.send(request).getStatusCode());
+        assertFalse(breaker.allowRequest());
+        assertThrows(IOException.class, () -> transport.send(request));
+
+        Thread.sleep(100);
+        assertEquals(503, transport.send(request).getStatusCode());
+        assertEquals(2, requests.get());
+    }
+}
@@ -0,0 +1,125 @@
+package so.hawk.log4j2;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.Appender;
+import org.apache.logging.log4j.core.Core;
+import org.apache.logging.log4j.core.Filter;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.appender.AbstractAppender;
+import org.apache.logging.log4j.core.config.Property;
+import org.apache.logging.log4j.core.config.plugins.Plugin;
+import org.apache.logging.log4j.core.config.plugins.PluginAttribute;
+import org.apache.logging.log4j.core.config.plugins.PluginElement;
+import org.apache.logging.log4j.core.config.plugins.PluginFactory;
+import so.hawk.catcher.BreadcrumbLevel;
+import so.hawk.catcher.Hawk;
+
+/**
+ * Log4j2 appender reporting logged errors to Hawk.
+ * <p>
+ * ERROR and FATAL events with a throwable are handed to {@link Hawk#sendAsync(Object, Map)}:
+ * deduplication and rate limits apply, and the event is composed on Hawk's reporter thread, not on
+ * the logging thread. Other events at or above the breadcrumb level are recorded as breadcrumbs, with
+ * the logger name as the category. Events of Hawk's own loggers are ignored. Everything needed is
+ * copied before returning, since Log4j2 may reuse the event object.
+ *
+ * <pre>{@code
+ * <Hawk name="Hawk" token="..." breadcrumbLevel="INFO"/>
+ * }</pre>
+ */
+@Plugin(name = "Hawk", category = Core.CATEGORY_NAME, elementType = Appender.ELEMENT_TYPE, printObject = true)
+public final class HawkAppender extends AbstractAppender {
+    /**
+     * Prefix of the loggers used by Hawk itself.
+     */
+    private static final String HAWK_LOGGER_PREFIX = "so.hawk.catcher";
+
+    /**
+     * Lowest level recorded as a breadcrumb, or null to record none.
+     */
+    private final Level breadcrumbLevel;
+
+    /**
+     * Creates an appender.
+     *
+     * @param name            the appender name
+     * @param filter          the filter, or null
+     * @param breadcrumbLevel the lowest level recorded as a breadcrumb, or null to record none
+     */
+    private HawkAppender(String name, Filter filter, Level breadcrumbLevel) {
+        super(name, filter, null, true, Property.EMPTY_ARRAY);
+        this.breadcrumbLevel = breadcrumbLevel;
+    }
+
+    /**
+     * Creates the appender from its configuration, initializing Hawk with the token if the
+     * application has not initialized it.
+     *
+     * @param name            the appender name
+     * @param token           the integration token, or null if Hawk is initialized by the application
+     * @param breadcrumbLevel the lowest level recorded as a breadcrumb, {@code OFF} to record none
+     * @param filter          the filter, or null
+     * @return the appender
+     */
+    @PluginFactory
+    public static HawkAppender createAppender(@PluginAttribute("name") String name,
+                                              @PluginAttribute("token") String token,
+                                              @PluginAttribute(value = "breadcrumbLevel", defaultString = "INFO")
+                                              String breadcrumbLevel,
+                                              @PluginElement("Filter") Filter filter) {
+        if (token != null && !Hawk.isInitialized()) {
+            Hawk.init(token);
+        }
+        Level level = Level.toLevel(breadcrumbLevel, Level.INFO);
+        return new HawkAppender(name != null ? name : "Hawk", filter, level == Level.OFF ? null : level);
+    }
+
+    @Override
+    public void append(LogEvent event) {
+        String loggerName = event.getLoggerName();
+        if (!Hawk.isInitialized() || (loggerName != null && loggerName.startsWith(HAWK_LOGGER_PREFIX))) {
+            return;
+        }
+
+        Level level = event.getLevel();
+        Throwable thrown = event.getThrown();
+        try {
+            if (thrown != null && level.isMoreSpecificThan(Level.ERROR)) {
+                Map<String, Object> addons = new HashMap<>(8);
+                addons.put("logger", loggerName);
+                addons.put("thread", event.getThreadName());
+                addons.put("message", event.getMessage().getFormattedMessage());
+                if (!event.getContextData().isEmpty()) {
+                    addons.put("mdc", event.getContextData().toMap());
+                }
+                Hawk.sendAsync(thrown, addons);
+            } else if (breadcrumbLevel != null && level.isMoreSpecificThan(breadcrumbLevel)) {
+                Hawk.addBreadcrumb(loggerName, toBreadcrumbLevel(level), event.getMessage().getFormattedMessage());
+            }
+        } catch (IllegalStateException e) {
+            // Hawk was closed after the check above.
+        }
+    }
+
+    /**
+     * Maps a Log4j2 level to a breadcrumb level.
+     *
+     * @param level the Log4j2 level
+     * @return the breadcrumb level
+     */
+    private static BreadcrumbLevel toBreadcrumbLevel(Level level) {
+        if (level.isMoreSpecificThan(Level.ERROR)) {
+            return BreadcrumbLevel.ERROR;
+        }
+        if (level.isMoreSpecificThan(Level.WARN)) {
+            return BreadcrumbLevel.WARNING;
+        }
+        if (level.isMoreSpecificThan(Level.INFO)) {
+            return BreadcrumbLevel.INFO;
+        }
+        return BreadcrumbLevel.DEBUG;
+    }
+}
@@ -0,0 +1,117 @@
+package so.hawk.logback;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.IThrowableProxy;
+import ch.qos.logback.classic.spi.ThrowableProxy;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import so.hawk.catcher.BreadcrumbLevel;
+import so.hawk.catcher.Hawk;
+
+/**
+ * Logback appender reporting logged errors to Hawk.
+ * <p>
+ * ERROR events with a throwable are handed to {@link Hawk#sendAsync(Object, Map)}: deduplication and
+ * rate limits apply, and the event is composed on Hawk's reporter thread, not on the logging thread.
+ * Other events at or above the breadcrumb level are recorded as breadcrumbs, with the logger name as
+ * the category. Events of Hawk's own loggers are ignored.
+ *
+ * <pre>{@code
+ * <appender name="HAWK" class="so.hawk.logback.HawkAppender">
+ *     <token>...</token>
+ *     <breadcrumbLevel>INFO</breadcrumbLevel>
+ * </appender>
+ * }</pre>
+ */
+public class HawkAppender extends UnsynchronizedAppenderBase<ILoggingEvent> {
+    /**
+     * Prefix of the loggers used by Hawk itself.
+     */
+    private static final String HAWK_LOGGER_PREFIX = "so.hawk.catcher";
+
+    /**
+     * Token Hawk is initialized with if the application has not initialized it, or null.
+     */
+    private String token;
+
+    /**
+     * Lowest level recorded as a breadcrumb.
+     */
+    private Level breadcrumbLevel = Level.INFO;
+
+    @Override
+    public void start() {
+        if (token != null && !Hawk.isInitialized()) {
+            Hawk.init(token);
+        }
+        super.start();
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        String loggerName = event.getLoggerName();
+        if (!Hawk.isInitialized() || (loggerName != null && loggerName.startsWith(HAWK_LOGGER_PREFIX))) {
+            return;
+        }
+
+        Level level = event.getLevel();
+        IThrowableProxy proxy = event.getThrowableProxy();
+        try {
+            if (level.isGreaterOrEqual(Level.ERROR) && proxy instanceof ThrowableProxy) {
+                Map<String, Object> addons = new HashMap<>(8);
+                addons.put("logger", loggerName);
+                addons.put("thread", event.getThreadName());
+                addons.put("message", event.getFormattedMessage());
+                Map<String, String> mdc = event.getMDCPropertyMap();
+                if (mdc != null && !mdc.isEmpty()) {
+                    addons.put("mdc", mdc);
+                }
+                Hawk.sendAsync(((ThrowableProxy) proxy).getThrowable(), addons);
+            } else if (level.isGreaterOrEqual(breadcrumbLevel)) {
+                Hawk.addBreadcrumb(loggerName, toBreadcrumbLevel(level), event.getFormattedMessage());
+            }
+        } catch (IllegalStateException e) {
+            // Hawk was closed after the check above.
+        }
+    }
+
+    /**
+     * Maps a Logback level to a breadcrumb level.
+     *
+     * @param level the Logback level
+     * @return the breadcrumb level
+     */
+    private static BreadcrumbLevel toBreadcrumbLevel(Level level) {
+        if (level.isGreaterOrEqual(Level.ERROR)) {
+            return BreadcrumbLevel.ERROR;
+        }
+        if (level.isGreaterOrEqual(Level.WARN)) {
+            return BreadcrumbLevel.WARNING;
+        }
+        if (level.isGreaterOrEqual(Level.INFO)) {
+            return BreadcrumbLevel.INFO;
+        }
+        return BreadcrumbLevel.DEBUG;
+    }
+
+    /**
+     * Sets the token Hawk is initialized with if the application has not initialized it.
+     *
+     * @param token the integration token
+     */
+    public void setToken(String token) {
+        this.token = token;
+    }
+
+    /**
+     * Sets the lowest level recorded as a breadcrumb, {@code OFF} to record none.
+     *
+     * @param breadcrumbLevel the level name
+     */
+    public void setBreadcrumbLevel(String breadcrumbLevel) {
+        this.breadcrumbLevel = Level.toLevel(breadcrumbLevel, Level.INFO);
+    }
+}
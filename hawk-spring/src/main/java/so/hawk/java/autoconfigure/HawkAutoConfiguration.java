@@ -0,0 +1,203 @@
+package so.hawk.java.autoconfigure;
+
+import java.util.stream.Collectors;
+
+import jakarta.servlet.DispatcherType;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.server.WebExceptionHandler;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+import so.hawk.catcher.HawkConfigurator;
+import so.hawk.java.handler.GlobalExceptionHandler;
+import so.hawk.java.handler.HawkExceptionCallback;
+import so.hawk.java.handler.HawkHandlerExceptionResolver;
+import so.hawk.java.metrics.HawkMetricsBinder;
+import so.hawk.java.web.HawkReactiveContextFilter;
+import so.hawk.java.web.HawkRequestContextFilter;
+import so.hawk.java.web.HawkWebExceptionHandler;
+
+/**
+ * Auto-configuration initializing Hawk from the {@code hawk.*} properties and reporting exceptions
+ * caught by {@link HawkHandlerExceptionResolver} in servlet applications or by {@link HawkWebExceptionHandler}
+ * in WebFlux ones.
+ * <p>
+ * {@link HawkConfigurator} beans are applied after the properties, e.g. to set a {@code beforeSend}
+ * callback. Exceptions are reported on a bounded {@code hawkTaskExecutor}, and Hawk is flushed and
+ * closed by {@link HawkLifecycle} when the context stops. Disable with {@code hawk.enabled=false}.
+ */
+@AutoConfiguration
+@ConditionalOnProperty(prefix = "hawk", name = "enabled", matchIfMissing = true)
+@EnableConfigurationProperties(HawkProperties.class)
+public class HawkAutoConfiguration {
+
+    /**
+     * Name of the executor reporting caught exceptions.
+     */
+    public static final String TASK_EXECUTOR_BEAN_NAME = "hawkTaskExecutor";
+
+    /**
+     * Order of the request context filter: after the security filters, whose wrapped request
+     * provides the principal.
+     */
+    public static final int REQUEST_CONTEXT_FILTER_ORDER = 0;
+
+    /**
+     * Creates the executor reporting caught exceptions: a fixed number of threads and a bounded queue.
+     * It is paused after {@link HawkLifecycle} is stopped, which drains it first.
+     *
+     * @param properties the Hawk properties
+     * @return the executor
+     */
+    @Bean(name = TASK_EXECUTOR_BEAN_NAME)
+    @ConditionalOnMissingBean(name = TASK_EXECUTOR_BEAN_NAME)
+    public ThreadPoolTaskExecutor hawkTaskExecutor(HawkProperties properties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.getExecutor().getThreads());
+        executor.setMaxPoolSize(properties.getExecutor().getThreads());
+        executor.setQueueCapacity(properties.getExecutor().getQueueCapacity());
+        executor.setThreadNamePrefix("hawk-callback-");
+        executor.setDaemon(true);
+        // Keep reporting errors raised while the context closes; HawkLifecycle drains the queue.
+        executor.setAcceptTasksAfterContextClose(true);
+        executor.setPhase(HawkLifecycle.PHASE - 1);
+        return executor;
+    }
+
+    /**
+     * Creates the lifecycle initializing and closing Hawk.
+     *
+     * @param properties    the Hawk properties
+     * @param configurators further configuration applied after the properties
+     * @param executor      the executor reporting caught exceptions
+     * @return the lifecycle
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public HawkLifecycle hawkLifecycle(HawkProperties properties, ObjectProvider<HawkConfigurator> configurators,
+                                       @Qualifier(TASK_EXECUTOR_BEAN_NAME) ThreadPoolTaskExecutor executor) {
+        return new HawkLifecycle(properties, configurators.orderedStream().collect(Collectors.toList()), executor);
+    }
+
+    /**
+     * Reports exceptions of servlet applications caught by {@link HawkHandlerExceptionResolver}.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    @ConditionalOnClass(HandlerExceptionResolver.class)
+    static class ServletConfiguration {
+
+        /**
+         * Creates the callback reporting caught exceptions. It takes precedence over other callbacks,
+         * such as the default one logging to the standard error output.
+         *
+         * @param executor the executor reporting caught exceptions
+         * @return the callback
+         */
+        @Bean
+        @Primary
+        @ConditionalOnMissingBean
+        public HawkExceptionCallback hawkExceptionCallback(
+                @Qualifier(TASK_EXECUTOR_BEAN_NAME) ThreadPoolTaskExecutor executor) {
+            return new HawkExceptionCallback(executor);
+        }
+
+        /**
+         * Registers the resolver reporting exceptions thrown by handlers, unless the application
+         * reports them through {@link GlobalExceptionHandler}, e.g. found by component scanning.
+         *
+         * @param callback the callback reporting caught exceptions
+         * @return the exception resolver
+         */
+        @Bean
+        @ConditionalOnMissingBean({HawkHandlerExceptionResolver.class, GlobalExceptionHandler.class})
+        public HawkHandlerExceptionResolver hawkHandlerExceptionResolver(
+                GlobalExceptionHandler.ExceptionCallback callback) {
+            return new HawkHandlerExceptionResolver(callback);
+        }
+
+        /**
+         * Registers the filter binding each request to a reusable holder, read only when an exception is reported.
+         *
+         * @param properties the Hawk properties
+         * @return the filter registration
+         */
+        @Bean
+        @ConditionalOnMissingBean(HawkRequestContextFilter.class)
+        @ConditionalOnProperty(prefix = "hawk.request", name = "enabled", matchIfMissing = true)
+        public FilterRegistrationBean<HawkRequestContextFilter> hawkRequestContextFilter(HawkProperties properties) {
+            HawkProperties.Request request = properties.getRequest();
+            FilterRegistrationBean<HawkRequestContextFilter> registration = new FilterRegistrationBean<>(
+                    new HawkRequestContextFilter(request.getHeaders().toArray(new String[0]),
+                            request.getTraceHeaders().toArray(new String[0])));
+            registration.setOrder(REQUEST_CONTEXT_FILTER_ORDER);
+            registration.setDispatcherTypes(DispatcherType.REQUEST, DispatcherType.ASYNC);
+            return registration;
+        }
+    }
+
+    /**
+     * Reports errors of WebFlux applications through {@link HawkWebExceptionHandler}.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    @ConditionalOnClass(WebExceptionHandler.class)
+    static class ReactiveConfiguration {
+
+        /**
+         * Creates the exception handler reporting errors without blocking the event loop.
+         *
+         * @param properties the Hawk properties
+         * @return the exception handler
+         */
+        @Bean
+        @ConditionalOnMissingBean
+        HawkWebExceptionHandler hawkWebExceptionHandler(HawkProperties properties) {
+            HawkProperties.Request request = properties.getRequest();
+            return new HawkWebExceptionHandler(request.getHeaders().toArray(new String[0]),
+                    request.getTraceHeaders().toArray(new String[0]));
+        }
+
+        /**
+         * Creates the filter passing the Hawk context of the filter chain to the exception handler.
+         *
+         * @return the web filter
+         */
+        @Bean
+        @ConditionalOnMissingBean
+        HawkReactiveContextFilter hawkReactiveContextFilter() {
+            return new HawkReactiveContextFilter();
+        }
+    }
+
+    /**
+     * Publishes Hawk's metrics when the application uses Micrometer.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(MeterRegistry.class)
+    static class HawkMetricsConfiguration {
+
+        /**
+         * Creates the metrics binder, bound to every meter registry by Spring Boot Actuator.
+         *
+         * @return the metrics binder
+         */
+        @Bean
+        @ConditionalOnMissingBean
+        HawkMetricsBinder hawkMetricsBinder() {
+            return new HawkMetricsBinder();
+        }
+    }
+}
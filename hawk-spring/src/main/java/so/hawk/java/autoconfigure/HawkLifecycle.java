@@ -0,0 +1,133 @@
+package so.hawk.java.autoconfigure;
+
+import java.util.List;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import so.hawk.catcher.Hawk;
+import so.hawk.catcher.HawkConfigurator;
+
+/**
+ * Initializes Hawk when the application context starts and closes it when the context stops.
+ * <p>
+ * Stopping first drains the callback executor, then closes Hawk, which sends the queued events within
+ * the shutdown timeout and spools the rest. The phase is below the web server's, so errors raised
+ * while requests are still being completed are reported too. If the application initialized Hawk
+ * itself, this lifecycle leaves it alone.
+ */
+public class HawkLifecycle implements SmartLifecycle {
+
+    /**
+     * Phase of this lifecycle: started before and stopped after the web server.
+     */
+    public static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+
+    /**
+     * Settings bound from the application properties.
+     */
+    private final HawkProperties properties;
+
+    /**
+     * Further configuration applied after the properties, in order.
+     */
+    private final List<HawkConfigurator> configurators;
+
+    /**
+     * Executor reporting exceptions caught by the exception handler.
+     */
+    private final ThreadPoolTaskExecutor executor;
+
+    /**
+     * Whether this lifecycle initialized Hawk and therefore closes it.
+     */
+    private boolean owner;
+
+    /**
+     * Whether the lifecycle is started.
+     */
+    private volatile boolean running;
+
+    /**
+     * Creates the lifecycle.
+     *
+     * @param properties    the settings bound from the application properties
+     * @param configurators further configuration applied after the properties
+     * @param executor      the executor reporting caught exceptions
+     */
+    public HawkLifecycle(HawkProperties properties, List<HawkConfigurator> configurators,
+                         ThreadPoolTaskExecutor executor) {
+        this.properties = properties;
+        this.configurators = configurators;
+        this.executor = executor;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        String token = properties.getToken();
+        if (!Hawk.isInitialized() && token != null && !token.isEmpty()) {
+            Hawk.init(settings -> {
+                properties.applyTo(settings);
+                for (HawkConfigurator configurator : configurators) {
+                    configurator.configure(settings);
+                }
+            });
+            owner = true;
+        }
+        running = true;
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        long deadline = System.nanoTime() + properties.getShutdownTimeout().toNanos();
+        drainExecutor(deadline);
+        if (owner) {
+            owner = false;
+            Hawk.close();
+        }
+    }
+
+    /**
+     * Stops accepting exceptions and waits for the queued ones to be handed to Hawk.
+     * Exceptions still queued when half of the shutdown timeout has passed are discarded,
+     * leaving the rest of it to Hawk.
+     *
+     * @param deadlineNanos the shutdown deadline, from {@link System#nanoTime()}
+     */
+    private void drainExecutor(long deadlineNanos) {
+        ThreadPoolExecutor pool;
+        try {
+            pool = executor.getThreadPoolExecutor();
+        } catch (IllegalStateException e) {
+            return;
+        }
+        pool.shutdown();
+        long remaining = (deadlineNanos - System.nanoTime()) / 2;
+        try {
+            if (remaining <= 0 || !pool.awaitTermination(remaining, TimeUnit.NANOSECONDS)) {
+                pool.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            pool.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+}
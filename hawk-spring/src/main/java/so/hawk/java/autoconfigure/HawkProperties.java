@@ -0,0 +1,528 @@
+package so.hawk.java.autoconfigure;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import so.hawk.catcher.HawkSettings;
+
+/**
+ * Hawk settings bound from the {@code hawk.*} application properties.
+ * <p>
+ * Properties left unset keep the defaults of {@link HawkSettings}, except {@code async}, which is on
+ * so that request threads and the callback executor never wait for the collector.
+ */
+@ConfigurationProperties(prefix = "hawk")
+public class HawkProperties {
+
+    /**
+     * Whether the auto-configuration is active.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Integration token. Hawk is not initialized by Spring when it is empty.
+     */
+    private String token;
+
+    /**
+     * Custom collector endpoint, derived from the token when empty.
+     */
+    private String endpoint;
+
+    /**
+     * Whether events are delivered by a background thread.
+     */
+    private boolean async = true;
+
+    /**
+     * Maximum number of events waiting to be sent.
+     */
+    private Integer queueCapacity;
+
+    /**
+     * Maximum number of events sent in one request.
+     */
+    private Integer batchSize;
+
+    /**
+     * Whether request bodies are gzip-compressed.
+     */
+    private Boolean compressionEnabled;
+
+    /**
+     * Directory where undelivered events are stored.
+     */
+    private String spoolDirectory;
+
+    /**
+     * Window in which repeated errors are collapsed into one event.
+     */
+    private Duration dedupWindow;
+
+    /**
+     * Fraction of events that are reported, from 0.0 to 1.0.
+     */
+    private Double sampleRate;
+
+    /**
+     * Events reported per second for all errors together.
+     */
+    private Double rateLimit;
+
+    /**
+     * Maximum time spent sending queued events when the application context is closed.
+     */
+    private Duration shutdownTimeout = Duration.ofSeconds(2);
+
+    /**
+     * Context sent with every event.
+     */
+    private final Map<String, String> context = new LinkedHashMap<>();
+
+    /**
+     * User sent with every event.
+     */
+    private final Map<String, String> user = new LinkedHashMap<>();
+
+    /**
+     * Executor reporting exceptions caught by the exception handler.
+     */
+    private final Executor executor = new Executor();
+
+    /**
+     * Capture of the request during which an exception was reported.
+     */
+    private final Request request = new Request();
+
+    /**
+     * Copies the properties that are set into the Hawk settings.
+     *
+     * @param settings the settings to configure
+     * @throws IllegalArgumentException if a property has an invalid value
+     */
+    public void applyTo(HawkSettings settings) {
+        settings.setToken(token);
+        settings.setAsync(async);
+        settings.setShutdownTimeoutMillis(shutdownTimeout.toMillis());
+        // Spring closes Hawk together with the application context.
+        settings.setShutdownHookEnabled(false);
+        if (endpoint != null && !endpoint.isEmpty()) {
+            settings.setEndpoint(endpoint);
+        }
+        if (queueCapacity != null) {
+            settings.setQueueCapacity(queueCapacity);
+        }
+        if (batchSize != null) {
+            settings.setBatchSize(batchSize);
+        }
+        if (compressionEnabled != null) {
+            settings.setCompressionEnabled(compressionEnabled);
+        }
+        if (spoolDirectory != null && !spoolDirectory.isEmpty()) {
+            settings.setSpoolDirectory(spoolDirectory);
+        }
+        if (dedupWindow != null) {
+            settings.setDedupWindowMillis(dedupWindow.toMillis());
+        }
+        if (sampleRate != null) {
+            settings.setSampleRate(sampleRate);
+        }
+        if (rateLimit != null) {
+            settings.setRateLimit(rateLimit);
+        }
+        context.forEach(settings::setContext);
+        user.forEach(settings::setUser);
+    }
+
+    /**
+     * Checks whether the auto-configuration is active.
+     *
+     * @return true if it is active
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Enables or disables the auto-configuration.
+     *
+     * @param enabled true to activate it
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Gets the integration token.
+     *
+     * @return the token, or null if it is not set
+     */
+    public String getToken() {
+        return token;
+    }
+
+    /**
+     * Sets the integration token.
+     *
+     * @param token the token
+     */
+    public void setToken(String token) {
+        this.token = token;
+    }
+
+    /**
+     * Gets the custom collector endpoint.
+     *
+     * @return the endpoint, or null to derive it from the token
+     */
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    /**
+     * Sets a custom collector endpoint.
+     *
+     * @param endpoint the endpoint URL
+     */
+    public void setEndpoint(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    /**
+     * Checks whether events are delivered by a background thread.
+     *
+     * @return true if delivery is asynchronous
+     */
+    public boolean isAsync() {
+        return async;
+    }
+
+    /**
+     * Enables or disables asynchronous delivery.
+     *
+     * @param async true to deliver events on a background thread
+     */
+    public void setAsync(boolean async) {
+        this.async = async;
+    }
+
+    /**
+     * Gets the maximum number of events waiting to be sent.
+     *
+     * @return the capacity, or null for the default
+     */
+    public Integer getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * Sets the maximum number of events waiting to be sent.
+     *
+     * @param queueCapacity the capacity
+     */
+    public void setQueueCapacity(Integer queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * Gets the maximum number of events sent in one request.
+     *
+     * @return the batch size, or null for the default
+     */
+    public Integer getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Sets the maximum number of events sent in one request.
+     *
+     * @param batchSize the batch size
+     */
+    public void setBatchSize(Integer batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Checks whether request bodies are compressed.
+     *
+     * @return true or false, or null for the default
+     */
+    public Boolean getCompressionEnabled() {
+        return compressionEnabled;
+    }
+
+    /**
+     * Enables or disables request compression.
+     *
+     * @param compressionEnabled true to compress request bodies
+     */
+    public void setCompressionEnabled(Boolean compressionEnabled) {
+        this.compressionEnabled = compressionEnabled;
+    }
+
+    /**
+     * Gets the directory where undelivered events are stored.
+     *
+     * @return the directory, or null if spooling is disabled
+     */
+    public String getSpoolDirectory() {
+        return spoolDirectory;
+    }
+
+    /**
+     * Sets the directory where undelivered events are stored.
+     *
+     * @param spoolDirectory the directory
+     */
+    public void setSpoolDirectory(String spoolDirectory) {
+        this.spoolDirectory = spoolDirectory;
+    }
+
+    /**
+     * Gets the deduplication window.
+     *
+     * @return the window, or null for the default
+     */
+    public Duration getDedupWindow() {
+        return dedupWindow;
+    }
+
+    /**
+     * Sets the deduplication window.
+     *
+     * @param dedupWindow the window, zero to disable
+     */
+    public void setDedupWindow(Duration dedupWindow) {
+        this.dedupWindow = dedupWindow;
+    }
+
+    /**
+     * Gets the fraction of events that are reported.
+     *
+     * @return the sample rate, or null for the default
+     */
+    public Double getSampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * Sets the fraction of events that are reported.
+     *
+     * @param sampleRate the fraction from 0.0 to 1.0
+     */
+    public void setSampleRate(Double sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    /**
+     * Gets the global rate limit.
+     *
+     * @return the events per second, or null for the default
+     */
+    public Double getRateLimit() {
+        return rateLimit;
+    }
+
+    /**
+     * Sets the global rate limit.
+     *
+     * @param rateLimit the events per second, 0 for no limit
+     */
+    public void setRateLimit(Double rateLimit) {
+        this.rateLimit = rateLimit;
+    }
+
+    /**
+     * Gets the maximum time spent sending queued events on shutdown.
+     *
+     * @return the timeout
+     */
+    public Duration getShutdownTimeout() {
+        return shutdownTimeout;
+    }
+
+    /**
+     * Sets the maximum time spent sending queued events on shutdown.
+     *
+     * @param shutdownTimeout the timeout
+     */
+    public void setShutdownTimeout(Duration shutdownTimeout) {
+        this.shutdownTimeout = shutdownTimeout;
+    }
+
+    /**
+     * Gets the context sent with every event.
+     *
+     * @return the mutable context map
+     */
+    public Map<String, String> getContext() {
+        return context;
+    }
+
+    /**
+     * Gets the user sent with every event.
+     *
+     * @return the mutable user map
+     */
+    public Map<String, String> getUser() {
+        return user;
+    }
+
+    /**
+     * Gets the settings of the callback executor.
+     *
+     * @return the executor settings
+     */
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Gets the settings of the request capture.
+     *
+     * @return the request capture settings
+     */
+    public Request getRequest() {
+        return request;
+    }
+
+    /**
+     * Settings of the executor reporting exceptions caught by the exception handler.
+     */
+    public static class Executor {
+
+        /**
+         * Number of reporting threads.
+         */
+        private int threads = 1;
+
+        /**
+         * Maximum number of exceptions waiting to be reported; further ones are dropped.
+         */
+        private int queueCapacity = 256;
+
+        /**
+         * Gets the number of reporting threads.
+         *
+         * @return the number of threads
+         */
+        public int getThreads() {
+            return threads;
+        }
+
+        /**
+         * Sets the number of reporting threads.
+         *
+         * @param threads the number of threads, at least 1
+         * @throws IllegalArgumentException if the value is less than 1
+         */
+        public void setThreads(int threads) {
+            if (threads < 1) {
+                throw new IllegalArgumentException("Executor threads must be at least 1.");
+            }
+            this.threads = threads;
+        }
+
+        /**
+         * Gets the maximum number of exceptions waiting to be reported.
+         *
+         * @return the queue capacity
+         */
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        /**
+         * Sets the maximum number of exceptions waiting to be reported.
+         *
+         * @param queueCapacity the capacity, at least 1
+         * @throws IllegalArgumentException if the value is less than 1
+         */
+        public void setQueueCapacity(int queueCapacity) {
+            if (queueCapacity < 1) {
+                throw new IllegalArgumentException("Executor queue capacity must be at least 1.");
+            }
+            this.queueCapacity = queueCapacity;
+        }
+    }
+
+    /**
+     * Settings of the capture of the request during which an exception was reported.
+     */
+    public static class Request {
+
+        /**
+         * Whether the request context filter is registered.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Names of the request headers sent with events.
+         */
+        private List<String> headers = new ArrayList<>(Arrays.asList("User-Agent", "Referer"));
+
+        /**
+         * Names of the headers carrying the trace ID, in order of preference.
+         */
+        private List<String> traceHeaders = new ArrayList<>(Arrays.asList("traceparent", "X-B3-TraceId", "X-Request-Id"));
+
+        /**
+         * Checks whether the request context filter is registered.
+         *
+         * @return true if it is registered
+         */
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        /**
+         * Enables or disables the request context filter.
+         *
+         * @param enabled true to register it
+         */
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        /**
+         * Gets the names of the request headers sent with events.
+         *
+         * @return the header names
+         */
+        public List<String> getHeaders() {
+            return headers;
+        }
+
+        /**
+         * Sets the names of the request headers sent with events. Avoid headers carrying credentials.
+         *
+         * @param headers the header names
+         */
+        public void setHeaders(List<String> headers) {
+            this.headers = headers;
+        }
+
+        /**
+         * Gets the names of the headers carrying the trace ID.
+         *
+         * @return the header names, in order of preference
+         */
+        public List<String> getTraceHeaders() {
+            return traceHeaders;
+        }
+
+        /**
+         * Sets the names of the headers carrying the trace ID.
+         *
+         * @param traceHeaders the header names, in order of preference
+         */
+        public void setTraceHeaders(List<String> traceHeaders) {
+            this.traceHeaders = traceHeaders;
+        }
+    }
+}
@@ -63,18 +63,17 @@ public class Hawk implements ApplicationContextAware {
     }
 
     /**
-     * Logs an exception with context-specific details.
-     * If the Spring ApplicationContext is available, it logs within the Spring environment.
+     * Reports an exception to the collector if the Hawk catcher is initialized,
+     * otherwise prints it to the standard error output.
      *
      * @param exception the exception to log
      */
     public void logException(Throwable exception) {
-        if (applicationContext != null) {
-            System.out.println("Logging exception within Spring context: " + exception.getMessage());
-            exception.printStackTrace();
+        if (so.hawk.catcher.Hawk.isInitialized()) {
+            so.hawk.catcher.Hawk.send(exception);
         } else {
-            System.out.println("ApplicationContext is not set. Logging exception to standard output.");
+            System.err.println("Hawk is not initialized. Logging exception to standard error output.");
             exception.printStackTrace();
         }
     }
-}
\ No newline at end of file
+}
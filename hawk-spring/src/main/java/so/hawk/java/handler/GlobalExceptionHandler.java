@@ -22,18 +22,16 @@ public class GlobalExceptionHandler {
     }
 
     /**
-     * Handles general exceptions and invokes the callback.
+     * Invokes the callback, then rethrows the exception so that the remaining exception resolvers
+     * and the error page render the response.
      *
      * @param exception the exception to handle
+     * @throws Exception always, the given exception
      */
     @ExceptionHandler(Exception.class)
-    public void handleException(Exception exception) {
-        System.err.printf(
-                "Handling exception of type: %s%nMessage: %s%n",
-                exception.getClass().getSimpleName(),
-                exception.getMessage()
-        );
+    public void handleException(Exception exception) throws Exception {
         callback.onException(exception);
+        throw exception;
     }
 
     /**
@@ -0,0 +1,97 @@
+package so.hawk.java.handler;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import so.hawk.catcher.ContextScope;
+import so.hawk.catcher.Hawk;
+import so.hawk.java.web.HawkRequestContext;
+
+/**
+ * Reports exceptions caught by {@link HawkHandlerExceptionResolver} or {@link GlobalExceptionHandler} to Hawk.
+ * <p>
+ * The event is composed and sent on the given executor, so the request thread only enqueues a task.
+ * When the executor's queue is full the exception is dropped and counted rather than blocking the request.
+ * The request bound by {@code HawkRequestContextFilter}, if any, is captured on the calling thread
+ * and sent as {@code payload.context.request}.
+ */
+public class HawkExceptionCallback implements GlobalExceptionHandler.ExceptionCallback {
+
+    /**
+     * Executor composing and sending the events.
+     */
+    private final TaskExecutor executor;
+
+    /**
+     * Number of exceptions dropped because the executor rejected them.
+     */
+    private final AtomicLong rejected = new AtomicLong();
+
+    /**
+     * Creates a callback reporting on the given executor.
+     *
+     * @param executor the executor composing and sending the events
+     */
+    public HawkExceptionCallback(TaskExecutor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Captures the current request and queues the exception for reporting.
+     * Does nothing if Hawk is not initialized.
+     *
+     * @param exception the exception to report
+     */
+    @Override
+    public void onException(Throwable exception) {
+        if (!Hawk.isInitialized()) {
+            return;
+        }
+        Map<String, Object> request = HawkRequestContext.capture();
+        try {
+            executor.execute(() -> report(exception, request));
+        } catch (TaskRejectedException e) {
+            rejected.incrementAndGet();
+        }
+    }
+
+    /**
+     * Sends the exception, ignoring it if Hawk was closed after it was queued.
+     *
+     * @param exception the exception to report
+     * @param request   the captured request context, or null
+     */
+    private static void report(Throwable exception, Map<String, Object> request) {
+        if (request == null) {
+            send(exception);
+            return;
+        }
+        try (ContextScope scope = Hawk.withContext(HawkRequestContext.CONTEXT_KEY, request)) {
+            send(exception);
+        }
+    }
+
+    /**
+     * Sends the exception, ignoring it if Hawk was closed after it was queued.
+     *
+     * @param exception the exception to report
+     */
+    private static void send(Throwable exception) {
+        try {
+            Hawk.send(exception);
+        } catch (IllegalStateException e) {
+            // Hawk was closed while the exception was queued.
+        }
+    }
+
+    /**
+     * Gets the number of exceptions dropped because the executor's queue was full or it was shut down.
+     *
+     * @return the number of dropped exceptions
+     */
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+}
@@ -0,0 +1,71 @@
+package so.hawk.java.handler;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.core.Ordered;
+import org.springframework.web.ErrorResponse;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+import org.springframework.web.servlet.ModelAndView;
+
+/**
+ * Reports exceptions thrown by servlet handlers, then lets the next resolvers and Spring Boot's
+ * error page render the response as if Hawk were not there.
+ * <p>
+ * It runs first and never resolves the exception, so it also sees exceptions handled by the
+ * application's own {@code @ExceptionHandler} methods. Errors with a 4xx status, such as unknown
+ * routes or invalid arguments, are not reported.
+ */
+public class HawkHandlerExceptionResolver implements HandlerExceptionResolver, Ordered {
+
+    /**
+     * Callback reporting the exceptions.
+     */
+    private final GlobalExceptionHandler.ExceptionCallback callback;
+
+    /**
+     * Creates the resolver.
+     *
+     * @param callback the callback reporting the exceptions
+     */
+    public HawkHandlerExceptionResolver(GlobalExceptionHandler.ExceptionCallback callback) {
+        if (callback == null) {
+            throw new IllegalArgumentException("Callback must not be null.");
+        }
+        this.callback = callback;
+    }
+
+    /**
+     * Reports the exception and leaves it unresolved.
+     *
+     * @param request   the current request
+     * @param response  the current response
+     * @param handler   the handler that threw the exception, or null
+     * @param exception the exception
+     * @return always null, so the next resolvers handle the exception
+     */
+    @Override
+    public ModelAndView resolveException(HttpServletRequest request, HttpServletResponse response,
+                                         Object handler, Exception exception) {
+        if (!isClientError(exception)) {
+            callback.onException(exception);
+        }
+        return null;
+    }
+
+    /**
+     * Checks whether the exception carries a 4xx status.
+     *
+     * @param exception the exception
+     * @return true for client errors
+     */
+    private static boolean isClientError(Exception exception) {
+        return exception instanceof ErrorResponse
+                && ((ErrorResponse) exception).getStatusCode().is4xxClientError();
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
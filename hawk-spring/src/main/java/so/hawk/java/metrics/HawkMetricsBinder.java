@@ -0,0 +1,147 @@
+package so.hawk.java.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import so.hawk.catcher.Hawk;
+import so.hawk.catcher.HawkMetricsSnapshot;
+import so.hawk.catcher.HistogramSnapshot;
+
+/**
+ * Publishes the catcher's own metrics to Micrometer.
+ * <p>
+ * Counters become {@code hawk.events.*} function counters, queue depth and spool size become gauges,
+ * and each latency histogram becomes a function timer with p50, p99 and max time gauges.
+ * Meters read a snapshot that is refreshed at most once per second, so a scrape takes one snapshot.
+ * Until Hawk is initialized all meters read 0.
+ */
+public class HawkMetricsBinder implements MeterBinder {
+
+    /**
+     * How long a snapshot is reused between meter reads.
+     */
+    private static final long SNAPSHOT_TTL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * Last snapshot, or null before Hawk is initialized.
+     */
+    private volatile HawkMetricsSnapshot snapshot;
+
+    /**
+     * Time the last snapshot was taken, from {@link System#nanoTime()}.
+     */
+    private volatile long snapshotTime;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        counter(registry, "hawk.events.composed", "Events composed from an exception or message", HawkMetricsSnapshot::getEventsComposed);
+        counter(registry, "hawk.events.sent", "Events accepted by the collector", HawkMetricsSnapshot::getEventsSent);
+        counter(registry, "hawk.events.failed", "Events not accepted by the collector", HawkMetricsSnapshot::getEventsFailed);
+        counter(registry, "hawk.events.dropped", "Events discarded by a full queue or spool", HawkMetricsSnapshot::getEventsDropped);
+        counter(registry, "hawk.events.deduplicated", "Occurrences collapsed by deduplication", HawkMetricsSnapshot::getEventsDeduplicated);
+        counter(registry, "hawk.events.rate.limited", "Events rejected by sampling or rate limits", HawkMetricsSnapshot::getEventsRateLimited);
+        counter(registry, "hawk.events.filtered", "Events dropped by event processors", HawkMetricsSnapshot::getEventsFiltered);
+
+        Gauge.builder("hawk.queue.depth", this, binder -> binder.read(HawkMetricsSnapshot::getQueueDepth))
+                .description("Events waiting in the dispatch queue")
+                .register(registry);
+        Gauge.builder("hawk.spool.size", this, binder -> binder.read(HawkMetricsSnapshot::getSpoolSizeBytes))
+                .description("Disk space used by the spool")
+                .baseUnit("bytes")
+                .register(registry);
+
+        timer(registry, "hawk.compose", "Time spent composing events", HawkMetricsSnapshot::getComposeLatency);
+        timer(registry, "hawk.serialize", "Time spent processing and serializing events", HawkMetricsSnapshot::getSerializeLatency);
+        timer(registry, "hawk.http", "Duration of HTTP requests to the collector", HawkMetricsSnapshot::getHttpRoundTrip);
+    }
+
+    /**
+     * Registers a function counter.
+     *
+     * @param registry    the registry
+     * @param name        the meter name
+     * @param description the meter description
+     * @param value       reads the counter from a snapshot
+     */
+    private void counter(MeterRegistry registry, String name, String description, ToLongFunction<HawkMetricsSnapshot> value) {
+        FunctionCounter.builder(name, this, binder -> binder.read(value))
+                .description(description)
+                .register(registry);
+    }
+
+    /**
+     * Registers a function timer and percentile gauges for a histogram.
+     *
+     * @param registry    the registry
+     * @param name        the meter name
+     * @param description the meter description
+     * @param histogram   reads the histogram from a snapshot
+     */
+    private void timer(MeterRegistry registry, String name, String description,
+                       Function<HawkMetricsSnapshot, HistogramSnapshot> histogram) {
+        FunctionTimer.builder(name, this,
+                        binder -> binder.read(s -> histogram.apply(s).getCount()),
+                        binder -> binder.read(s -> histogram.apply(s).getTotalNanos()),
+                        TimeUnit.NANOSECONDS)
+                .description(description)
+                .register(registry);
+        percentile(registry, name, "0.5", description, s -> histogram.apply(s).getP50Nanos());
+        percentile(registry, name, "0.99", description, s -> histogram.apply(s).getP99Nanos());
+        percentile(registry, name, "max", description, s -> histogram.apply(s).getMaxNanos());
+    }
+
+    /**
+     * Registers a time gauge for one percentile of a histogram.
+     *
+     * @param registry    the registry
+     * @param name        the histogram meter name
+     * @param percentile  the percentile tag value
+     * @param description the meter description
+     * @param value       reads the percentile in nanoseconds from a snapshot
+     */
+    private void percentile(MeterRegistry registry, String name, String percentile, String description,
+                            ToLongFunction<HawkMetricsSnapshot> value) {
+        TimeGauge.builder(name + ".percentile", this, TimeUnit.NANOSECONDS, binder -> binder.read(value))
+                .tag("percentile", percentile)
+                .description(description)
+                .register(registry);
+    }
+
+    /**
+     * Reads a value from the current snapshot.
+     *
+     * @param value reads the value from a snapshot
+     * @return the value, 0 if Hawk is not initialized
+     */
+    private long read(ToLongFunction<HawkMetricsSnapshot> value) {
+        HawkMetricsSnapshot current = currentSnapshot();
+        return current != null ? value.applyAsLong(current) : 0;
+    }
+
+    /**
+     * Returns the cached snapshot, taking a new one if it is older than the TTL.
+     *
+     * @return the snapshot, or null if Hawk is not initialized
+     */
+    private HawkMetricsSnapshot currentSnapshot() {
+        long now = System.nanoTime();
+        HawkMetricsSnapshot current = snapshot;
+        if (current == null || now - snapshotTime > SNAPSHOT_TTL_NANOS) {
+            try {
+                current = Hawk.getMetrics();
+            } catch (IllegalStateException e) {
+                return null;
+            }
+            snapshot = current;
+            snapshotTime = now;
+        }
+        return current;
+    }
+}
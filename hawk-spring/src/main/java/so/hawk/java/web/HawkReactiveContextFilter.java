@@ -0,0 +1,39 @@
+package so.hawk.java.web;
+
+import java.util.Map;
+
+import org.springframework.core.Ordered;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * Makes the Hawk context written by other web filters visible to {@link HawkWebExceptionHandler}.
+ * <p>
+ * Exception handlers run outside the filter chain, so they do not see its Reactor context. This filter
+ * runs last and copies a reference to the Hawk context, if any, into an exchange attribute.
+ */
+public class HawkReactiveContextFilter implements WebFilter, Ordered {
+
+    /**
+     * Exchange attribute holding the Hawk context of the filter chain.
+     */
+    public static final String CONTEXT_ATTRIBUTE = HawkReactiveContextFilter.class.getName() + ".context";
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        return Mono.deferContextual(context -> {
+            Map<String, Object> values = HawkReactorContext.get(context);
+            if (!values.isEmpty()) {
+                exchange.getAttributes().put(CONTEXT_ATTRIBUTE, values);
+            }
+            return chain.filter(exchange);
+        });
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+}
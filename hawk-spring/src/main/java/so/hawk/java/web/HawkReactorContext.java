@@ -0,0 +1,108 @@
+package so.hawk.java.web;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+import so.hawk.catcher.ContextScope;
+import so.hawk.catcher.Hawk;
+
+/**
+ * Hawk context carried in the Reactor {@link Context} instead of a thread, for reactive pipelines
+ * that hop between threads.
+ * <p>
+ * Values written with {@link #withContext} in a {@code WebFilter} are picked up by
+ * {@link HawkWebExceptionHandler}; {@link #report} sends an error with the values visible
+ * to the operator it is used in:
+ *
+ * <pre>{@code
+ * return chain.filter(exchange).contextWrite(HawkReactorContext.withContext("tenant", tenantId));
+ *
+ * mono.onErrorResume(e -> HawkReactorContext.report(e).then(Mono.empty()));
+ * }</pre>
+ */
+public final class HawkReactorContext {
+
+    /**
+     * Reactor context key holding the Hawk context, an unmodifiable map.
+     */
+    public static final String KEY = HawkReactorContext.class.getName();
+
+    private HawkReactorContext() {
+    }
+
+    /**
+     * Returns a function adding a context value, for use with {@code contextWrite}.
+     * Existing values are copied, so each write allocates a new map.
+     *
+     * @param key   the context key
+     * @param value the value
+     * @return the context function
+     */
+    public static Function<Context, Context> withContext(String key, Object value) {
+        if (key == null) {
+            throw new IllegalArgumentException("Context key must not be null.");
+        }
+        return context -> {
+            Map<String, Object> values = new LinkedHashMap<>(get(context));
+            values.put(key, value);
+            return context.put(KEY, Collections.unmodifiableMap(values));
+        };
+    }
+
+    /**
+     * Gets the Hawk context from a Reactor context.
+     *
+     * @param context the Reactor context
+     * @return the values, empty if none were written
+     */
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> get(ContextView context) {
+        return context.getOrDefault(KEY, Collections.emptyMap());
+    }
+
+    /**
+     * Reports an error with the Hawk context visible at the subscription point. The event is
+     * composed and sent by a background thread, so the subscribing thread never blocks.
+     *
+     * @param error the error to report
+     * @return a Mono emitting true if the event was queued
+     */
+    public static Mono<Boolean> report(Throwable error) {
+        return Mono.deferContextual(context -> Mono.just(send(error, get(context))));
+    }
+
+    /**
+     * Queues an error with the given context values through {@link Hawk#sendAsync(Object)}.
+     * The values are attached as context scopes, which the background reporter captures.
+     *
+     * @param error   the error to report
+     * @param context the context values
+     * @return true if the event was queued
+     */
+    static boolean send(Throwable error, Map<String, Object> context) {
+        if (!Hawk.isInitialized()) {
+            return false;
+        }
+        List<ContextScope> scopes = new ArrayList<>(context.size());
+        try {
+            for (Map.Entry<String, Object> entry : context.entrySet()) {
+                scopes.add(Hawk.withContext(entry.getKey(), entry.getValue()));
+            }
+            return Hawk.sendAsync(error);
+        } catch (IllegalStateException e) {
+            // Hawk was closed concurrently.
+            return false;
+        } finally {
+            for (int i = scopes.size() - 1; i >= 0; i--) {
+                scopes.get(i).close();
+            }
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package so.hawk.java.web;
+
+import java.security.Principal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Per-thread holder of the request being handled, reused across requests.
+ * <p>
+ * {@link HawkRequestContextFilter} only stores a reference to the request, so requests that do not fail
+ * allocate nothing. When an exception is reported, {@link #capture()} reads the method, route template,
+ * selected headers, principal and trace ID into a map sent as {@code payload.context.request}.
+ */
+public final class HawkRequestContext {
+
+    /**
+     * Context key the captured request is sent under.
+     */
+    public static final String CONTEXT_KEY = "request";
+
+    /**
+     * Holder of each thread, created on its first request.
+     */
+    private static final ThreadLocal<HawkRequestContext> HOLDER = ThreadLocal.withInitial(HawkRequestContext::new);
+
+    /**
+     * Request being handled on this thread, or null.
+     */
+    private HttpServletRequest request;
+
+    /**
+     * Filter that bound the request, providing the header names to capture.
+     */
+    private HawkRequestContextFilter filter;
+
+    private HawkRequestContext() {
+    }
+
+    /**
+     * Gets the holder of the current thread.
+     *
+     * @return the holder
+     */
+    static HawkRequestContext get() {
+        return HOLDER.get();
+    }
+
+    /**
+     * Binds a request to this holder.
+     *
+     * @param request the request, or null to unbind
+     * @param filter  the filter that bound it, or null
+     */
+    void bind(HttpServletRequest request, HawkRequestContextFilter filter) {
+        this.request = request;
+        this.filter = filter;
+    }
+
+    /**
+     * Gets the bound request.
+     *
+     * @return the request, or null
+     */
+    HttpServletRequest getRequest() {
+        return request;
+    }
+
+    /**
+     * Gets the filter that bound the request.
+     *
+     * @return the filter, or null
+     */
+    HawkRequestContextFilter getFilter() {
+        return filter;
+    }
+
+    /**
+     * Reads the request handled on the current thread into a map. Must be called on the request
+     * thread, before the response is completed.
+     *
+     * @return the request context, or null if no request is bound
+     */
+    public static Map<String, Object> capture() {
+        HawkRequestContext holder = HOLDER.get();
+        HttpServletRequest request = holder.request;
+        if (request == null) {
+            return null;
+        }
+        HawkRequestContextFilter filter = holder.filter;
+
+        Map<String, Object> context = new LinkedHashMap<>();
+        context.put("method", request.getMethod());
+        context.put("url", request.getRequestURI());
+        Object route = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (route != null) {
+            context.put("route", route.toString());
+        }
+
+        Map<String, String> headers = new LinkedHashMap<>();
+        for (String name : filter.getHeaders()) {
+            String value = request.getHeader(name);
+            if (value != null) {
+                headers.put(name, value);
+            }
+        }
+        if (!headers.isEmpty()) {
+            context.put("headers", headers);
+        }
+
+        Principal principal = request.getUserPrincipal();
+        if (principal != null) {
+            context.put("principal", principal.getName());
+        }
+        String traceId = traceId(request, filter.getTraceHeaders());
+        if (traceId != null) {
+            context.put("traceId", traceId);
+        }
+        return context;
+    }
+
+    /**
+     * Reads the trace ID from the first trace header present.
+     *
+     * @param request      the request
+     * @param traceHeaders the header names, in order of preference
+     * @return the trace ID, or null if none of the headers is present
+     */
+    private static String traceId(HttpServletRequest request, String[] traceHeaders) {
+        for (String name : traceHeaders) {
+            String traceId = TraceHeaders.parseTraceId(name, request.getHeader(name));
+            if (traceId != null) {
+                return traceId;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,80 @@
+package so.hawk.java.web;
+
+import java.io.IOException;
+
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Binds the current request to the thread's {@link HawkRequestContext} for the duration of the request.
+ * <p>
+ * Nothing is read from the request here: the holder is reused and only keeps a reference, and the
+ * previous binding is restored afterwards so nested dispatches are handled. Register it after the
+ * security filters so the principal of the wrapped request is captured.
+ */
+public class HawkRequestContextFilter implements Filter {
+
+    /**
+     * Names of the request headers sent with events.
+     */
+    private final String[] headers;
+
+    /**
+     * Names of the headers carrying the trace ID, in order of preference.
+     */
+    private final String[] traceHeaders;
+
+    /**
+     * Creates the filter.
+     *
+     * @param headers      the names of the request headers sent with events
+     * @param traceHeaders the names of the headers carrying the trace ID, in order of preference
+     */
+    public HawkRequestContextFilter(String[] headers, String[] traceHeaders) {
+        if (headers == null || traceHeaders == null) {
+            throw new IllegalArgumentException("Header names must not be null.");
+        }
+        this.headers = headers.clone();
+        this.traceHeaders = traceHeaders.clone();
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        if (!(request instanceof HttpServletRequest)) {
+            chain.doFilter(request, response);
+            return;
+        }
+        HawkRequestContext holder = HawkRequestContext.get();
+        HttpServletRequest previousRequest = holder.getRequest();
+        HawkRequestContextFilter previousFilter = holder.getFilter();
+        holder.bind((HttpServletRequest) request, this);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            holder.bind(previousRequest, previousFilter);
+        }
+    }
+
+    /**
+     * Gets the names of the request headers sent with events.
+     *
+     * @return the header names
+     */
+    String[] getHeaders() {
+        return headers;
+    }
+
+    /**
+     * Gets the names of the headers carrying the trace ID.
+     *
+     * @return the header names, in order of preference
+     */
+    String[] getTraceHeaders() {
+        return traceHeaders;
+    }
+}
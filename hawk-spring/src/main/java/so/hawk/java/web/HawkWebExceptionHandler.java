@@ -0,0 +1,139 @@
+package so.hawk.java.web;
+
+import java.security.Principal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.ErrorResponse;
+import org.springframework.web.reactive.HandlerMapping;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebExceptionHandler;
+import reactor.core.publisher.Mono;
+import reactor.util.context.ContextView;
+import so.hawk.catcher.Hawk;
+
+/**
+ * Reports errors of WebFlux applications to Hawk, then passes them on to the next exception handler,
+ * which renders the response.
+ * <p>
+ * The request, the principal and the Hawk context from the Reactor context are captured on the calling
+ * thread, and the event is queued with {@link Hawk#sendAsync(Object)}: deduplication and rate limits
+ * are lock-free, composing and sending happen on Hawk's own threads, so event loop threads never block.
+ * Errors with a 4xx status, such as unknown routes, are not reported.
+ */
+public class HawkWebExceptionHandler implements WebExceptionHandler, Ordered {
+
+    /**
+     * Order of this handler: before Spring Boot's error handler, which ends the chain.
+     */
+    public static final int ORDER = -2;
+
+    /**
+     * Names of the request headers sent with events.
+     */
+    private final String[] headers;
+
+    /**
+     * Names of the headers carrying the trace ID, in order of preference.
+     */
+    private final String[] traceHeaders;
+
+    /**
+     * Creates the exception handler.
+     *
+     * @param headers      the names of the request headers sent with events
+     * @param traceHeaders the names of the headers carrying the trace ID, in order of preference
+     */
+    public HawkWebExceptionHandler(String[] headers, String[] traceHeaders) {
+        if (headers == null || traceHeaders == null) {
+            throw new IllegalArgumentException("Header names must not be null.");
+        }
+        this.headers = headers.clone();
+        this.traceHeaders = traceHeaders.clone();
+    }
+
+    @Override
+    public Mono<Void> handle(ServerWebExchange exchange, Throwable ex) {
+        if (!Hawk.isInitialized() || isClientError(ex)) {
+            return Mono.error(ex);
+        }
+        return exchange.getPrincipal()
+                .map(Principal::getName)
+                .onErrorResume(e -> Mono.empty())
+                .defaultIfEmpty("")
+                .flatMap(principal -> Mono.deferContextual(context -> {
+                    HawkReactorContext.send(ex, capture(exchange, principal, context));
+                    return Mono.<Void>error(ex);
+                }));
+    }
+
+    /**
+     * Checks whether the error carries a 4xx status.
+     *
+     * @param ex the error
+     * @return true for client errors
+     */
+    private static boolean isClientError(Throwable ex) {
+        return ex instanceof ErrorResponse && ((ErrorResponse) ex).getStatusCode().is4xxClientError();
+    }
+
+    /**
+     * Collects the context sent with the event: values from the filter chain's and the handler's
+     * Reactor context, then the request.
+     *
+     * @param exchange  the exchange
+     * @param principal the principal name, empty if there is none
+     * @param reactor   the Reactor context of the exception handler
+     * @return the context values
+     */
+    private Map<String, Object> capture(ServerWebExchange exchange, String principal, ContextView reactor) {
+        Map<String, Object> context = new LinkedHashMap<>();
+        Map<String, Object> chainContext = exchange.getAttribute(HawkReactiveContextFilter.CONTEXT_ATTRIBUTE);
+        if (chainContext != null) {
+            context.putAll(chainContext);
+        }
+        context.putAll(HawkReactorContext.get(reactor));
+
+        ServerHttpRequest request = exchange.getRequest();
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("method", request.getMethod().name());
+        values.put("url", request.getPath().value());
+        Object route = exchange.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (route != null) {
+            values.put("route", route.toString());
+        }
+
+        HttpHeaders requestHeaders = request.getHeaders();
+        Map<String, String> headerValues = new LinkedHashMap<>();
+        for (String name : headers) {
+            String value = requestHeaders.getFirst(name);
+            if (value != null) {
+                headerValues.put(name, value);
+            }
+        }
+        if (!headerValues.isEmpty()) {
+            values.put("headers", headerValues);
+        }
+
+        if (!principal.isEmpty()) {
+            values.put("principal", principal);
+        }
+        for (String name : traceHeaders) {
+            String traceId = TraceHeaders.parseTraceId(name, requestHeaders.getFirst(name));
+            if (traceId != null) {
+                values.put("traceId", traceId);
+                break;
+            }
+        }
+        context.put(HawkRequestContext.CONTEXT_KEY, values);
+        return context;
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+}
@@ -0,0 +1,32 @@
+package so.hawk.java.web;
+
+/**
+ * Reads trace IDs from tracing headers.
+ */
+final class TraceHeaders {
+
+    private TraceHeaders() {
+    }
+
+    /**
+     * Extracts the trace ID from a trace header. For a W3C {@code traceparent} header only
+     * the trace-id field is returned, other headers are returned as they are.
+     *
+     * @param name  the header name
+     * @param value the header value, or null
+     * @return the trace ID, or null if the value is empty
+     */
+    static String parseTraceId(String name, String value) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        if ("traceparent".equalsIgnoreCase(name)) {
+            int start = value.indexOf('-');
+            int end = start < 0 ? -1 : value.indexOf('-', start + 1);
+            if (end > start) {
+                return value.substring(start + 1, end);
+            }
+        }
+        return value;
+    }
+}